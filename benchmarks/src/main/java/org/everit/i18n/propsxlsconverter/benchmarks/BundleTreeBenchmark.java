@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.everit.i18n.propsxlsconverter.I18nConverter;
+import org.everit.i18n.propsxlsconverter.internal.I18nConverterImpl;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class of the benchmarks that work on a generated {@link SyntheticBundleTree}. The shape of
+ * the tree can be changed with the <code>-p</code> option of JMH, for example
+ * <code>-p bundleCount=100 -p keyCount=500</code>.
+ */
+@State(Scope.Benchmark)
+public abstract class BundleTreeBenchmark {
+
+  protected static final String FILE_REGULAR_EXPRESSION = ".*\\.properties$";
+
+  @Param({ "10" })
+  public int bundleCount;
+
+  @Param({ "xls", "xlsx", "csv", "xlf" })
+  public String format;
+
+  protected Path importDirectory;
+
+  protected final I18nConverter i18nConverter = new I18nConverterImpl();
+
+  @Param({ "1000" })
+  public int keyCount;
+
+  @Param({ "2" })
+  public int languageCount;
+
+  protected String[] languages;
+
+  @Param({ "0" })
+  public int repeatedValuePercent;
+
+  @Param({ "40" })
+  public int valueLength;
+
+  protected Path workingDirectory;
+
+  protected Path xlsFile;
+
+  /**
+   * Called after the bundle tree is generated.
+   */
+  protected void afterSetUp() {
+  }
+
+  protected void exportToXls() {
+    i18nConverter.exportToXls(xlsFile.toString(), workingDirectory.toString(),
+        FILE_REGULAR_EXPRESSION, languages);
+  }
+
+  protected void importFromXls() {
+    i18nConverter.importFromXls(xlsFile.toString(), importDirectory.toString());
+  }
+
+  /**
+   * Generates the properties files.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    languages = SyntheticBundleTree.languages(languageCount);
+    workingDirectory = SyntheticBundleTree.create(bundleCount, keyCount, languages, valueLength,
+        repeatedValuePercent);
+    xlsFile = workingDirectory.resolveSibling(workingDirectory.getFileName() + "." + format);
+    importDirectory = Files.createTempDirectory("i18n-benchmark-import");
+    afterSetUp();
+  }
+
+  /**
+   * Deletes the generated files.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    SyntheticBundleTree.delete(workingDirectory);
+    SyntheticBundleTree.delete(xlsFile);
+    SyntheticBundleTree.delete(importDirectory);
+  }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.everit.i18n.propsxlsconverter.internal.files.LanguageSuffixResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link LanguageSuffixResolver} with the language detection that was used before
+ * it: one <code>lastIndexOf</code> (grouping) and one <code>contains</code> (reading) call with a
+ * concatenated search string per language. Every file name is resolved once for its default
+ * language file name and once for its column, as the export does. Run with <code>-prof gc</code>
+ * to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class LanguageSuffixBenchmark {
+
+  private static final int FILE_COUNT = 1000;
+
+  private static final String UNDERLINE = "_";
+
+  private String[] fileNames;
+
+  @Param({ "5", "40" })
+  public int languageCount;
+
+  private String[] languages;
+
+  private LanguageSuffixResolver languageSuffixResolver;
+
+  private static String legacyDefaultLangFileName(final String fileName,
+      final String[] languages) {
+    String defaultLangFileName = fileName;
+    for (String lang : languages) {
+      String searchLang = UNDERLINE + lang;
+      int lastIndexOf = fileName.lastIndexOf(searchLang);
+      if (lastIndexOf > -1) {
+        defaultLangFileName = fileName.substring(0, lastIndexOf)
+            + fileName.substring(lastIndexOf + searchLang.length());
+      }
+    }
+    return defaultLangFileName;
+  }
+
+  private static int legacyLanguageIndex(final String fileName, final String[] languages) {
+    for (int i = 0; i < languages.length; i++) {
+      if (fileName.contains(UNDERLINE + languages[i])) {
+        return i;
+      }
+    }
+    return LanguageSuffixResolver.DEFAULT_LANGUAGE;
+  }
+
+  /**
+   * The language detection of the export before the {@link LanguageSuffixResolver}.
+   */
+  @Benchmark
+  public void legacySuffixSearch(final Blackhole blackhole) {
+    for (String fileName : fileNames) {
+      blackhole.consume(legacyDefaultLangFileName(fileName, languages));
+      blackhole.consume(legacyLanguageIndex(fileName, languages));
+    }
+  }
+
+  @Benchmark
+  public void resolver(final Blackhole blackhole) {
+    for (String fileName : fileNames) {
+      blackhole.consume(languageSuffixResolver.getDefaultLangFileName(fileName));
+      blackhole.consume(languageSuffixResolver.resolveLanguage(fileName));
+    }
+  }
+
+  /**
+   * Generates the languages from the available locales, half of them with a country, and the file
+   * names of bundles that have a default language file and one file per language.
+   */
+  @Setup
+  public void setUp() {
+    languages = new String[languageCount];
+    Locale[] locales = Locale.getAvailableLocales();
+    int languageIndex = 0;
+    for (int i = 0; (i < locales.length) && (languageIndex < languageCount); i++) {
+      String tag = locales[i].toString();
+      boolean withCountry = (languageIndex % 2) == 1;
+      if (!tag.isEmpty() && (tag.indexOf('#') < 0)
+          && (withCountry == !locales[i].getCountry().isEmpty())
+          && locales[i].getVariant().isEmpty()) {
+        languages[languageIndex++] = tag;
+      }
+    }
+    if (languageIndex < languageCount) {
+      throw new IllegalStateException("Not enough locales for " + languageCount + " languages.");
+    }
+    languageSuffixResolver = new LanguageSuffixResolver(languages);
+
+    fileNames = new String[FILE_COUNT];
+    for (int i = 0; i < FILE_COUNT; i++) {
+      int column = i % (languageCount + 1);
+      String suffix = column == 0 ? "" : UNDERLINE + languages[column - 1];
+      fileNames[i] = "module_" + (i / (languageCount + 1)) + "_messages" + suffix + ".properties";
+    }
+  }
+
+}
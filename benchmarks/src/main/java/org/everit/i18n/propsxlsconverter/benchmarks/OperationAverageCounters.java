@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Base class of the auxiliary counters that report the average of a value per operation. JMH sums
+ * the {@link AuxCounters.Type#EVENTS} counters over the measurement iterations and the forks, so
+ * the average of an iteration is divided by their number and the score is the average of one
+ * operation instead of a sum.
+ */
+public abstract class OperationAverageCounters {
+
+  private int iterationCount = 1;
+
+  private int operationCount;
+
+  private double total;
+
+  protected double average() {
+    if (operationCount == 0) {
+      return 0;
+    }
+    return total / operationCount / iterationCount;
+  }
+
+  protected void record(final double value) {
+    total += value;
+    operationCount++;
+  }
+
+  /**
+   * Starts the average of a new iteration.
+   */
+  @Setup(Level.Iteration)
+  public void resetIteration() {
+    total = 0;
+    operationCount = 0;
+  }
+
+  /**
+   * Gets the number of the summed iterations.
+   */
+  @Setup(Level.Trial)
+  public void setUpTrial(final BenchmarkParams benchmarkParams) {
+    iterationCount = benchmarkParams.getMeasurement().getCount()
+        * Math.max(1, benchmarkParams.getForks());
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Reports the peak heap usage of the iterations. The peak usage of the heap memory pools is reset
+ * before every iteration and summed after it, so the result is an upper bound of the real peak.
+ * Usage: <code>-prof org.everit.i18n.propsxlsconverter.benchmarks.PeakHeapProfiler</code>.
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+
+  private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+  @Override
+  public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams,
+      final IterationParams iterationParams, final IterationResult result) {
+    long peakHeapUsage = 0;
+    for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (memoryPool.getType() == MemoryType.HEAP) {
+        peakHeapUsage += memoryPool.getPeakUsage().getUsed();
+      }
+    }
+    return Collections.singletonList(new ScalarResult("peak.heap",
+        peakHeapUsage / BYTES_PER_MEGABYTE, "MB", AggregationPolicy.MAX));
+  }
+
+  @Override
+  public void beforeIteration(final BenchmarkParams benchmarkParams,
+      final IterationParams iterationParams) {
+    for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (memoryPool.getType() == MemoryType.HEAP) {
+        memoryPool.resetPeakUsage();
+      }
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Peak heap usage of the iterations";
+  }
+
+}
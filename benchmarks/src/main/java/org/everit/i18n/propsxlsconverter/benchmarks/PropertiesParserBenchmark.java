@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.everit.i18n.propsxlsconverter.internal.properties.PropertiesParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link PropertiesParser} with the line parsing that was used before it: unescaping
+ * the whole line with {@link StringEscapeUtils#unescapeJava(String)} and searching the separator
+ * with five <code>indexOf</code> calls. The <code>*File</code> benchmarks compare reading a file
+ * through a reader chain with the byte level parsing of the file. Run with <code>-prof gc</code> to
+ * compare the allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class PropertiesParserBenchmark {
+
+  private static final int SEPARATOR_SIZE = 5;
+
+  private String content;
+
+  private Path file;
+
+  @Param({ "10", "1000" })
+  public int keyCount;
+
+  private final PropertiesParser propertiesParser = new PropertiesParser();
+
+  @Param({ "40" })
+  public int valueLength;
+
+  private static int getPropertySeparatorIndex(final String unescapedLine) {
+    int[] separators = new int[SEPARATOR_SIZE];
+    int index = 0;
+    separators[index++] = unescapedLine.indexOf('=');
+    separators[index++] = unescapedLine.indexOf(' ');
+    separators[index++] = unescapedLine.indexOf(':');
+    separators[index++] = unescapedLine.indexOf('\t');
+    separators[index++] = unescapedLine.indexOf('\f');
+    Arrays.sort(separators);
+    for (int i = 0; i < separators.length; i++) {
+      if (separators[i] != -1) {
+        return separators[i];
+      }
+    }
+    throw new IllegalStateException("Separator not found in [" + unescapedLine + "].");
+  }
+
+  /**
+   * The line parsing of the export before the {@link PropertiesParser}.
+   */
+  @Benchmark
+  public void legacyLineParser(final Blackhole blackhole) throws IOException {
+    try (BufferedReader br = new BufferedReader(new StringReader(content))) {
+      String line = null;
+      while ((line = br.readLine()) != null) {
+        if (!"".equals(line) && (line.charAt(0) != '#')) {
+          String unescapedLine = StringEscapeUtils.unescapeJava(line);
+          int separatorIndex = getPropertySeparatorIndex(unescapedLine);
+          blackhole.consume(unescapedLine.substring(0, separatorIndex));
+          blackhole.consume(unescapedLine.substring(separatorIndex + 1));
+        }
+      }
+    }
+  }
+
+  /**
+   * Parses the file with the byte level parser.
+   */
+  @Benchmark
+  public void bytesFileParser(final Blackhole blackhole) throws IOException {
+    propertiesParser.parse(file, (key, value) -> {
+      blackhole.consume(key);
+      blackhole.consume(value);
+    });
+  }
+
+  /**
+   * Parses the file through a FileInputStream and an InputStreamReader.
+   */
+  @Benchmark
+  public void readerFileParser(final Blackhole blackhole) throws IOException {
+    try (FileInputStream fileInputStream = new FileInputStream(file.toFile());
+        InputStreamReader inputStreamReader =
+            new InputStreamReader(fileInputStream, StandardCharsets.UTF_8)) {
+      propertiesParser.parse(inputStreamReader, (key, value) -> {
+        blackhole.consume(key);
+        blackhole.consume(value);
+      });
+    }
+  }
+
+  @Benchmark
+  public void propertiesParser(final Blackhole blackhole) throws IOException {
+    propertiesParser.parse(new StringReader(content), (key, value) -> {
+      blackhole.consume(key);
+      blackhole.consume(value);
+    });
+  }
+
+  /**
+   * Generates the content of a properties file with comments and escaped characters.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < keyCount; i++) {
+      if ((i % 10) == 0) {
+        sb.append("# comment ").append(i).append('\n');
+      }
+      sb.append("group").append(i % 10).append(".key_").append(i).append('=');
+      for (int j = 0; j < valueLength; j++) {
+        sb.append((j % 20) == 0 ? "\\u00e1" : String.valueOf((char) ('a' + (j % 26))));
+      }
+      sb.append('\n');
+    }
+    content = sb.toString();
+    file = Files.createTempFile("i18n-benchmark", ".properties");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @TearDown
+  public void tearDown() {
+    SyntheticBundleTree.delete(file);
+  }
+
+}
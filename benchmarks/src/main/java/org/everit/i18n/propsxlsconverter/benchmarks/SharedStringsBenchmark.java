@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.everit.i18n.propsxlsconverter.ExportOptions;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the savings of the shared strings table of XLSX workbooks. The average size of the
+ * exported workbook is reported as the <code>workbookKiB</code> counter, the heap usage can be
+ * compared with the {@link PeakHeapProfiler}. The heap saved by the pooled values of the bundles
+ * is measured by the {@link StringPoolBenchmark}. Run with <code>-p format=xlsx</code> and a
+ * <code>repeatedValuePercent</code> that matches the translations, for example
+ * <code>-p repeatedValuePercent=30</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+public class SharedStringsBenchmark extends BundleTreeBenchmark {
+
+  /**
+   * The size of the exported workbook.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class WorkbookSize extends OperationAverageCounters {
+
+    private static final double BYTES_PER_KIBIBYTE = 1024;
+
+    public double workbookKiB() {
+      return average() / BYTES_PER_KIBIBYTE;
+    }
+
+  }
+
+  @Param({ "false", "true" })
+  public boolean sharedStringsTable;
+
+  /**
+   * Exports the workbook and records its size.
+   */
+  @Benchmark
+  public void export(final WorkbookSize workbookSize) throws IOException {
+    i18nConverter.exportToXls(xlsFile.toString(), workingDirectory.toString(),
+        FILE_REGULAR_EXPRESSION, languages,
+        new ExportOptions().sharedStringsTable(sharedStringsTable));
+    workbookSize.record(Files.size(xlsFile));
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.everit.i18n.propsxlsconverter.internal.files.BundleGrouper;
+import org.everit.i18n.propsxlsconverter.internal.files.PropertiesFileWalker;
+import org.everit.i18n.propsxlsconverter.internal.properties.PropertiesBundleReader;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+import org.everit.i18n.propsxlsconverter.internal.util.StringPool;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the heap that the {@link StringPool} of the {@link PropertiesBundleReader} saves. All
+ * bundles of the tree are read into translation tables, as a session keeps them in its cache, and
+ * the average heap retained by the tables is reported as the <code>retainedHeapMiB</code>
+ * counter. The time of the operations includes several full garbage collections, so only the
+ * counter is meaningful. The format is not used, run with <code>-p format=xlsx</code> and a
+ * <code>repeatedValuePercent</code> that matches the translations, for example
+ * <code>-p repeatedValuePercent=30</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+public class StringPoolBenchmark extends BundleTreeBenchmark {
+
+  /**
+   * The heap retained by the translation tables of all bundles.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class RetainedHeap extends OperationAverageCounters {
+
+    private static final double BYTES_PER_MEBIBYTE = 1024 * 1024;
+
+    public double retainedHeapMiB() {
+      return average() / BYTES_PER_MEBIBYTE;
+    }
+
+  }
+
+  private static final int GC_COUNT = 5;
+
+  private Map<String, List<File>> bundles;
+
+  @Param({ "false", "true" })
+  public boolean stringPool;
+
+  /**
+   * The tables of the current operation. Released after the heap is measured with them.
+   */
+  private volatile List<TranslationTable> tables;
+
+  /**
+   * Gets the smallest used heap after several garbage collections, because the JVM skips a
+   * <code>System.gc()</code> call if another collection runs at the same time.
+   */
+  private static long usedHeapAfterGc() {
+    long usedHeap = Long.MAX_VALUE;
+    for (int i = 0; i < GC_COUNT; i++) {
+      System.gc();
+      usedHeap = Math.min(usedHeap,
+          ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+    }
+    return usedHeap;
+  }
+
+  @Override
+  protected void afterSetUp() {
+    bundles = new BundleGrouper(languages, workingDirectory.toString()).groupFiles(
+        new PropertiesFileWalker(workingDirectory.toFile(), FILE_REGULAR_EXPRESSION,
+            Collections.<String> emptyList(), 1).walk());
+  }
+
+  /**
+   * Reads the bundles. The reader and its pool are unreachable when the method returns, so only
+   * the tables are retained.
+   */
+  private List<TranslationTable> readAllBundles() {
+    PropertiesBundleReader bundleReader = new PropertiesBundleReader(languages,
+        stringPool ? new StringPool() : null);
+    List<TranslationTable> bundleTables = new ArrayList<TranslationTable>(bundles.size());
+    bundles.forEach((fileAccess, bundleFiles) -> bundleTables
+        .add(bundleReader.readBundle(fileAccess, bundleFiles)));
+    return bundleTables;
+  }
+
+  /**
+   * Reads all bundles and records the heap retained by their tables.
+   */
+  @Benchmark
+  public int readBundles(final RetainedHeap retainedHeap) {
+    tables = readAllBundles();
+    int tableCount = tables.size();
+    long usedHeapWithTables = usedHeapAfterGc();
+    tables = null;
+    retainedHeap.record(usedHeapWithTables - usedHeapAfterGc());
+    return tableCount;
+  }
+
+}
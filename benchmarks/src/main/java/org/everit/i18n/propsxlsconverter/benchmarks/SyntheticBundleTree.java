@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Generates a properties file tree. Every bundle has a default language file and one file per
+ * language, the bundles are spread into subdirectories.
+ */
+public final class SyntheticBundleTree {
+
+  private static final int BUNDLES_PER_DIRECTORY = 10;
+
+  private static final String[] COMMON_VALUES = new String[] { "OK", "Cancel", "Save",
+      "Delete", "Edit", "Close", "Yes", "No", "Back", "Next" };
+
+  private static final String[] LANGUAGES = new String[] { "hu", "de", "fr", "it", "es", "pt",
+      "nl", "pl", "cs", "sk" };
+
+  private static final String VALUE_CHARACTERS = "abcdefghijklmnopqrstuvwxyz áéíóöőúüű";
+
+  /**
+   * Creates the properties files into a new temporary directory.
+   *
+   * @param bundleCount
+   *          the number of bundles.
+   * @param keyCount
+   *          the number of keys in every properties file.
+   * @param languages
+   *          the languages to generate files for besides the default language.
+   * @param valueLength
+   *          the minimum length of the values.
+   * @param repeatedValuePercent
+   *          the percent of the values that are repeated in every bundle (like "OK" or "Cancel").
+   * @return the created directory.
+   */
+  public static Path create(final int bundleCount, final int keyCount, final String[] languages,
+      final int valueLength, final int repeatedValuePercent) {
+    try {
+      Path directory = Files.createTempDirectory("i18n-benchmark");
+      for (int i = 0; i < bundleCount; i++) {
+        Path bundleDirectory = directory.resolve("dir" + (i / BUNDLES_PER_DIRECTORY));
+        Files.createDirectories(bundleDirectory);
+        String bundleName = "bundle" + i;
+        writeFile(bundleDirectory.resolve(bundleName + ".properties"), i, keyCount, "default",
+            valueLength, repeatedValuePercent);
+        for (String lang : languages) {
+          writeFile(bundleDirectory.resolve(bundleName + "_" + lang + ".properties"), i,
+              keyCount, lang, valueLength, repeatedValuePercent);
+        }
+      }
+      return directory;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to generate properties files.", e);
+    }
+  }
+
+  /**
+   * Deletes a directory or file created by the benchmarks.
+   *
+   * @param path
+   *          the directory or file to delete.
+   */
+  public static void delete(final Path path) {
+    FileUtils.deleteQuietly(path.toFile());
+  }
+
+  /**
+   * Gets the given number of language codes.
+   *
+   * @param languageCount
+   *          the number of languages.
+   * @return the language codes.
+   */
+  public static String[] languages(final int languageCount) {
+    String[] result = new String[languageCount];
+    for (int i = 0; i < languageCount; i++) {
+      result[i] = i < LANGUAGES.length ? LANGUAGES[i] : "l" + i;
+    }
+    return result;
+  }
+
+  /**
+   * Writes a properties file. The values that are not repeated are unique in the tree.
+   */
+  private static void writeFile(final Path file, final int bundleIndex, final int keyCount,
+      final String valuePrefix, final int valueLength, final int repeatedValuePercent)
+      throws IOException {
+    try (BufferedWriter bw = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < keyCount; i++) {
+        sb.setLength(0);
+        sb.append("key_").append(i).append('=');
+        if ((i % 100) < repeatedValuePercent) {
+          sb.append(valuePrefix).append(' ').append(COMMON_VALUES[i % COMMON_VALUES.length]);
+          bw.write(sb.append('\n').toString());
+          continue;
+        }
+        int valueStart = sb.length();
+        sb.append(valuePrefix).append(" value ").append(bundleIndex).append('.').append(i);
+        for (int j = sb.length() - valueStart; j < valueLength; j++) {
+          sb.append(VALUE_CHARACTERS.charAt((i + j) % VALUE_CHARACTERS.length()));
+        }
+        bw.write(sb.append('\n').toString());
+      }
+    }
+  }
+
+  private SyntheticBundleTree() {
+  }
+
+}
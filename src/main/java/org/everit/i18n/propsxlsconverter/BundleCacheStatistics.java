@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+/**
+ * The statistics of the bundle cache of an {@link I18nConverterSession}.
+ */
+public class BundleCacheStatistics {
+
+  /**
+   * The number of cached bundles.
+   */
+  public int bundleCount;
+
+  /**
+   * The estimated memory usage of the cached bundles in bytes.
+   */
+  public long estimatedSize;
+
+  /**
+   * The number of bundles that were evicted because the cache was full.
+   */
+  public long evictionCount;
+
+  /**
+   * The number of bundles that were taken from the cache.
+   */
+  public long hitCount;
+
+  /**
+   * The number of bundles that were not found in the cache or that changed since they were
+   * cached, so they were read from the properties files.
+   */
+  public long missCount;
+
+  public BundleCacheStatistics bundleCount(final int bundleCount) {
+    this.bundleCount = bundleCount;
+    return this;
+  }
+
+  public BundleCacheStatistics estimatedSize(final long estimatedSize) {
+    this.estimatedSize = estimatedSize;
+    return this;
+  }
+
+  public BundleCacheStatistics evictionCount(final long evictionCount) {
+    this.evictionCount = evictionCount;
+    return this;
+  }
+
+  public BundleCacheStatistics hitCount(final long hitCount) {
+    this.hitCount = hitCount;
+    return this;
+  }
+
+  public BundleCacheStatistics missCount(final long missCount) {
+    this.missCount = missCount;
+    return this;
+  }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+/**
+ * Receives the progress and the metrics of an export or import. The methods may be called from
+ * several threads at the same time if the parallelism of the conversion is greater than 1, so the
+ * implementations must be thread-safe. All methods do nothing by default.
+ */
+public interface ConversionListener {
+
+  /**
+   * Called when a properties file is read (export) or written (import).
+   *
+   * @param path
+   *          the path of the properties file.
+   * @param bytes
+   *          the size of the properties file.
+   */
+  default void fileProcessed(final String path, final long bytes) {
+  }
+
+  /**
+   * Called at the end of the conversion.
+   *
+   * @param metrics
+   *          the metrics of the conversion.
+   */
+  default void finished(final ConversionMetrics metrics) {
+  }
+
+  /**
+   * Called when a phase is completed.
+   *
+   * @param phase
+   *          the completed phase.
+   * @param nanos
+   *          the time spent in the phase. The time of the phases that are interleaved with other
+   *          phases or run on several threads is summed.
+   */
+  default void phaseCompleted(final ConversionPhase phase, final long nanos) {
+  }
+
+}
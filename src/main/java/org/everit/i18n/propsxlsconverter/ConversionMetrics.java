@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics of an export or import. See {@link ConversionListener#finished(ConversionMetrics)}.
+ */
+public class ConversionMetrics {
+
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * The size of the read (export) or written (import) properties files.
+   */
+  public long bytesProcessed;
+
+  /**
+   * The elapsed time of the whole conversion.
+   */
+  public long durationNanos;
+
+  /**
+   * The number of read (export) or written (import) properties files.
+   */
+  public long filesProcessed;
+
+  /**
+   * The time spent in the phases. The time of the phases that are interleaved with other phases or
+   * run on several threads is summed, so the sum of the phases may differ from
+   * {@link #durationNanos}.
+   */
+  public Map<ConversionPhase, Long> phaseNanos = new EnumMap<>(ConversionPhase.class);
+
+  /**
+   * The number of written (export) or read (import) workbook rows.
+   */
+  public long rowsProcessed;
+
+  public ConversionMetrics bytesProcessed(final long bytesProcessed) {
+    this.bytesProcessed = bytesProcessed;
+    return this;
+  }
+
+  public ConversionMetrics durationNanos(final long durationNanos) {
+    this.durationNanos = durationNanos;
+    return this;
+  }
+
+  public ConversionMetrics filesProcessed(final long filesProcessed) {
+    this.filesProcessed = filesProcessed;
+    return this;
+  }
+
+  /**
+   * Gets the processed rows per second.
+   *
+   * @return the rows per second or 0 if the duration is 0.
+   */
+  public double getRowsPerSecond() {
+    if (durationNanos == 0) {
+      return 0;
+    }
+    return (rowsProcessed * NANOS_PER_SECOND) / durationNanos;
+  }
+
+  public ConversionMetrics phaseNanos(final Map<ConversionPhase, Long> phaseNanos) {
+    this.phaseNanos = phaseNanos;
+    return this;
+  }
+
+  public ConversionMetrics rowsProcessed(final long rowsProcessed) {
+    this.rowsProcessed = rowsProcessed;
+    return this;
+  }
+
+  private String toMillis(final long nanos) {
+    return String.format(Locale.ENGLISH, "%.1f", nanos / NANOS_PER_MILLI);
+  }
+
+  /**
+   * Formats the metrics as a JSON object. The times are in milliseconds.
+   *
+   * @return the JSON representation of the metrics.
+   */
+  public String toJson() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\"durationMillis\":").append(toMillis(durationNanos));
+    sb.append(",\"filesProcessed\":").append(filesProcessed);
+    sb.append(",\"rowsProcessed\":").append(rowsProcessed);
+    sb.append(",\"bytesProcessed\":").append(bytesProcessed);
+    sb.append(",\"rowsPerSecond\":")
+        .append(String.format(Locale.ENGLISH, "%.1f", getRowsPerSecond()));
+    sb.append(",\"phaseMillis\":{");
+    String separator = "";
+    for (Map.Entry<ConversionPhase, Long> phase : phaseNanos.entrySet()) {
+      sb.append(separator).append('"').append(phase.getKey()).append("\":")
+          .append(toMillis(phase.getValue()));
+      separator = ",";
+    }
+    return sb.append("}}").toString();
+  }
+
+  /**
+   * Formats the metrics as a human readable summary.
+   *
+   * @return the summary in several lines.
+   */
+  public String toSummary() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Duration: ").append(toMillis(durationNanos)).append(" ms\n");
+    sb.append("Files: ").append(filesProcessed).append(", rows: ").append(rowsProcessed)
+        .append(", bytes: ").append(bytesProcessed).append('\n');
+    sb.append("Rows per second: ")
+        .append(String.format(Locale.ENGLISH, "%.1f", getRowsPerSecond())).append('\n');
+    phaseNanos.forEach((phase, nanos) -> sb.append(phase).append(": ").append(toMillis(nanos))
+        .append(" ms\n"));
+    return sb.toString();
+  }
+
+}
@@ -13,25 +13,36 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.everit.i18n.propsxlsconverter.internal.dto;
+package org.everit.i18n.propsxlsconverter;
 
 /**
- * The class for property key and row number binding.
+ * The phases of the export and the import that are measured by the {@link ConversionMetrics}.
  */
-public class PropKeyRowNumberDTO {
+public enum ConversionPhase {
 
-  public String propKey;
+  /**
+   * Searching the properties files (export).
+   */
+  FILE_SCAN,
 
-  public int rowNumber;
+  /**
+   * Parsing the properties files (export) or the workbook (import).
+   */
+  PARSE,
 
-  public PropKeyRowNumberDTO propKey(final String propKey) {
-    this.propKey = propKey;
-    return this;
-  }
+  /**
+   * Adding the rows to the sheet of the workbook (export).
+   */
+  SHEET_BUILD,
 
-  public PropKeyRowNumberDTO rowNumber(final int rowNumber) {
-    this.rowNumber = rowNumber;
-    return this;
-  }
+  /**
+   * Serializing the workbook into the file (export).
+   */
+  SERIALIZE,
+
+  /**
+   * Writing the properties files (import).
+   */
+  WRITE
 
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+/**
+ * Optional settings of the {@link I18nConverter#exportToXls(String, String, String, String[],
+ * ExportOptions)} function.
+ */
+public class ExportOptions {
+
+  /**
+   * The baseline of a delta export: a file that was exported earlier in any supported format or a
+   * directory with the properties files of a previous revision (for example a checkout of a git
+   * revision). When it is set, only the rows that translators have to work on are exported: the
+   * rows that have a missing or empty value in one of the languages and the rows whose default
+   * value is new or changed since the baseline. The delta can be imported with
+   * {@link ImportOptions#merge}. Cannot be combined with {@link #incremental}. Default is
+   * <code>null</code> that exports all rows.
+   */
+  public String baseline = null;
+
+  /**
+   * The glob patterns of the directories that are not searched for properties files (for example
+   * <code>target</code>, <code>node_modules</code> or <code>.git</code>). A pattern is matched
+   * against the path of the directory relative to the working directory and against the name of
+   * the directory. The excluded directories are not listed at all. Default is empty.
+   */
+  public String[] excludeDirectories = new String[0];
+
+  /**
+   * Exports only the bundles that changed since the previous incremental export, the rows of the
+   * other bundles are copied from the previous workbook. The fingerprints of the properties files
+   * are stored next to the workbook with <code>.fingerprints</code> suffix. The first incremental
+   * export is a full export. The changed bundles are read with one thread. Cannot be combined with
+   * the watch mode. Default is <code>false</code>.
+   */
+  public boolean incremental = false;
+
+  /**
+   * Receives the progress and the metrics of the export. Default is <code>null</code>.
+   */
+  public ConversionListener listener = null;
+
+  /**
+   * The maximum number of rows in a sheet of the workbook. The rows are continued in a new sheet
+   * with <code>_2</code>, <code>_3</code>, ... suffix when a sheet is full. The import reads all
+   * sheets. Default is 0 that means the row limit of the file format: 65535 rows for XLS and
+   * 1048575 for XLSX workbooks. Ignored by the CSV, TSV and XLIFF formats.
+   */
+  public int maxRowsPerSheet = 0;
+
+  /**
+   * The number of threads that search and read the properties files. The files of a bundle (a
+   * default language file and its language files) are read by the same thread. The rows are
+   * written to the workbook in the same order as in case of one thread, so the output does not
+   * depend on this value. Default is 1.
+   */
+  public int parallelism = 1;
+
+  /**
+   * Writes the rows of every top level directory of the working directory into their own sheets
+   * named after the directories. The rows of the properties files directly in the working
+   * directory are written into the <code>translations</code> sheet. The import reads all sheets.
+   * Default is <code>false</code> that writes all rows into the <code>translations</code> sheet.
+   * Ignored by the CSV, TSV and XLIFF formats.
+   */
+  public boolean shardByDirectory = false;
+
+  /**
+   * Writes every distinct string of an XLSX workbook only once into the shared strings table, so
+   * the repeated properties file names and values make the workbook smaller. The shared strings
+   * table is kept in the memory until the workbook is written, so the memory usage grows with the
+   * number of distinct strings. XLS workbooks always use a shared strings table. Default is
+   * <code>false</code> that writes the strings of XLSX workbooks inline.
+   */
+  public boolean sharedStringsTable = false;
+
+  public ExportOptions baseline(final String baseline) {
+    this.baseline = baseline;
+    return this;
+  }
+
+  public ExportOptions excludeDirectories(final String... excludeDirectories) {
+    this.excludeDirectories = excludeDirectories;
+    return this;
+  }
+
+  public ExportOptions incremental(final boolean incremental) {
+    this.incremental = incremental;
+    return this;
+  }
+
+  public ExportOptions listener(final ConversionListener listener) {
+    this.listener = listener;
+    return this;
+  }
+
+  public ExportOptions maxRowsPerSheet(final int maxRowsPerSheet) {
+    this.maxRowsPerSheet = maxRowsPerSheet;
+    return this;
+  }
+
+  public ExportOptions parallelism(final int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  public ExportOptions shardByDirectory(final boolean shardByDirectory) {
+    this.shardByDirectory = shardByDirectory;
+    return this;
+  }
+
+  public ExportOptions sharedStringsTable(final boolean sharedStringsTable) {
+    this.sharedStringsTable = sharedStringsTable;
+    return this;
+  }
+
+}
@@ -15,8 +15,18 @@
  */
 package org.everit.i18n.propsxlsconverter;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
- * Define the property xls converter functions.
+ * Define the property xls converter functions. The implementations can run several conversions at
+ * the same time, the conversions that write the same file or working directory run one after the
+ * other.
  */
 public interface I18nConverter {
 
@@ -24,7 +34,8 @@ public interface I18nConverter {
    * Export language files to one XLS file.
    *
    * @param xlsFileName
-   *          the name of the exported XLS file. Cannot be <code>null</code> or empty.
+   *          the name of the exported XLS file. Cannot be <code>null</code> or empty. If the name
+   *          ends with .xlsx the workbook is streamed in XLSX format with fixed memory usage.
    * @param workingDirectory
    *          the working directory (Example: c:\\temp or /tmp). Cannot be <code>null</code> or
    *          empty. Must be directory.
@@ -35,18 +46,192 @@ public interface I18nConverter {
    * @param languages
    *          the languages which want to search. Cannot be <code>null</code>.
    */
+  default void exportToXls(final String xlsFileName, final String workingDirectory,
+      final String fileRegularExpression, final String[] languages) {
+    exportToXls(xlsFileName, workingDirectory, fileRegularExpression, languages,
+        new ExportOptions());
+  }
+
+  /**
+   * Export language files to one XLS file.
+   *
+   * @param xlsFileName
+   *          the name of the exported XLS file. Cannot be <code>null</code> or empty. If the name
+   *          ends with .xlsx the workbook is streamed in XLSX format with fixed memory usage.
+   * @param workingDirectory
+   *          the working directory (Example: c:\\temp or /tmp). Cannot be <code>null</code> or
+   *          empty. Must be directory.
+   * @param fileRegularExpression
+   *          the regex expression to find files which want to export to XLS file. Example:
+   *          .*\.properties$ to find all properties files. Cannot be <code>null</code> or empty.
+   *          Must be valid expression.
+   * @param languages
+   *          the languages which want to search. Cannot be <code>null</code>.
+   * @param exportOptions
+   *          the optional settings of the export. Cannot be <code>null</code>.
+   */
   void exportToXls(String xlsFileName, String workingDirectory,
-      String fileRegularExpression, String[] languages);
+      String fileRegularExpression, String[] languages, ExportOptions exportOptions);
+
+  /**
+   * Exports language files into a stream, for example into the body of an HTTP response. The
+   * exported file is written directly into the stream without a temporary file, so a failed or
+   * cancelled export can leave a partially written file in the stream. The stream is flushed but
+   * not closed.
+   *
+   * @param out
+   *          the stream of the exported file. Cannot be <code>null</code>.
+   * @param xlsFileName
+   *          the name of the exported file. Selects the format by its extension like at the
+   *          export into a file, the file itself is not written. Cannot be <code>null</code> or
+   *          empty.
+   * @param workingDirectory
+   *          the working directory. Cannot be <code>null</code> or empty. Must be directory.
+   * @param fileRegularExpression
+   *          the regex expression to find the properties files. Cannot be <code>null</code> or
+   *          empty. Must be valid expression.
+   * @param languages
+   *          the languages which want to search. Cannot be <code>null</code>.
+   * @param exportOptions
+   *          the optional settings of the export. Cannot be <code>null</code>. The incremental
+   *          export is not supported, because it reads the previously exported file.
+   */
+  void exportToXls(OutputStream out, String xlsFileName, String workingDirectory,
+      String fileRegularExpression, String[] languages, ExportOptions exportOptions);
+
+  /**
+   * Exports language files into a channel. See
+   * {@link #exportToXls(OutputStream, String, String, String, String[], ExportOptions)}. The
+   * channel is not closed.
+   *
+   * @param channel
+   *          the channel of the exported file. Cannot be <code>null</code>.
+   * @param xlsFileName
+   *          the name of the exported file that selects the format. Cannot be <code>null</code>
+   *          or empty.
+   * @param workingDirectory
+   *          the working directory. Cannot be <code>null</code> or empty. Must be directory.
+   * @param fileRegularExpression
+   *          the regex expression to find the properties files. Cannot be <code>null</code> or
+   *          empty. Must be valid expression.
+   * @param languages
+   *          the languages which want to search. Cannot be <code>null</code>.
+   * @param exportOptions
+   *          the optional settings of the export. Cannot be <code>null</code>.
+   */
+  default void exportToXls(final WritableByteChannel channel, final String xlsFileName,
+      final String workingDirectory, final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions) {
+    Objects.requireNonNull(channel, "Cannot be null channel.");
+    exportToXls(Channels.newOutputStream(channel), xlsFileName, workingDirectory,
+        fileRegularExpression, languages, exportOptions);
+  }
+
+  /**
+   * Exports language files to one XLS file on an executor. The parameters are validated on the
+   * calling thread.
+   *
+   * <p>
+   * The export can be cancelled with the {@link CompletableFuture#cancel(boolean)} method of the
+   * returned future. The export stops at the next bundle or row. The exported file is written
+   * into a temporary file that replaces the file only when the export completes, so a cancelled
+   * or failed export leaves the previous file unchanged. A running export is cancelled only when
+   * it stops, so the files do not change after the future is done.
+   * </p>
+   *
+   * @param xlsFileName
+   *          the name of the exported file. Cannot be <code>null</code> or empty.
+   * @param workingDirectory
+   *          the working directory. Cannot be <code>null</code> or empty. Must be directory.
+   * @param fileRegularExpression
+   *          the regex expression to find the properties files. Cannot be <code>null</code> or
+   *          empty. Must be valid expression.
+   * @param languages
+   *          the languages which want to search. Cannot be <code>null</code>.
+   * @param exportOptions
+   *          the optional settings of the export. Cannot be <code>null</code>.
+   * @param executor
+   *          runs the export. Cannot be <code>null</code>.
+   * @return the future of the metrics of the export.
+   */
+  CompletableFuture<ConversionMetrics> exportToXlsAsync(String xlsFileName,
+      String workingDirectory, String fileRegularExpression, String[] languages,
+      ExportOptions exportOptions, Executor executor);
 
   /**
    * Import XLS file to langauges files.
    *
    * @param xlsFileName
-   *          the name of the imported XLS file. Cannot be <code>null</code> or empty.
+   *          the name of the imported XLS or XLSX file. Cannot be <code>null</code> or empty.
    * @param workingDirectory
    *          the working directory (Example: c:\\temp or /tmp). Cannot be <code>null</code> or
    *          empty. Must be an existing directory.
    */
-  void importFromXls(String xlsFileName, String workingDirectory);
+  default void importFromXls(final String xlsFileName, final String workingDirectory) {
+    importFromXls(xlsFileName, workingDirectory, new ImportOptions());
+  }
+
+  /**
+   * Import XLS file to langauges files.
+   *
+   * @param xlsFileName
+   *          the name of the imported XLS or XLSX file. Cannot be <code>null</code> or empty.
+   * @param workingDirectory
+   *          the working directory (Example: c:\\temp or /tmp). Cannot be <code>null</code> or
+   *          empty. Must be an existing directory.
+   * @param importOptions
+   *          the optional settings of the import. Cannot be <code>null</code>.
+   * @return the number of written and skipped language files and the metrics of the import.
+   */
+  ImportResult importFromXls(String xlsFileName, String workingDirectory,
+      ImportOptions importOptions);
+
+  /**
+   * Imports a file from a stream to language files, for example from the body of an HTTP request.
+   * The delimited text and XLIFF files are streamed, the XLS and XLSX workbooks are buffered in the
+   * memory while they are read. The stream is not closed.
+   *
+   * @param in
+   *          the stream of the imported file. Cannot be <code>null</code>.
+   * @param xlsFileName
+   *          the name of the imported file. Selects the format by its extension like at the import
+   *          of a file, the file itself is not read. Cannot be <code>null</code> or empty.
+   * @param workingDirectory
+   *          the working directory. Cannot be <code>null</code> or empty. Must be an existing
+   *          directory.
+   * @param importOptions
+   *          the optional settings of the import. Cannot be <code>null</code>.
+   * @return the number of written and skipped language files and the metrics of the import.
+   */
+  ImportResult importFromXls(InputStream in, String xlsFileName, String workingDirectory,
+      ImportOptions importOptions);
+
+  /**
+   * Imports an XLS file to language files on an executor. The parameters are validated on the
+   * calling thread.
+   *
+   * <p>
+   * The import can be cancelled with the {@link CompletableFuture#cancel(boolean)} method of the
+   * returned future. The import stops at the next row. Every language file is written into a
+   * temporary file that replaces the language file only when it is complete, so a cancelled or
+   * failed import does not leave half-written language files behind. The language files that
+   * were completed before the cancellation keep their new content. A running import is cancelled
+   * only when it stops, so the files do not change after the future is done.
+   * </p>
+   *
+   * @param xlsFileName
+   *          the name of the imported file. Cannot be <code>null</code> or empty.
+   * @param workingDirectory
+   *          the working directory. Cannot be <code>null</code> or empty. Must be an existing
+   *          directory.
+   * @param importOptions
+   *          the optional settings of the import. Cannot be <code>null</code>.
+   * @param executor
+   *          runs the import. Cannot be <code>null</code>.
+   * @return the future of the number of written and skipped language files and the metrics of
+   *         the import.
+   */
+  CompletableFuture<ImportResult> importFromXlsAsync(String xlsFileName, String workingDirectory,
+      ImportOptions importOptions, Executor executor);
 
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+/**
+ * An {@link I18nConverter} for repeated calls in the same process, for example in a build server.
+ * The session keeps the parsed bundles of the exports in a cache, so the next export reads only
+ * the bundles whose files changed. A bundle is identified by its files and the languages of the
+ * export, and it is read again if the size or the last modification time of one of its files
+ * changed. The properties files are still searched on every export, so new and deleted files are
+ * found.
+ *
+ * <p>
+ * A session can be used by several threads at the same time. It has to be closed when it is not
+ * needed anymore, a closed session throws {@link IllegalStateException}.
+ * </p>
+ */
+public interface I18nConverterSession extends I18nConverter, AutoCloseable {
+
+  /**
+   * Removes the cached bundles and closes the session. Does nothing if the session is already
+   * closed.
+   */
+  @Override
+  void close();
+
+  /**
+   * Gets the statistics of the bundle cache.
+   *
+   * @return the statistics at the time of the call.
+   */
+  BundleCacheStatistics getCacheStatistics();
+
+  /**
+   * Removes the cached bundles, so the next export reads all properties files.
+   */
+  void invalidateCache();
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+/**
+ * Optional settings of the {@link I18nConverter#importFromXls(String, String, ImportOptions)}
+ * function.
+ */
+public class ImportOptions {
+
+  /**
+   * Receives the progress and the metrics of the import. Default is <code>null</code>.
+   */
+  public ConversionListener listener = null;
+
+  /**
+   * Merges the rows into the existing properties files instead of regenerating the files from the
+   * rows. Only the lines of the keys whose value changed are rewritten, the comments, the blank
+   * lines, the order and the formatting of the other lines are kept byte by byte. The new keys are
+   * appended. The empty or absent cells keep the existing values of the keys. The empty
+   * translations of the keys that are missing from a language file are not added, so the
+   * untranslated keys still fall back to the default language. The files without
+   * changes are not written. Used to import a delta export (see {@link ExportOptions#baseline}).
+   * Default is <code>false</code>.
+   */
+  public boolean merge = false;
+
+  /**
+   * The number of threads that parse the sheets of an XLSX workbook and the maximum number of
+   * properties files that are written at the same time. The rows are written into the language
+   * files of the current properties file while the workbook is read, and the completed language
+   * files are closed and replaced by worker threads. In case of a {@link #merge}, the workers
+   * patch the language files. The reading waits while all workers are busy, so only the files of
+   * the properties files that are being written are kept open or in the memory. Default is 1.
+   */
+  public int parallelism = 1;
+
+  /**
+   * Compares the generated content of the language files with the files on the disk and replaces
+   * only the files whose content changed, so the last modification time of the unchanged files is
+   * kept. The generated content is compared with the existing file while it is written, and the
+   * temporary file that replaces the language file is created only at the first difference. A
+   * {@link #merge} never writes the unchanged files. Default is <code>false</code>.
+   */
+  public boolean skipUnchanged = false;
+
+  public ImportOptions listener(final ConversionListener listener) {
+    this.listener = listener;
+    return this;
+  }
+
+  public ImportOptions merge(final boolean merge) {
+    this.merge = merge;
+    return this;
+  }
+
+  public ImportOptions parallelism(final int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  public ImportOptions skipUnchanged(final boolean skipUnchanged) {
+    this.skipUnchanged = skipUnchanged;
+    return this;
+  }
+
+}
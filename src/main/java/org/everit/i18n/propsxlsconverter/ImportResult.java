@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+/**
+ * The result of the {@link I18nConverter#importFromXls(String, String, ImportOptions)} function.
+ */
+public class ImportResult {
+
+  /**
+   * The number of language files that were not written because they already had the imported
+   * content. See {@link ImportOptions#skipUnchanged}.
+   */
+  public int filesSkipped;
+
+  /**
+   * The number of written language files.
+   */
+  public int filesWritten;
+
+  /**
+   * The metrics of the import: the read rows, the written files and the time of the phases.
+   */
+  public ConversionMetrics metrics;
+
+  public ImportResult filesSkipped(final int filesSkipped) {
+    this.filesSkipped = filesSkipped;
+    return this;
+  }
+
+  public ImportResult filesWritten(final int filesWritten) {
+    this.filesWritten = filesWritten;
+    return this;
+  }
+
+  public ImportResult metrics(final ConversionMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+}
@@ -27,12 +27,36 @@ import org.apache.commons.cli.ParseException;
  */
 public class PropsXlsConverterConfig {
 
+  private static final String ARG_BASELINE = "baseline";
+
+  private static final String ARG_DEBOUNCE = "debounce";
+
+  private static final String ARG_EXCLUDE = "exclude";
+
   private static final String ARG_FILE_REGULAR_EXPRESSION = "fileRegularExpression";
 
   private static final String ARG_FUNCTION = "function";
 
+  private static final String ARG_INCREMENTAL = "incremental";
+
   private static final String ARG_LANGUAGES = "languages";
 
+  private static final String ARG_MAX_ROWS_PER_SHEET = "maxRowsPerSheet";
+
+  private static final String ARG_MERGE = "merge";
+
+  private static final String ARG_PARALLELISM = "parallelism";
+
+  private static final String ARG_REPORT = "report";
+
+  private static final String ARG_SHARED_STRINGS_TABLE = "sharedStringsTable";
+
+  private static final String ARG_SHARD_BY_DIRECTORY = "shardByDirectory";
+
+  private static final String ARG_SKIP_UNCHANGED = "skipUnchanged";
+
+  private static final String ARG_WATCH = "watch";
+
   private static final String ARG_WORKING_DIRECTORY = "workingDirectory";
 
   private static final String ARG_XLS_FILE_NAME = "xlsFileName";
@@ -41,8 +65,14 @@ public class PropsXlsConverterConfig {
 
   private static final String FUNCTION_IMPORT = "import";
 
+  private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
   private static final Options OPTIONS = new Options();
 
+  private static final String REPORT_JSON = "json";
+
+  private static final String REPORT_SUMMARY = "summary";
+
   static {
     OPTIONS.addOption("f", ARG_FUNCTION, true,
         "The function: 'import' or 'export'. (mandatory)"
@@ -51,7 +81,9 @@ public class PropsXlsConverterConfig {
 
     OPTIONS.addOption("xls", ARG_XLS_FILE_NAME, true,
         "The excel file used by the import or export function. (mandatory)"
-            + "\nFor example: translation.xls");
+            + "\nFor example: translation.xls or translation.xlsx. The xlsx format is written in "
+            + "streaming mode and has no 65536 rows limit. The .csv, .tsv, .xlf and .xliff "
+            + "extensions select UTF-8 comma or tab separated values or an XLIFF 1.2 document.");
 
     OPTIONS.addOption("wd", ARG_WORKING_DIRECTORY, true,
         "The working directory used as a base directory for searching the properties files "
@@ -66,6 +98,64 @@ public class PropsXlsConverterConfig {
     OPTIONS.addOption("langs", ARG_LANGUAGES, true,
         "Comma separated list of the languages to be processed. (mandatory for the export function)"
             + "\nFor example: hu,de");
+
+    OPTIONS.addOption("p", ARG_PARALLELISM, true,
+        "The number of threads used to process the properties files. (optional, default: 1)"
+            + "\nFor example: 4");
+
+    OPTIONS.addOption("x", ARG_EXCLUDE, true,
+        "Comma separated list of the glob patterns of the directories that are not searched for "
+            + "properties files. (optional, export function only)"
+            + "\nFor example: target,node_modules,.git");
+
+    OPTIONS.addOption("mr", ARG_MAX_ROWS_PER_SHEET, true,
+        "The maximum number of rows in a sheet of the excel file. The rows are continued in new "
+            + "sheets. (optional, export function only, default: the limit of the file format)"
+            + "\nFor example: 10000");
+
+    OPTIONS.addOption("sd", ARG_SHARD_BY_DIRECTORY, false,
+        "Writes the rows of every top level directory into their own sheets. (optional, export "
+            + "function only)");
+
+    OPTIONS.addOption("i", ARG_INCREMENTAL, false,
+        "Exports only the changed properties files, the other rows are copied from the previous "
+            + "excel file. The fingerprints of the files are stored in the <xlsFileName>"
+            + ".fingerprints file. Cannot be combined with watch. (optional, export function "
+            + "only)");
+
+    OPTIONS.addOption("b", ARG_BASELINE, true,
+        "Exports only the rows with missing translations and the rows whose default value is new "
+            + "or changed since the baseline: a previously exported file or a directory with the "
+            + "properties files of a previous revision. (optional, export function only)"
+            + "\nFor example: translation_v1.xlsx");
+
+    OPTIONS.addOption("m", ARG_MERGE, false,
+        "Merges the rows into the existing properties files. Only the lines of the changed "
+            + "values are rewritten, the comments and the other keys are kept. Used to import a "
+            + "delta export. (optional, import function only)");
+
+    OPTIONS.addOption("rep", ARG_REPORT, true,
+        "Prints the timings of the phases and the number of processed files, rows and bytes "
+            + "after the conversion: 'summary' or 'json'. (optional)");
+
+    OPTIONS.addOption("sst", ARG_SHARED_STRINGS_TABLE, false,
+        "Writes the repeated strings of an xlsx file only once into a shared strings table. "
+            + "Makes the file smaller but keeps the distinct strings in the memory. (optional, "
+            + "export function only)");
+
+    OPTIONS.addOption("w", ARG_WATCH, false,
+        "Exports the properties files, then watches the working directory and updates the excel "
+            + "file after every change until the process is stopped. Only the changed properties "
+            + "files are read again. Cannot be combined with incremental. (optional, export "
+            + "function only)");
+
+    OPTIONS.addOption("d", ARG_DEBOUNCE, true,
+        "The time in milliseconds without file changes after that the excel file is updated in "
+            + "watch mode. (optional, default: " + DEFAULT_DEBOUNCE_MILLIS + ")");
+
+    OPTIONS.addOption("s", ARG_SKIP_UNCHANGED, false,
+        "Writes only the properties files whose content changed, the unchanged files are not "
+            + "touched. (optional, import function only)");
   }
 
   private final CommandLine commandLine;
@@ -87,6 +177,10 @@ public class PropsXlsConverterConfig {
     }
   }
 
+  public String getBaseline() {
+    return commandLine.getOptionValue(ARG_BASELINE);
+  }
+
   private String getCommandLineValue(final String key) {
 
     String result = commandLine.getOptionValue(key);
@@ -99,6 +193,38 @@ public class PropsXlsConverterConfig {
     return result;
   }
 
+  /**
+   * Gets the time without file changes after that the excel file is updated in watch mode.
+   *
+   * @return the debounce time in milliseconds or {@value #DEFAULT_DEBOUNCE_MILLIS} if it is not
+   *         specified.
+   */
+  public long getDebounceMillis() {
+    String debounce = commandLine.getOptionValue(ARG_DEBOUNCE);
+    if (debounce == null) {
+      return DEFAULT_DEBOUNCE_MILLIS;
+    }
+    try {
+      return Long.parseLong(debounce);
+    } catch (NumberFormatException e) {
+      printHelp();
+      throw new IllegalArgumentException("Invalid argument: " + ARG_DEBOUNCE, e);
+    }
+  }
+
+  /**
+   * Gets the glob patterns of the directories that are not searched for properties files.
+   *
+   * @return the glob patterns or an empty array if they are not specified.
+   */
+  public String[] getExcludeDirectories() {
+    String exclude = commandLine.getOptionValue(ARG_EXCLUDE);
+    if (exclude == null) {
+      return new String[0];
+    }
+    return exclude.split(",");
+  }
+
   public String getFileRegularExpression() {
     return getCommandLineValue(ARG_FILE_REGULAR_EXPRESSION);
   }
@@ -107,10 +233,55 @@ public class PropsXlsConverterConfig {
     return getCommandLineValue(ARG_FUNCTION);
   }
 
+  private int getIntValue(final String key, final int defaultValue) {
+    String value = commandLine.getOptionValue(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      printHelp();
+      throw new IllegalArgumentException("Invalid argument: " + key, e);
+    }
+  }
+
   public String[] getLanguages() {
     return getCommandLineValue(ARG_LANGUAGES).split(",");
   }
 
+  /**
+   * Gets the maximum number of rows in a sheet of the excel file.
+   *
+   * @return the maximum number of rows or 0 if it is not specified.
+   */
+  public int getMaxRowsPerSheet() {
+    return getIntValue(ARG_MAX_ROWS_PER_SHEET, 0);
+  }
+
+  /**
+   * Gets the number of threads used to process the properties files.
+   *
+   * @return the parallelism or 1 if it is not specified.
+   */
+  public int getParallelism() {
+    return getIntValue(ARG_PARALLELISM, 1);
+  }
+
+  /**
+   * Gets the format of the report printed after the conversion.
+   *
+   * @return <code>summary</code>, <code>json</code> or <code>null</code> if no report is requested.
+   */
+  public String getReport() {
+    String report = commandLine.getOptionValue(ARG_REPORT);
+    if ((report != null) && !REPORT_SUMMARY.equals(report) && !REPORT_JSON.equals(report)) {
+      printHelp();
+      throw new IllegalArgumentException("Invalid argument: " + ARG_REPORT);
+    }
+    return report;
+  }
+
   public String getWorkingDirectory() {
     return getCommandLineValue(ARG_WORKING_DIRECTORY);
   }
@@ -127,6 +298,48 @@ public class PropsXlsConverterConfig {
     return FUNCTION_IMPORT.equals(getFunction());
   }
 
+  public boolean isIncremental() {
+    return commandLine.hasOption(ARG_INCREMENTAL);
+  }
+
+  public boolean isJsonReport() {
+    return REPORT_JSON.equals(getReport());
+  }
+
+  public boolean isMerge() {
+    return commandLine.hasOption(ARG_MERGE);
+  }
+
+  public boolean isSharedStringsTable() {
+    return commandLine.hasOption(ARG_SHARED_STRINGS_TABLE);
+  }
+
+  public boolean isShardByDirectory() {
+    return commandLine.hasOption(ARG_SHARD_BY_DIRECTORY);
+  }
+
+  public boolean isSkipUnchanged() {
+    return commandLine.hasOption(ARG_SKIP_UNCHANGED);
+  }
+
+  /**
+   * Checks whether the watch mode is enabled.
+   *
+   * @return <code>true</code> if the watch argument is specified.
+   *
+   * @throws IllegalArgumentException
+   *           if the watch argument is combined with the incremental argument.
+   */
+  public boolean isWatch() {
+    boolean watch = commandLine.hasOption(ARG_WATCH);
+    if (watch && isIncremental()) {
+      printHelp();
+      throw new IllegalArgumentException("Invalid argument: " + ARG_WATCH
+          + " cannot be combined with " + ARG_INCREMENTAL);
+    }
+    return watch;
+  }
+
   /**
    * Prints the usage of the configuration.
    */
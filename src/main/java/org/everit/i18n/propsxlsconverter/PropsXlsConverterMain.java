@@ -15,13 +15,39 @@
  */
 package org.everit.i18n.propsxlsconverter;
 
+import java.io.PrintStream;
+
 import org.everit.i18n.propsxlsconverter.internal.I18nConverterImpl;
+import org.everit.i18n.propsxlsconverter.internal.watch.ExportWatcher;
 
 /**
  * The main class to manage export or import function.
  */
 public final class PropsXlsConverterMain {
 
+  /**
+   * Creates a listener that prints the report of the conversion.
+   *
+   * @return the listener or <code>null</code> if no report is requested.
+   */
+  private static ConversionListener createReportListener(final PropsXlsConverterConfig config) {
+    if (config.getReport() == null) {
+      return null;
+    }
+    boolean jsonReport = config.isJsonReport();
+    return new ConversionListener() {
+      @Override
+      public void finished(final ConversionMetrics metrics) {
+        PrintStream out = System.out;
+        if (jsonReport) {
+          out.println(metrics.toJson());
+        } else {
+          out.print(metrics.toSummary());
+        }
+      }
+    };
+  }
+
   /**
    * The Main class starter method.
    *
@@ -37,23 +63,66 @@ public final class PropsXlsConverterMain {
 
     I18nConverter i18nConverter = new I18nConverterImpl();
 
+    ConversionListener reportListener = createReportListener(config);
+
     if (config.isImportFunction()) {
 
-      i18nConverter.importFromXls(xlsFileName, workingDirectory);
+      ImportOptions importOptions = new ImportOptions()
+          .listener(reportListener)
+          .merge(config.isMerge())
+          .parallelism(config.getParallelism())
+          .skipUnchanged(config.isSkipUnchanged());
+
+      ImportResult importResult =
+          i18nConverter.importFromXls(xlsFileName, workingDirectory, importOptions);
+
+      if (!config.isJsonReport()) {
+        PrintStream out = System.out;
+        out.println("Written files: " + importResult.filesWritten + ", skipped files: "
+            + importResult.filesSkipped);
+      }
 
     } else if (config.isExportFunction()) {
 
       String fileRegularExpression = config.getFileRegularExpression();
       String[] languages = config.getLanguages();
 
-      i18nConverter.exportToXls(xlsFileName, workingDirectory,
-          fileRegularExpression, languages);
+      ExportOptions exportOptions = new ExportOptions()
+          .baseline(config.getBaseline())
+          .excludeDirectories(config.getExcludeDirectories())
+          .incremental(config.isIncremental())
+          .listener(reportListener)
+          .maxRowsPerSheet(config.getMaxRowsPerSheet())
+          .parallelism(config.getParallelism())
+          .shardByDirectory(config.isShardByDirectory())
+          .sharedStringsTable(config.isSharedStringsTable());
+
+      if (config.isWatch()) {
+        watch(config, exportOptions);
+      } else {
+        i18nConverter.exportToXls(xlsFileName, workingDirectory,
+            fileRegularExpression, languages, exportOptions);
+      }
 
     } else {
       config.printHelp();
     }
   }
 
+  /**
+   * Keeps the excel file in sync with the properties files until the process is stopped.
+   */
+  private static void watch(final PropsXlsConverterConfig config,
+      final ExportOptions exportOptions) {
+    PrintStream err = System.err;
+    try (ExportWatcher exportWatcher = new ExportWatcher(config.getXlsFileName(),
+        config.getWorkingDirectory(), config.getFileRegularExpression(), config.getLanguages(),
+        exportOptions, config.getDebounceMillis(),
+        (e) -> err.println("Failed to update the excel file: " + e.getMessage()))) {
+      exportWatcher.watch();
+    }
+  }
+
   private PropsXlsConverterMain() {
   }
 
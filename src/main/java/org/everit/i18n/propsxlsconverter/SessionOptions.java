@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter;
+
+/**
+ * Optional settings of an {@link I18nConverterSession}.
+ */
+public class SessionOptions {
+
+  /**
+   * The default of {@link #maxCacheSize}: 64 MiB.
+   */
+  public static final long DEFAULT_MAX_CACHE_SIZE = 64L * 1024 * 1024;
+
+  /**
+   * The maximum estimated memory usage of the cached bundles in bytes. The least recently used
+   * bundles are evicted when the cache is full. A bundle that is larger than this size is not
+   * cached. 0 disables the cache. Default is {@link #DEFAULT_MAX_CACHE_SIZE}.
+   */
+  public long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+
+  public SessionOptions maxCacheSize(final long maxCacheSize) {
+    this.maxCacheSize = maxCacheSize;
+    return this;
+  }
+
+}
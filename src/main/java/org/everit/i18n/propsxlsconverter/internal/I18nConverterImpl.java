@@ -15,304 +15,468 @@
  */
 package org.everit.i18n.propsxlsconverter.internal;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.RegexFileFilter;
-import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.everit.i18n.propsxlsconverter.ConversionMetrics;
+import org.everit.i18n.propsxlsconverter.ConversionPhase;
+import org.everit.i18n.propsxlsconverter.ExportOptions;
 import org.everit.i18n.propsxlsconverter.I18nConverter;
-import org.everit.i18n.propsxlsconverter.internal.dto.PropKeyRowNumberDTO;
+import org.everit.i18n.propsxlsconverter.ImportOptions;
+import org.everit.i18n.propsxlsconverter.ImportResult;
+import org.everit.i18n.propsxlsconverter.internal.cache.BundleCache;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.AsyncConversion;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.CancellableRowHandler;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.CancellationSignal;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.FutureResults;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.PathLocks;
+import org.everit.i18n.propsxlsconverter.internal.delta.DeltaFilter;
+import org.everit.i18n.propsxlsconverter.internal.dto.FileFingerprintDTO;
 import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
-import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookReader;
-import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookWriter;
+import org.everit.i18n.propsxlsconverter.internal.files.BundleGrouper;
+import org.everit.i18n.propsxlsconverter.internal.files.PropertiesFileWalker;
+import org.everit.i18n.propsxlsconverter.internal.format.TranslationFormats;
+import org.everit.i18n.propsxlsconverter.internal.format.TranslationReader;
+import org.everit.i18n.propsxlsconverter.internal.format.TranslationWriter;
+import org.everit.i18n.propsxlsconverter.internal.incremental.FileFingerprints;
+import org.everit.i18n.propsxlsconverter.internal.incremental.IncrementalRowMerger;
+import org.everit.i18n.propsxlsconverter.internal.metrics.MetricsCollector;
+import org.everit.i18n.propsxlsconverter.internal.metrics.TimedRowHandler;
+import org.everit.i18n.propsxlsconverter.internal.properties.AbstractPropertiesImporter;
+import org.everit.i18n.propsxlsconverter.internal.properties.MergePropertiesImporter;
+import org.everit.i18n.propsxlsconverter.internal.properties.PropertiesBundleReader;
+import org.everit.i18n.propsxlsconverter.internal.properties.StreamingPropertiesImporter;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+import org.everit.i18n.propsxlsconverter.internal.util.TempFiles;
 
 /**
- * The {@link I18nConverter} implementation.
+ * The {@link I18nConverter} implementation. Every conversion keeps its state in its own objects,
+ * so one instance can run several exports and imports at the same time. The conversions that
+ * write the same exported file or the same working directory wait for each other.
  */
 public class I18nConverterImpl implements I18nConverter {
 
-  private static final int SEPARATOR_SIZE = 5;
-
-  private static final String UNDERLINE = "_";
-
   /**
-   * Map key is fileAccces.
+   * The parameters and the metrics of an export.
    */
-  private Map<String, List<PropKeyRowNumberDTO>> fileAccessPropertyKeyRowNumber =
-      new HashMap<String, List<PropKeyRowNumberDTO>>();
-
-  private void addPropKeyRowNumberToWorkbookKeyMap(final String fileAccess,
-      final String propKey, final int rowNumber) {
-    List<PropKeyRowNumberDTO> list = fileAccessPropertyKeyRowNumber.get(fileAccess);
-    PropKeyRowNumberDTO propKeyRowNumber = new PropKeyRowNumberDTO()
-        .propKey(propKey)
-        .rowNumber(rowNumber);
-    if (list == null) {
-      list = new ArrayList<PropKeyRowNumberDTO>();
-      list.add(propKeyRowNumber);
-      fileAccessPropertyKeyRowNumber.put(fileAccess, list);
-    } else {
-      list.add(propKeyRowNumber);
-    }
-  }
+  private static final class ExportRun {
 
-  private String calculateDefaultLangFileName(final String fileName, final String searchLang,
-      final int lastIndexOf) {
-    String fileNameFirstPart = fileName.substring(0, lastIndexOf);
-    String fileNameSecondPart = fileName.substring(lastIndexOf + searchLang.length());
-    return fileNameFirstPart + fileNameSecondPart;
-  }
+    private final CancellationSignal cancellationSignal;
 
-  /**
-   * Calculate file access between the working directory and language file.
-   *
-   * @param languageFile
-   *          the language file.
-   * @return the calculated file access path.
-   */
-  private String calculateFileAccess(final File languageFile, final String[] languages,
-      final String workingDirectory) {
-    Path workingDirectoryPath = Paths.get(workingDirectory);
-    String languageFileAbsolutePath = languageFile.getAbsolutePath();
-    Path languageFilePath = Paths.get(languageFileAbsolutePath);
-
-    String fileName = languageFile.getName();
-    for (String lang : languages) {
-      String searchLang = UNDERLINE + lang;
-      int lastIndexOf = fileName.lastIndexOf(searchLang);
-      if (lastIndexOf > -1) {
-        String defaultLangFileName = calculateDefaultLangFileName(fileName,
-            searchLang,
-            lastIndexOf);
-        String defaultLangFileAbsolutePath = languageFileAbsolutePath.replace(fileName,
-            defaultLangFileName);
-        languageFilePath = Paths.get(defaultLangFileAbsolutePath);
-      }
+    private final ExportOptions exportOptions;
+
+    private final String fileRegularExpression;
+
+    private final String[] languages;
+
+    private final MetricsCollector metricsCollector;
+
+    /**
+     * The stream of the exported file or <code>null</code> if the file is written.
+     */
+    private final OutputStream out;
+
+    private final String workingDirectory;
+
+    private final String xlsFileName;
+
+    ExportRun(final OutputStream out, final String xlsFileName, final String workingDirectory,
+        final String fileRegularExpression, final String[] languages,
+        final ExportOptions exportOptions, final CancellationSignal cancellationSignal) {
+      this.out = out;
+      this.xlsFileName = xlsFileName;
+      this.workingDirectory = workingDirectory;
+      this.fileRegularExpression = fileRegularExpression;
+      this.languages = languages;
+      this.exportOptions = exportOptions;
+      this.cancellationSignal = cancellationSignal;
+      metricsCollector = new MetricsCollector(exportOptions.listener);
     }
 
-    Path relativize = workingDirectoryPath.relativize(languageFilePath);
-    return relativize.toString();
   }
 
-  private String calculateLangFileName(final String fileAccess, final String lang,
-      final int lastIndexOfFolderSeparator) {
-    String fileName = lastIndexOfFolderSeparator > -1
-        ? fileAccess.substring(lastIndexOfFolderSeparator)
-        : fileAccess;
-    int lastDotIndex = fileName.lastIndexOf(".");
-    return fileName.substring(0, lastDotIndex) + UNDERLINE + lang
-        + fileName.substring(lastDotIndex);
-  }
+  private static final int PENDING_BUNDLES_PER_THREAD = 2;
 
-  @Override
-  public void exportToXls(final String xlsFileName, final String workingDirectory,
-      final String fileRegularExpression, final String[] languages) {
+  /**
+   * The locks of the exported files and of the working directories of the imports. Shared by all
+   * instances, so the conversions that write the same target run one after the other even if they
+   * are started on different instances.
+   */
+  private static final PathLocks TARGET_LOCKS = new PathLocks();
 
-    validateExportParameters(xlsFileName, workingDirectory, fileRegularExpression, languages);
+  /**
+   * The suffix of the temporary file of the exported file before its extension.
+   */
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
 
-    File workingDirectoryFile = new File(workingDirectory);
+  /**
+   * The cache of the parsed bundles or <code>null</code> if every export reads all bundles.
+   */
+  private final BundleCache bundleCache;
 
-    Collection<File> files = getFilesWithSorted(fileRegularExpression, workingDirectoryFile);
+  /**
+   * Constructor of a converter that reads all bundles on every export.
+   */
+  public I18nConverterImpl() {
+    this(null);
+  }
 
-    WorkbookWriter workbookWriter = new WorkbookWriter(xlsFileName, languages);
+  /**
+   * Constructor.
+   *
+   * @param bundleCache
+   *          the cache of the parsed bundles that is shared by the exports or <code>null</code>.
+   */
+  protected I18nConverterImpl(final BundleCache bundleCache) {
+    this.bundleCache = bundleCache;
+  }
 
-    if (files.isEmpty()) {
-      workbookWriter.writeWorkbookToFile();
-      return;
+  /**
+   * Creates the temporary file of an exported file. The temporary file has the extension of the
+   * exported file, because the extension selects the output format.
+   */
+  private static Path createTempFile(final File exportedFile) {
+    String fileName = exportedFile.getName();
+    int extensionStart = fileName.lastIndexOf('.');
+    String extension = extensionStart < 0 ? "" : fileName.substring(extensionStart);
+    try {
+      return TempFiles.createTempFile(exportedFile, TEMP_FILE_SUFFIX + extension);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to create the temporary file of [" + exportedFile + "].",
+          e);
     }
+  }
+
+  /**
+   * Writes an exported file while holding the lock of the file, the same way as the exports of
+   * the converter. The tables are written into a temporary file that replaces the exported file
+   * when the export completes.
+   *
+   * @param xlsFileName
+   *          the name of the exported file. The extension selects the format.
+   * @param languages
+   *          the languages of the export.
+   * @param exportOptions
+   *          the optional settings of the export.
+   * @param metricsCollector
+   *          receives the time of the sheet building and of the serialization.
+   * @param tableWriter
+   *          writes the tables into the translation writer.
+   * @throws RuntimeException
+   *           if the file cannot be written. The exported file is not changed.
+   */
+  public static void exportToFile(final String xlsFileName, final String[] languages,
+      final ExportOptions exportOptions, final MetricsCollector metricsCollector,
+      final Consumer<TranslationWriter> tableWriter) {
+    File exportedFile = new File(xlsFileName);
+    TARGET_LOCKS.withLock(exportedFile, () -> writeToTempFile(exportedFile, languages,
+        exportOptions, metricsCollector, new CancellationSignal(), (translationWriter) -> {
+          tableWriter.accept(translationWriter);
+          return null;
+        }));
+  }
+
+  /**
+   * Runs a conversion on an executor. Cancelling the returned future signals the conversion to
+   * stop, and the future is completed when the conversion exits.
+   */
+  private static <T> CompletableFuture<T> runAsync(
+      final Function<CancellationSignal, T> conversion, final Executor executor) {
+    AsyncConversion<T> asyncConversion = new AsyncConversion<>(conversion);
+    executor.execute(asyncConversion);
+    return asyncConversion;
+  }
 
-    for (File file : files) {
-      String lang = getLanguage(file.getName(), languages);
-      String fileAccess = calculateFileAccess(file, languages, workingDirectory);
-
-      try (FileInputStream fileInputStream = new FileInputStream(file);
-          InputStreamReader inputStreamReader =
-              new InputStreamReader(fileInputStream, StandardCharsets.UTF_8);
-          BufferedReader br = new BufferedReader(inputStreamReader)) {
-        String line = null;
-        while ((line = br.readLine()) != null) {
-          // ignore empty and comment lines
-          if (!"".equals(line) && (line.charAt(0) != '#')) {
-            String unescapedLine = StringEscapeUtils.unescapeJava(line);
-            int separatorIndex = getPropertySeparatorIndex(unescapedLine);
-            String propKey = unescapedLine.substring(0, separatorIndex);
-            String propValue = unescapedLine.substring(separatorIndex + 1);
-
-            insertOrUpdateWorkbookRow(workbookWriter, lang, fileAccess, propKey, propValue);
-          }
+  /**
+   * Writes the tables into a temporary file that replaces the exported file when the export
+   * completes. The writer is aborted and the temporary file is deleted if the export fails.
+   */
+  private static <T> T writeToTempFile(final File exportedFile, final String[] languages,
+      final ExportOptions exportOptions, final MetricsCollector metricsCollector,
+      final CancellationSignal cancellationSignal,
+      final Function<TranslationWriter, T> tableWriter) {
+    Path tempFile = createTempFile(exportedFile);
+    TranslationWriter translationWriter = null;
+    boolean completed = false;
+    try {
+      translationWriter = metricsCollector.timeAndGet(ConversionPhase.SHEET_BUILD,
+          () -> TranslationFormats.createWriter(tempFile.toString(), languages, exportOptions));
+      T result = tableWriter.apply(translationWriter);
+
+      metricsCollector.time(ConversionPhase.SERIALIZE, translationWriter::finish);
+      metricsCollector.completePhase(ConversionPhase.SERIALIZE);
+
+      cancellationSignal.checkCancelled();
+      TempFiles.replace(tempFile, exportedFile);
+      completed = true;
+      return result;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to save file [" + exportedFile + "].", e);
+    } finally {
+      if (!completed) {
+        if (translationWriter != null) {
+          translationWriter.abort();
         }
-      } catch (IOException e) {
-        throw new RuntimeException("Has problem with IO when try to load/process properties "
-            + "files.", e);
+        TempFiles.deleteQuietly(tempFile);
       }
     }
-
-    workbookWriter.writeWorkbookToFile();
   }
 
-  private Integer findRowNumber(final String relativePathToDefaultLanguageFile,
-      final String propKey) {
-    List<PropKeyRowNumberDTO> list = fileAccessPropertyKeyRowNumber
-        .get(relativePathToDefaultLanguageFile);
-    if ((list == null) || list.isEmpty()) {
-      return null;
-    }
-    for (PropKeyRowNumberDTO pkrn : list) {
-      if (pkrn.propKey.equals(propKey)) {
-        return pkrn.rowNumber;
+  private FileFingerprints calculateFingerprints(final Map<String, List<File>> bundles,
+      final File workingDirectoryFile, final String[] languages,
+      final FileFingerprints prevFingerprints) {
+    Path workingDirectoryPath = workingDirectoryFile.getAbsoluteFile().toPath();
+    FileFingerprints fingerprints = new FileFingerprints(languages);
+    bundles.forEach((fileAccess, bundleFiles) -> {
+      for (File file : bundleFiles) {
+        String path = workingDirectoryPath.relativize(file.getAbsoluteFile().toPath()).toString();
+        FileFingerprintDTO prevFingerprint = (prevFingerprints == null)
+            ? null
+            : prevFingerprints.get(path);
+        fingerprints.put(path,
+            FileFingerprints.calculateFingerprint(file, fileAccess, prevFingerprint));
       }
-    }
-    return null;
+    });
+    return fingerprints;
   }
 
-  private Collection<File> getFilesWithSorted(final String fileRegularExpression,
-      final File workingDirectoryFile) {
-    Collection<File> files = FileUtils.listFiles(workingDirectoryFile,
-        new RegexFileFilter(fileRegularExpression),
-        DirectoryFileFilter.DIRECTORY);
-
-    if (files instanceof List<?>) {
-      // guarantees that the first file is the default language file.
-      Collections.sort((List<File>) files,
-          (file1, file2) -> file1.getName().compareTo(file2.getName()));
+  /**
+   * Exports the properties files while holding the lock of the exported file. The exports into a
+   * stream do not write a shared target, so they run without a lock.
+   */
+  private ConversionMetrics export(final ExportRun run) {
+    if (run.out != null) {
+      return writeExport(run);
     }
-    return files;
+    return TARGET_LOCKS.withLock(new File(run.xlsFileName), () -> writeExport(run));
   }
 
   /**
-   * Gets language from file name.
+   * Exports the bundles that changed since the previous export and copies the rows of the other
+   * bundles from the previous workbook.
    *
-   * @param fileName
-   *          the file name.
-   * @return the language (hu, de) or if default language "" (empty string).
+   * @return the fingerprints of the exported files.
    */
-  private String getLanguage(final String fileName, final String[] languages) {
-    for (String lang : languages) {
-      if (fileName.contains(UNDERLINE + lang)) {
-        return lang;
+  private FileFingerprints exportIncrementally(final String xlsFileName,
+      final File workingDirectoryFile, final String[] languages,
+      final Map<String, List<File>> bundles, final BiConsumer<String, List<File>> bundleExporter,
+      final Consumer<WorkbookRowDTO> rowWriter) {
+    File fingerprintsFile = FileFingerprints.getFingerprintsFile(xlsFileName);
+    FileFingerprints prevFingerprints = FileFingerprints.load(fingerprintsFile);
+    FileFingerprints fingerprints = calculateFingerprints(bundles, workingDirectoryFile,
+        languages, prevFingerprints);
+
+    Set<String> unchangedBundles = new HashSet<String>();
+    if ((prevFingerprints != null) && new File(xlsFileName).isFile()) {
+      for (String fileAccess : bundles.keySet()) {
+        if (fingerprints.isBundleUnchanged(fileAccess, prevFingerprints)) {
+          unchangedBundles.add(fileAccess);
+        }
       }
     }
-    return "";
-  }
 
-  private int getLastIndexOfFolderSeparator(final String fileAccess) {
-    int lastIndexOf = fileAccess.lastIndexOf("/");
-    if (lastIndexOf == -1) {
-      lastIndexOf = fileAccess.lastIndexOf("\\");
+    IncrementalRowMerger rowMerger = new IncrementalRowMerger(bundles, unchangedBundles,
+        languages, bundleExporter, rowWriter);
+    if (!unchangedBundles.isEmpty()) {
+      TranslationFormats.createReader(xlsFileName).readRows(rowMerger);
     }
-    return lastIndexOf;
-  }
+    rowMerger.finish();
 
-  private String getPathWithoutFileName(final String fileAccess,
-      final int lastIndexOfFolderSeparator) {
-    if (lastIndexOfFolderSeparator > -1) {
-      return fileAccess.substring(0, lastIndexOfFolderSeparator);
+    // the fingerprints must not describe a partially written workbook.
+    if (fingerprintsFile.exists() && !fingerprintsFile.delete()) {
+      throw new RuntimeException("Failed to delete file [" + fingerprintsFile + "].");
     }
-    return "";
+    return fingerprints;
   }
 
-  private int getPropertySeparatorIndex(final String unescapedLine) {
-    int[] separators = new int[SEPARATOR_SIZE];
-    int index = 0;
-    separators[index++] = unescapedLine.indexOf('=');
-    separators[index++] = unescapedLine.indexOf(' ');
-    separators[index++] = unescapedLine.indexOf(':');
-    separators[index++] = unescapedLine.indexOf('\t');
-    separators[index++] = unescapedLine.indexOf('\f');
-    Arrays.sort(separators);
-    for (int i = 0; i < separators.length; i++) {
-      if (separators[i] != -1) {
-        return separators[i];
-      }
+  @Override
+  public void exportToXls(final String xlsFileName, final String workingDirectory,
+      final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions) {
+
+    validateExportParameters(xlsFileName, workingDirectory, fileRegularExpression, languages,
+        exportOptions);
+
+    export(new ExportRun(null, xlsFileName, workingDirectory, fileRegularExpression, languages,
+        exportOptions, new CancellationSignal()));
+  }
+
+  @Override
+  public void exportToXls(final OutputStream out, final String xlsFileName,
+      final String workingDirectory, final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions) {
+
+    Objects.requireNonNull(out, "Cannot be null out.");
+    validateExportParameters(xlsFileName, workingDirectory, fileRegularExpression, languages,
+        exportOptions);
+    if (exportOptions.incremental) {
+      throw new IllegalArgumentException("The incremental export cannot write into a stream.");
     }
-    throw new RuntimeException("Not find separator in the line. Unescaped line: [" + unescapedLine
-        + "].");
+
+    export(new ExportRun(out, xlsFileName, workingDirectory, fileRegularExpression, languages,
+        exportOptions, new CancellationSignal()));
   }
 
   @Override
-  public void importFromXls(final String xlsFileName, final String workingDirectory) {
+  public CompletableFuture<ConversionMetrics> exportToXlsAsync(final String xlsFileName,
+      final String workingDirectory, final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions, final Executor executor) {
 
-    validateImportParameters(xlsFileName, workingDirectory);
+    validateExportParameters(xlsFileName, workingDirectory, fileRegularExpression, languages,
+        exportOptions);
+    Objects.requireNonNull(executor, "Cannot be null executor.");
 
-    WorkbookReader workbookReader = new WorkbookReader(xlsFileName);
+    return runAsync((cancellationSignal) -> export(new ExportRun(null, xlsFileName,
+        workingDirectory, fileRegularExpression, languages, exportOptions, cancellationSignal)),
+        executor);
+  }
 
-    Map<String, Properties> langProperties = new HashMap<String, Properties>();
-    langProperties.put("", new Properties());
+  private Collection<File> getFilesWithSorted(final String fileRegularExpression,
+      final File workingDirectoryFile, final ExportOptions exportOptions) {
+    // guarantees that the first file is the default language file.
+    return new PropertiesFileWalker(workingDirectoryFile, fileRegularExpression,
+        Arrays.asList(exportOptions.excludeDirectories), exportOptions.parallelism).walk();
+  }
 
-    String[] languages = workbookReader.getLanguages();
-    for (String lang : languages) {
-      langProperties.put(lang, new Properties());
-    }
+  @Override
+  public ImportResult importFromXls(final String xlsFileName, final String workingDirectory,
+      final ImportOptions importOptions) {
 
-    String prevPropertiesFile = null;
-    ArrayList<String> propKeySequence = new ArrayList<String>();
-    int lastRowNumber = workbookReader.getLastRowNumber();
-    for (int i = 1; i <= lastRowNumber; i++) {
-      WorkbookRowDTO nextRow = workbookReader.getNextRow();
+    validateImportParameters(xlsFileName, workingDirectory, importOptions);
 
-      if (prevPropertiesFile == null) {
-        prevPropertiesFile = nextRow.propertiesFile;
-      }
+    return importFile(TranslationFormats.createReader(xlsFileName), workingDirectory,
+        importOptions, new CancellationSignal());
+  }
 
-      if (!prevPropertiesFile.equals(nextRow.propertiesFile)) {
-        writePropertiesToFiles(langProperties, prevPropertiesFile, workingDirectory,
-            propKeySequence);
-        prevPropertiesFile = nextRow.propertiesFile;
-      }
+  @Override
+  public ImportResult importFromXls(final InputStream in, final String xlsFileName,
+      final String workingDirectory, final ImportOptions importOptions) {
 
-      langProperties.get("").setProperty(nextRow.propKey, nextRow.defaultLangValue);
-      for (String lang : languages) {
-        langProperties.get(lang).setProperty(nextRow.propKey, nextRow.langValues.get(lang));
-      }
-      propKeySequence.add(nextRow.propKey);
-    }
+    Objects.requireNonNull(in, "Cannot be null in.");
+    validateImportParameters(xlsFileName, workingDirectory, importOptions);
 
-    writePropertiesToFiles(langProperties, prevPropertiesFile, workingDirectory,
-        propKeySequence);
+    return importFile(TranslationFormats.createReader(new CloseShieldInputStream(in), xlsFileName),
+        workingDirectory, importOptions, new CancellationSignal());
   }
 
-  private void insertOrUpdateWorkbookRow(final WorkbookWriter workbookWriter, final String lang,
-      final String fileAccess, final String propKey, final String propValue) {
-    Integer updatedRowNumber = findRowNumber(fileAccess, propKey);
-    if (updatedRowNumber == null) {
-      int rowNumber = workbookWriter.insertRow(fileAccess,
-          propKey,
-          lang,
-          propValue);
-      addPropKeyRowNumberToWorkbookKeyMap(fileAccess, propKey,
-          rowNumber);
-    } else {
-      workbookWriter.updateRow(updatedRowNumber,
-          lang,
-          propValue);
+  @Override
+  public CompletableFuture<ImportResult> importFromXlsAsync(final String xlsFileName,
+      final String workingDirectory, final ImportOptions importOptions, final Executor executor) {
+
+    validateImportParameters(xlsFileName, workingDirectory, importOptions);
+    Objects.requireNonNull(executor, "Cannot be null executor.");
+
+    return runAsync((cancellationSignal) -> importFile(
+        TranslationFormats.createReader(xlsFileName), workingDirectory, importOptions,
+        cancellationSignal), executor);
+  }
+
+  /**
+   * Imports a file while holding the lock of the working directory.
+   */
+  private ImportResult importFile(final TranslationReader translationReader,
+      final String workingDirectory, final ImportOptions importOptions,
+      final CancellationSignal cancellationSignal) {
+    return TARGET_LOCKS.withLock(new File(workingDirectory),
+        () -> importRows(translationReader, workingDirectory, importOptions, cancellationSignal));
+  }
+
+  /**
+   * Imports the rows into the language files.
+   */
+  private ImportResult importRows(final TranslationReader translationReader,
+      final String workingDirectory, final ImportOptions importOptions,
+      final CancellationSignal cancellationSignal) {
+    cancellationSignal.checkCancelled();
+
+    MetricsCollector metricsCollector = new MetricsCollector(importOptions.listener);
+    try (AbstractPropertiesImporter propertiesImporter = importOptions.merge
+        ? new MergePropertiesImporter(workingDirectory, importOptions.parallelism,
+            metricsCollector)
+        : new StreamingPropertiesImporter(workingDirectory, importOptions.skipUnchanged,
+            importOptions.parallelism, metricsCollector)) {
+      TimedRowHandler timedRowHandler = new TimedRowHandler(
+          new CancellableRowHandler(propertiesImporter, cancellationSignal), metricsCollector);
+      long readStartNanos = System.nanoTime();
+      translationReader.readRows(timedRowHandler, importOptions.parallelism);
+      metricsCollector.addPhaseNanos(ConversionPhase.PARSE,
+          System.nanoTime() - readStartNanos - timedRowHandler.getHandlerNanos());
+      metricsCollector.completePhase(ConversionPhase.PARSE);
+
+      propertiesImporter.finish();
+      metricsCollector.completePhase(ConversionPhase.WRITE);
+      return new ImportResult()
+          .filesSkipped(propertiesImporter.getFilesSkipped())
+          .filesWritten(propertiesImporter.getFilesWritten())
+          .metrics(metricsCollector.finish());
+    }
+  }
+
+  private TranslationTable readBundle(final PropertiesBundleReader bundleReader,
+      final MetricsCollector metricsCollector, final String fileAccess,
+      final List<File> bundleFiles) {
+    Supplier<TranslationTable> bundleTableReader = () -> metricsCollector.timeAndGet(
+        ConversionPhase.PARSE, () -> bundleReader.readBundle(fileAccess, bundleFiles));
+    TranslationTable table = bundleCache == null
+        ? bundleTableReader.get()
+        : bundleCache.getOrRead(fileAccess, bundleReader.getLanguages(), bundleFiles,
+            bundleTableReader);
+    for (File file : bundleFiles) {
+      metricsCollector.fileProcessed(file.getPath(), file.length());
     }
+    return table;
   }
 
-  private void makeDirectories(final String workingDirectory, final String pathWithoutFileName) {
-    File file = new File(workingDirectory, pathWithoutFileName);
-    if (!file.exists() && !file.mkdirs()) {
-      throw new RuntimeException("Cannot create directories.");
+  /**
+   * Reads the bundles with several threads. The tables of the bundles are passed to the consumer
+   * on the calling thread in the order of the bundles. At most {@value #PENDING_BUNDLES_PER_THREAD}
+   * bundles per thread are read in advance to bound the memory usage.
+   */
+  private void readBundlesInParallel(final Map<String, List<File>> bundles,
+      final BiFunction<String, List<File>, TranslationTable> bundleParser,
+      final int parallelism, final Consumer<TranslationTable> bundleTableConsumer) {
+    ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+    try {
+      int maxPendingBundles = parallelism * PENDING_BUNDLES_PER_THREAD;
+      Deque<Future<TranslationTable>> pendingBundles = new ArrayDeque<>();
+      Iterator<Entry<String, List<File>>> bundleIterator = bundles.entrySet().iterator();
+      while (bundleIterator.hasNext() || !pendingBundles.isEmpty()) {
+        while (bundleIterator.hasNext() && (pendingBundles.size() < maxPendingBundles)) {
+          Entry<String, List<File>> bundle = bundleIterator.next();
+          pendingBundles.add(executorService.submit(
+              () -> bundleParser.apply(bundle.getKey(), bundle.getValue())));
+        }
+        bundleTableConsumer.accept(FutureResults.get(pendingBundles.removeFirst()));
+      }
+    } finally {
+      executorService.shutdownNow();
     }
   }
 
@@ -328,22 +492,29 @@ public class I18nConverterImpl implements I18nConverter {
    *          .*\.properties$ to find all properties files.
    * @param languages
    *          the languages which want to search.
+   * @param exportOptions
+   *          the optional settings of the export.
    *
    * @throws NullPointerException
    *           if one of parameter is null.
    * @throws IllegalArgumentException
    *           if exportedFileName or workingDirectory or fileRegularExpression is empty. If
-   *           workingDirectory is not directory.
+   *           workingDirectory is not directory. If the parallelism is less than 1. If the
+   *           maxRowsPerSheet is negative. If the baseline is combined with incremental.
    * @throws java.util.regex.PatternSyntaxException
    *           if fileRegularExpression is not valid.
    */
   private void validateExportParameters(final String exportedFileName,
-      final String workingDirectory, final String fileRegularExpression, final String[] languages) {
+      final String workingDirectory, final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions) {
 
     Objects.requireNonNull(exportedFileName, "Cannot be null exportedFileName.");
     Objects.requireNonNull(workingDirectory, "Cannot be null workingDirectoryName.");
     Objects.requireNonNull(fileRegularExpression, "Cannot be null fileRegularExpression.");
     Objects.requireNonNull(languages, "Cannot be null languages.");
+    Objects.requireNonNull(exportOptions, "Cannot be null exportOptions.");
+    Objects.requireNonNull(exportOptions.excludeDirectories,
+        "Cannot be null excludeDirectories.");
 
     if (exportedFileName.trim().isEmpty()) {
       throw new IllegalArgumentException("The exportedFileName is empty. Cannot be empty.");
@@ -354,6 +525,15 @@ public class I18nConverterImpl implements I18nConverter {
     if (fileRegularExpression.trim().isEmpty()) {
       throw new IllegalArgumentException("The fileRegularExpression is empty. Cannot be empty.");
     }
+    if (exportOptions.parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism is less than 1. Must be positive.");
+    }
+    if (exportOptions.maxRowsPerSheet < 0) {
+      throw new IllegalArgumentException("The maxRowsPerSheet is negative. Cannot be negative.");
+    }
+    if ((exportOptions.baseline != null) && exportOptions.incremental) {
+      throw new IllegalArgumentException("The baseline cannot be combined with incremental.");
+    }
 
     File workingDirectoryFile = new File(workingDirectory);
     if (!workingDirectoryFile.isDirectory()) {
@@ -370,18 +550,21 @@ public class I18nConverterImpl implements I18nConverter {
    *          the name of the imported file.
    * @param workingDirectory
    *          the working directory (Example: c:\\temp or /tmp).
+   * @param importOptions
+   *          the optional settings of the import.
    *
    * @throws NullPointerException
    *           if one of parameter is null.
    * @throws IllegalArgumentException
    *           if importedFileName or workingDirectory is empty. If workingDirectory is not
-   *           directory.
+   *           directory. If the parallelism is less than 1.
    */
   private void validateImportParameters(final String importedFileName,
-      final String workingDirectory) {
+      final String workingDirectory, final ImportOptions importOptions) {
 
     Objects.requireNonNull(importedFileName, "Cannot be null importedFileName.");
     Objects.requireNonNull(workingDirectory, "Cannot be null workingDirectoryName.");
+    Objects.requireNonNull(importOptions, "Cannot be null importOptions.");
 
     if (importedFileName.trim().isEmpty()) {
       throw new IllegalArgumentException("The importedFileName is empty. Cannot be empty.");
@@ -389,6 +572,9 @@ public class I18nConverterImpl implements I18nConverter {
     if (workingDirectory.trim().isEmpty()) {
       throw new IllegalArgumentException("The workingDirectoryName is empty. Cannot be empty.");
     }
+    if (importOptions.parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism is less than 1. Must be positive.");
+    }
 
     File workingDirectoryFile = new File(workingDirectory);
     if (!workingDirectoryFile.isDirectory()) {
@@ -396,61 +582,112 @@ public class I18nConverterImpl implements I18nConverter {
     }
   }
 
-  private void writePropertiesToFiles(final Map<String, Properties> langProperties,
-      final String fileAccess, final String workingDirectory,
-      final ArrayList<String> propKeySequence) {
-
-    langProperties.forEach((key, value) -> {
-
-      File langFile = null;
-      String pathWithoutFileName = null;
-      String langFileName = fileAccess;
-
-      if ("".equals(key)) {
-
-        int lastIndexOfFolderSeparator = getLastIndexOfFolderSeparator(fileAccess);
-        pathWithoutFileName = getPathWithoutFileName(langFileName,
-            lastIndexOfFolderSeparator);
-        makeDirectories(workingDirectory, pathWithoutFileName);
-
-        langFile = new File(workingDirectory, langFileName);
-
-      } else {
+  /**
+   * Reads the bundles and writes their rows.
+   *
+   * @return the fingerprints of the exported files in case of an incremental export, otherwise
+   *         <code>null</code>.
+   */
+  private FileFingerprints writeBundles(final ExportRun run, final Map<String, List<File>> bundles,
+      final TranslationWriter translationWriter) {
+    MetricsCollector metricsCollector = run.metricsCollector;
+    PropertiesBundleReader bundleReader = new PropertiesBundleReader(run.languages);
+    BiFunction<String, List<File>, TranslationTable> bundleParser =
+        (fileAccess, bundleFiles) -> readBundle(bundleReader, metricsCollector, fileAccess,
+            bundleFiles);
+    DeltaFilter deltaFilter = run.exportOptions.baseline == null
+        ? null
+        : DeltaFilter.load(run.exportOptions.baseline, run.fileRegularExpression, run.languages,
+            run.exportOptions);
+    Consumer<TranslationTable> bundleTableWriter = (bundleTable) -> {
+      run.cancellationSignal.checkCancelled();
+      TranslationTable table = deltaFilter == null ? bundleTable : deltaFilter.filter(bundleTable);
+      metricsCollector.time(ConversionPhase.SHEET_BUILD, () -> translationWriter.writeTable(table));
+      metricsCollector.rowsProcessed(table.getRowCount());
+    };
+
+    FileFingerprints fingerprints = null;
+    if (run.exportOptions.incremental) {
+      fingerprints = exportIncrementally(run.xlsFileName, new File(run.workingDirectory),
+          run.languages, bundles,
+          (fileAccess, bundleFiles) -> bundleTableWriter
+              .accept(bundleParser.apply(fileAccess, bundleFiles)),
+          (row) -> {
+            run.cancellationSignal.checkCancelled();
+            metricsCollector.time(ConversionPhase.SHEET_BUILD,
+                () -> translationWriter.writeRow(row));
+            metricsCollector.rowsProcessed(1);
+          });
+    } else if (run.exportOptions.parallelism > 1) {
+      readBundlesInParallel(bundles, bundleParser, run.exportOptions.parallelism,
+          bundleTableWriter);
+    } else {
+      bundles.forEach((fileAccess, bundleFiles) -> bundleTableWriter
+          .accept(bundleParser.apply(fileAccess, bundleFiles)));
+    }
+    metricsCollector.completePhase(ConversionPhase.PARSE);
+    metricsCollector.completePhase(ConversionPhase.SHEET_BUILD);
+    return fingerprints;
+  }
 
-        int lastIndexOfFolderSeparator = getLastIndexOfFolderSeparator(fileAccess);
-        pathWithoutFileName = getPathWithoutFileName(fileAccess,
-            lastIndexOfFolderSeparator);
-        makeDirectories(workingDirectory, pathWithoutFileName);
+  /**
+   * Exports the properties files into the stream or into the file of the export.
+   */
+  private ConversionMetrics writeExport(final ExportRun run) {
+    run.cancellationSignal.checkCancelled();
+    MetricsCollector metricsCollector = run.metricsCollector;
+
+    Map<String, List<File>> bundles = metricsCollector.timeAndGet(ConversionPhase.FILE_SCAN,
+        () -> new BundleGrouper(run.languages, run.workingDirectory).groupFiles(
+            getFilesWithSorted(run.fileRegularExpression, new File(run.workingDirectory),
+                run.exportOptions)));
+    metricsCollector.completePhase(ConversionPhase.FILE_SCAN);
+
+    if (run.out == null) {
+      writeExportToFile(run, bundles);
+    } else {
+      writeExportToStream(run, bundles);
+    }
+    return metricsCollector.finish();
+  }
 
-        langFileName = calculateLangFileName(fileAccess, key,
-            lastIndexOfFolderSeparator);
-        langFile = new File(workingDirectory, pathWithoutFileName + langFileName);
-      }
+  /**
+   * Exports the bundles into a temporary file that replaces the exported file when the export
+   * completes.
+   */
+  private void writeExportToFile(final ExportRun run, final Map<String, List<File>> bundles) {
+    FileFingerprints fingerprints = writeToTempFile(new File(run.xlsFileName), run.languages,
+        run.exportOptions, run.metricsCollector, run.cancellationSignal,
+        (translationWriter) -> writeBundles(run, bundles, translationWriter));
+    if (fingerprints != null) {
+      fingerprints.store(FileFingerprints.getFingerprintsFile(run.xlsFileName));
+    }
+  }
 
-      try (FileOutputStream out = new FileOutputStream(langFile);
-          OutputStreamWriter outputStreamWriter = new OutputStreamWriter(out,
-              StandardCharsets.UTF_8);
-          BufferedWriter bw = new BufferedWriter(outputStreamWriter);) {
-
-        StringBuilder sb = new StringBuilder();
-
-        propKeySequence.forEach((propKey) -> {
-          String propValue = value.getProperty(propKey);
-          sb.append(propKey);
-          sb.append("=");
-          sb.append(StringEscapeUtils.escapeJava(propValue));
-          sb.append("\n");
-        });
-
-        bw.write(sb.toString());
-      } catch (IOException e) {
-        throw new RuntimeException(
-            "Failed to save file [" + pathWithoutFileName + langFileName + "]", e);
+  /**
+   * Exports the bundles directly into the stream of the export. The stream is flushed but not
+   * closed.
+   */
+  private void writeExportToStream(final ExportRun run, final Map<String, List<File>> bundles) {
+    MetricsCollector metricsCollector = run.metricsCollector;
+    TranslationWriter translationWriter = metricsCollector.timeAndGet(
+        ConversionPhase.SHEET_BUILD,
+        () -> TranslationFormats.createWriter(new CloseShieldOutputStream(run.out),
+            run.xlsFileName, run.languages, run.exportOptions));
+    boolean completed = false;
+    try {
+      writeBundles(run, bundles, translationWriter);
+
+      metricsCollector.time(ConversionPhase.SERIALIZE, translationWriter::finish);
+      completed = true;
+      run.out.flush();
+      metricsCollector.completePhase(ConversionPhase.SERIALIZE);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to save file [" + run.xlsFileName + "].", e);
+    } finally {
+      if (!completed) {
+        translationWriter.abort();
       }
-
-      value.clear();
-    });
-
-    propKeySequence.clear();
+    }
   }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.everit.i18n.propsxlsconverter.BundleCacheStatistics;
+import org.everit.i18n.propsxlsconverter.ConversionMetrics;
+import org.everit.i18n.propsxlsconverter.ExportOptions;
+import org.everit.i18n.propsxlsconverter.I18nConverterSession;
+import org.everit.i18n.propsxlsconverter.ImportOptions;
+import org.everit.i18n.propsxlsconverter.ImportResult;
+import org.everit.i18n.propsxlsconverter.SessionOptions;
+import org.everit.i18n.propsxlsconverter.internal.cache.BundleCache;
+
+/**
+ * The {@link I18nConverterSession} implementation.
+ */
+public class I18nConverterSessionImpl extends I18nConverterImpl implements I18nConverterSession {
+
+  private final BundleCache bundleCache;
+
+  private volatile boolean closed = false;
+
+  /**
+   * Constructor with the default {@link SessionOptions}.
+   */
+  public I18nConverterSessionImpl() {
+    this(new SessionOptions());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param sessionOptions
+   *          the optional settings of the session. Cannot be <code>null</code>.
+   *
+   * @throws NullPointerException
+   *           if the sessionOptions is null.
+   * @throws IllegalArgumentException
+   *           if the maxCacheSize is negative.
+   */
+  public I18nConverterSessionImpl(final SessionOptions sessionOptions) {
+    this(new BundleCache(validateSessionOptions(sessionOptions).maxCacheSize));
+  }
+
+  private I18nConverterSessionImpl(final BundleCache bundleCache) {
+    super(bundleCache);
+    this.bundleCache = bundleCache;
+  }
+
+  private static SessionOptions validateSessionOptions(final SessionOptions sessionOptions) {
+    Objects.requireNonNull(sessionOptions, "Cannot be null sessionOptions.");
+    if (sessionOptions.maxCacheSize < 0) {
+      throw new IllegalArgumentException("The maxCacheSize is negative. Cannot be negative.");
+    }
+    return sessionOptions;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    bundleCache.clear();
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("The session is closed.");
+    }
+  }
+
+  @Override
+  public void exportToXls(final String xlsFileName, final String workingDirectory,
+      final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions) {
+    ensureOpen();
+    super.exportToXls(xlsFileName, workingDirectory, fileRegularExpression, languages,
+        exportOptions);
+    if (closed) {
+      // the export could cache bundles after the session was closed.
+      bundleCache.clear();
+    }
+  }
+
+  @Override
+  public void exportToXls(final OutputStream out, final String xlsFileName,
+      final String workingDirectory, final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions) {
+    ensureOpen();
+    super.exportToXls(out, xlsFileName, workingDirectory, fileRegularExpression, languages,
+        exportOptions);
+    if (closed) {
+      // the export could cache bundles after the session was closed.
+      bundleCache.clear();
+    }
+  }
+
+  @Override
+  public CompletableFuture<ConversionMetrics> exportToXlsAsync(final String xlsFileName,
+      final String workingDirectory, final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions, final Executor executor) {
+    ensureOpen();
+    return super.exportToXlsAsync(xlsFileName, workingDirectory, fileRegularExpression,
+        languages, exportOptions, executor);
+  }
+
+  @Override
+  public BundleCacheStatistics getCacheStatistics() {
+    return bundleCache.getStatistics();
+  }
+
+  @Override
+  public ImportResult importFromXls(final String xlsFileName, final String workingDirectory,
+      final ImportOptions importOptions) {
+    ensureOpen();
+    return super.importFromXls(xlsFileName, workingDirectory, importOptions);
+  }
+
+  @Override
+  public ImportResult importFromXls(final InputStream in, final String xlsFileName,
+      final String workingDirectory, final ImportOptions importOptions) {
+    ensureOpen();
+    return super.importFromXls(in, xlsFileName, workingDirectory, importOptions);
+  }
+
+  @Override
+  public CompletableFuture<ImportResult> importFromXlsAsync(final String xlsFileName,
+      final String workingDirectory, final ImportOptions importOptions, final Executor executor) {
+    ensureOpen();
+    return super.importFromXlsAsync(xlsFileName, workingDirectory, importOptions, executor);
+  }
+
+  @Override
+  public void invalidateCache() {
+    bundleCache.clear();
+  }
+
+}
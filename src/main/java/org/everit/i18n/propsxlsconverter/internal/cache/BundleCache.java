@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.cache;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.everit.i18n.propsxlsconverter.BundleCacheStatistics;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+
+/**
+ * A least recently used cache of the translation tables of the bundles with a limit on their
+ * estimated memory usage. A table is valid as long as the files of the bundle have the same size
+ * and last modification time as when the table was read. Can be used from several threads at the
+ * same time, the bundles are read outside of the lock.
+ */
+public class BundleCache {
+
+  /**
+   * A cached table with the fingerprints of the files that it was read from.
+   */
+  private static final class CachedBundle {
+
+    private final FileStamps fileStamps;
+
+    private final long size;
+
+    private final TranslationTable table;
+
+    CachedBundle(final FileStamps fileStamps, final TranslationTable table) {
+      this.fileStamps = fileStamps;
+      this.table = table;
+      size = table.estimateSize();
+    }
+
+  }
+
+  /**
+   * The size and the last modification time of the files of a bundle.
+   */
+  private static final class FileStamps {
+
+    private final long[] lastModified;
+
+    /**
+     * Whether one of the files was modified so recently that a new modification may not change
+     * its last modification time.
+     */
+    private final boolean racy;
+
+    private final long[] sizes;
+
+    FileStamps(final List<File> files) {
+      long racyLimit = System.currentTimeMillis() - RACY_INTERVAL_MILLIS;
+      lastModified = new long[files.size()];
+      sizes = new long[files.size()];
+      boolean racyFile = false;
+      for (int i = 0; i < lastModified.length; i++) {
+        File file = files.get(i);
+        lastModified[i] = file.lastModified();
+        sizes[i] = file.length();
+        racyFile |= lastModified[i] > racyLimit;
+      }
+      racy = racyFile;
+    }
+
+    boolean isSame(final FileStamps other) {
+      return Arrays.equals(lastModified, other.lastModified) && Arrays.equals(sizes, other.sizes);
+    }
+
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final float LOAD_FACTOR = 0.75f;
+
+  /**
+   * The files that were modified in this interval before they were read are not cached, because
+   * the resolution of the last modification time is one or two seconds on some file systems.
+   */
+  private static final long RACY_INTERVAL_MILLIS = 2000;
+
+  private final Map<String, CachedBundle> cachedBundles =
+      new LinkedHashMap<String, CachedBundle>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+  private long estimatedSize = 0;
+
+  private long evictionCount = 0;
+
+  private long hitCount = 0;
+
+  private final long maxSize;
+
+  private long missCount = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param maxSize
+   *          the maximum estimated memory usage of the cached tables in bytes.
+   */
+  public BundleCache(final long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  private static String createKey(final String fileAccess, final String[] languages,
+      final List<File> files) {
+    StringBuilder sb = new StringBuilder(fileAccess).append('\n')
+        .append(String.join(",", languages));
+    for (File file : files) {
+      sb.append('\n').append(file.getAbsolutePath());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Removes all cached tables.
+   */
+  public synchronized void clear() {
+    cachedBundles.clear();
+    estimatedSize = 0;
+  }
+
+  private synchronized TranslationTable get(final String key, final FileStamps fileStamps) {
+    CachedBundle cachedBundle = cachedBundles.get(key);
+    if ((cachedBundle != null) && cachedBundle.fileStamps.isSame(fileStamps)) {
+      hitCount++;
+      return cachedBundle.table;
+    }
+    if (cachedBundle != null) {
+      remove(key);
+    }
+    missCount++;
+    return null;
+  }
+
+  /**
+   * Gets the table of a bundle from the cache or reads it if the files of the bundle changed since
+   * the table was cached.
+   *
+   * @param fileAccess
+   *          the file access of the default language file of the bundle.
+   * @param languages
+   *          the languages of the table.
+   * @param files
+   *          the files of the bundle.
+   * @param bundleReader
+   *          reads the table from the files. Called outside of the lock.
+   * @return the table that must not be modified.
+   */
+  public TranslationTable getOrRead(final String fileAccess, final String[] languages,
+      final List<File> files, final Supplier<TranslationTable> bundleReader) {
+    String key = createKey(fileAccess, languages, files);
+    // the stamps are taken before reading, so a modification during the read invalidates the table
+    FileStamps fileStamps = new FileStamps(files);
+    TranslationTable table = get(key, fileStamps);
+    if (table == null) {
+      table = bundleReader.get();
+      if (!fileStamps.racy) {
+        put(key, new CachedBundle(fileStamps, table));
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Gets the statistics of the cache.
+   *
+   * @return the statistics at the time of the call.
+   */
+  public synchronized BundleCacheStatistics getStatistics() {
+    return new BundleCacheStatistics()
+        .bundleCount(cachedBundles.size())
+        .estimatedSize(estimatedSize)
+        .evictionCount(evictionCount)
+        .hitCount(hitCount)
+        .missCount(missCount);
+  }
+
+  private synchronized void put(final String key, final CachedBundle cachedBundle) {
+    if (cachedBundle.size > maxSize) {
+      return;
+    }
+    remove(key);
+    cachedBundles.put(key, cachedBundle);
+    estimatedSize += cachedBundle.size;
+    Iterator<CachedBundle> iterator = cachedBundles.values().iterator();
+    while (estimatedSize > maxSize) {
+      estimatedSize -= iterator.next().size;
+      iterator.remove();
+      evictionCount++;
+    }
+  }
+
+  private void remove(final String key) {
+    CachedBundle removed = cachedBundles.remove(key);
+    if (removed != null) {
+      estimatedSize -= removed.size;
+    }
+  }
+
+}
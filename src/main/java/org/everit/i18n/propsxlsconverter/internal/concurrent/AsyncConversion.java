@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * The future of a conversion that runs on an executor. Cancelling the future signals the
+ * conversion to stop. A running conversion is not abandoned: the future is completed only when
+ * the conversion exits, so the files of the conversion do not change after the future is done.
+ *
+ * @param <T>
+ *          the type of the result of the conversion.
+ */
+public class AsyncConversion<T> extends CompletableFuture<T> implements Runnable {
+
+  private static final int STATE_FINISHED = 2;
+
+  private static final int STATE_NEW = 0;
+
+  private static final int STATE_RUNNING = 1;
+
+  private final CancellationSignal cancellationSignal = new CancellationSignal();
+
+  private final Function<CancellationSignal, T> conversion;
+
+  private final Object lock = new Object();
+
+  /**
+   * The state of the conversion. Guarded by the {@link #lock}.
+   */
+  private int state = STATE_NEW;
+
+  /**
+   * Constructor.
+   *
+   * @param conversion
+   *          the conversion that receives the cancellation signal of the future.
+   */
+  public AsyncConversion(final Function<CancellationSignal, T> conversion) {
+    this.conversion = conversion;
+  }
+
+  /**
+   * Signals the conversion to stop. The future is cancelled at once if the conversion did not
+   * start, otherwise when the conversion exits.
+   *
+   * @return <code>true</code> if the future is or will be cancelled.
+   */
+  @Override
+  public boolean cancel(final boolean mayInterruptIfRunning) {
+    synchronized (lock) {
+      if (state == STATE_FINISHED) {
+        return cancellationSignal.isCancelled();
+      }
+      cancellationSignal.cancel();
+      if (state == STATE_RUNNING) {
+        // completed by the run method when the conversion exits
+        return true;
+      }
+      state = STATE_FINISHED;
+    }
+    return super.cancel(mayInterruptIfRunning);
+  }
+
+  /**
+   * Runs the conversion and completes the future with its result. The future is cancelled if
+   * cancel was called while the conversion was running.
+   */
+  @Override
+  public void run() {
+    synchronized (lock) {
+      if (state != STATE_NEW) {
+        return;
+      }
+      state = STATE_RUNNING;
+    }
+    T result = null;
+    Throwable failure = null;
+    try {
+      result = conversion.apply(cancellationSignal);
+    } catch (RuntimeException | Error e) {
+      failure = e;
+    }
+    boolean cancelled;
+    synchronized (lock) {
+      state = STATE_FINISHED;
+      cancelled = cancellationSignal.isCancelled();
+    }
+    if (cancelled) {
+      super.cancel(false);
+    } else if (failure != null) {
+      completeExceptionally(failure);
+    } else {
+      complete(result);
+    }
+  }
+
+}
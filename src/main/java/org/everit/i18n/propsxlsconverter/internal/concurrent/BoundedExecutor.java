@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs tasks with a limited number of threads. The {@link #execute(Runnable)} method blocks while
+ * the maximum number of tasks are running, so the producer of the tasks cannot get ahead of the
+ * workers more than the parallelism. Virtual threads are used if the JDK supports them, otherwise a
+ * fixed thread pool. With parallelism 1 the tasks run on the calling thread.
+ */
+public class BoundedExecutor implements AutoCloseable {
+
+  private final ExecutorService executorService;
+
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  private final int parallelism;
+
+  private final Semaphore runningTasks;
+
+  /**
+   * Constructor.
+   *
+   * @param parallelism
+   *          the maximum number of the tasks that run at the same time.
+   */
+  public BoundedExecutor(final int parallelism) {
+    this.parallelism = parallelism;
+    runningTasks = new Semaphore(parallelism);
+    executorService = parallelism > 1
+        ? newExecutorService(parallelism)
+        : null;
+  }
+
+  private static ExecutorService newExecutorService(final int parallelism) {
+    try {
+      Method newVirtualThreadPerTaskExecutor =
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      // virtual threads are not available (or they are a disabled preview feature)
+      return Executors.newFixedThreadPool(parallelism);
+    }
+  }
+
+  /**
+   * Waits until all the submitted tasks are finished.
+   *
+   * @throws RuntimeException
+   *           the first failure of the tasks.
+   */
+  public void awaitCompletion() {
+    acquire(parallelism);
+    runningTasks.release(parallelism);
+    rethrowFailure();
+  }
+
+  private void acquire(final int permits) {
+    try {
+      runningTasks.acquire(permits);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the running tasks.", e);
+    }
+  }
+
+  /**
+   * Interrupts the running tasks and waits until they exit, so no task writes files after the
+   * executor is closed. The waiting is not interruptible, the interrupt status is restored after
+   * it.
+   */
+  @Override
+  public void close() {
+    if (executorService == null) {
+      return;
+    }
+    executorService.shutdownNow();
+    boolean interrupted = false;
+    while (!executorService.isTerminated()) {
+      try {
+        executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Executes the task when a worker is available. Blocks until then.
+   *
+   * @param task
+   *          the task to execute.
+   * @throws RuntimeException
+   *           the first failure of the previously submitted tasks.
+   */
+  public void execute(final Runnable task) {
+    rethrowFailure();
+    if (executorService == null) {
+      task.run();
+      return;
+    }
+    acquire(1);
+    try {
+      executorService.execute(() -> {
+        try {
+          task.run();
+        } catch (RuntimeException | Error e) {
+          failure.compareAndSet(null, e);
+        } finally {
+          runningTasks.release();
+        }
+      });
+    } catch (RuntimeException e) {
+      runningTasks.release();
+      throw e;
+    }
+  }
+
+  private void rethrowFailure() {
+    Throwable throwable = failure.get();
+    if (throwable instanceof RuntimeException) {
+      throw (RuntimeException) throwable;
+    }
+    if (throwable instanceof Error) {
+      throw (Error) throwable;
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.concurrent;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Stops the reading of the rows when the conversion is cancelled.
+ */
+public class CancellableRowHandler implements WorkbookRowHandler {
+
+  private final CancellationSignal cancellationSignal;
+
+  private final WorkbookRowHandler delegate;
+
+  /**
+   * Constructor.
+   *
+   * @param delegate
+   *          the handler that processes the rows.
+   * @param cancellationSignal
+   *          the cancellation signal of the conversion.
+   */
+  public CancellableRowHandler(final WorkbookRowHandler delegate,
+      final CancellationSignal cancellationSignal) {
+    this.delegate = delegate;
+    this.cancellationSignal = cancellationSignal;
+  }
+
+  @Override
+  public void handleHeader(final String[] languages) {
+    cancellationSignal.checkCancelled();
+    delegate.handleHeader(languages);
+  }
+
+  @Override
+  public void handleRow(final WorkbookRowDTO row) {
+    cancellationSignal.checkCancelled();
+    delegate.handleRow(row);
+  }
+
+}
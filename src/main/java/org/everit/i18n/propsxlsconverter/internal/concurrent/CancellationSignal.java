@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.concurrent;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Signals the cancellation of a conversion. The conversion checks the signal between the bundles
+ * and the rows, so it stops at the next check after it was cancelled. Can be used from several
+ * threads at the same time.
+ */
+public class CancellationSignal {
+
+  private volatile boolean cancelled = false;
+
+  /**
+   * Cancels the conversion.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Checks whether the conversion was cancelled.
+   *
+   * @return <code>true</code> if {@link #cancel()} was called.
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Stops the conversion if it was cancelled or if the current thread was interrupted.
+   *
+   * @throws CancellationException
+   *           if the conversion has to stop.
+   */
+  public void checkCancelled() {
+    if (cancelled || Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("The conversion is cancelled.");
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.concurrent;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Exclusive locks of files and directories, so the conversions that write the same target run one
+ * after the other instead of overwriting each other's output. The locks of the paths that are not
+ * used are removed, so the number of locks does not grow with the number of conversions. Can be
+ * used from several threads at the same time.
+ */
+public class PathLocks {
+
+  /**
+   * The lock of a path and the number of threads that hold or wait for it.
+   */
+  private static final class PathLock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int users = 0;
+
+  }
+
+  private final Map<Path, PathLock> locks = new HashMap<>();
+
+  private synchronized PathLock acquire(final Path path) {
+    PathLock pathLock = locks.computeIfAbsent(path, (key) -> new PathLock());
+    pathLock.users++;
+    return pathLock;
+  }
+
+  private synchronized void release(final Path path, final PathLock pathLock) {
+    pathLock.users--;
+    if (pathLock.users == 0) {
+      locks.remove(path);
+    }
+  }
+
+  /**
+   * Runs an action while holding the lock of a path.
+   *
+   * @param file
+   *          the file or directory. The relative paths are resolved against the current directory.
+   * @param action
+   *          the action.
+   * @throws RuntimeException
+   *           if the thread is interrupted while waiting for the lock.
+   */
+  public void withLock(final File file, final Runnable action) {
+    withLock(file, () -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Runs an action while holding the lock of a path.
+   *
+   * @param file
+   *          the file or directory. The relative paths are resolved against the current directory.
+   * @param action
+   *          the action.
+   * @return the result of the action.
+   * @throws RuntimeException
+   *           if the thread is interrupted while waiting for the lock.
+   */
+  public <T> T withLock(final File file, final Supplier<T> action) {
+    Path path = file.getAbsoluteFile().toPath().normalize();
+    PathLock pathLock = acquire(path);
+    try {
+      pathLock.lock.lockInterruptibly();
+    } catch (InterruptedException e) {
+      release(path, pathLock);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the lock of [" + path + "].", e);
+    }
+    try {
+      return action.get();
+    } finally {
+      pathLock.lock.unlock();
+      release(path, pathLock);
+    }
+  }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.delta;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.everit.i18n.propsxlsconverter.ExportOptions;
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.files.BundleGrouper;
+import org.everit.i18n.propsxlsconverter.internal.files.PropertiesFileWalker;
+import org.everit.i18n.propsxlsconverter.internal.format.TranslationFormats;
+import org.everit.i18n.propsxlsconverter.internal.properties.PropertiesBundleReader;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Keeps only the rows of the translation tables that translators have to work on: the rows that
+ * have a missing or empty value in one of the exported languages and the rows whose default value
+ * is new or differs from the default value in the baseline.
+ */
+public class DeltaFilter {
+
+  /**
+   * The default values of the baseline by the file access of the bundle and the property key.
+   */
+  private final Map<String, Map<String, String>> baselineDefaultValues;
+
+  /**
+   * Loads the default values of a baseline.
+   *
+   * @param baseline
+   *          a file that was exported earlier in any supported format or a directory with the
+   *          properties files of a previous revision.
+   * @param fileRegularExpression
+   *          the regular expression of the properties files in case of a baseline directory.
+   * @param languages
+   *          the languages of the export.
+   * @param exportOptions
+   *          the options of the export. The excluded directories are applied to a baseline
+   *          directory too.
+   * @return the filter.
+   */
+  public static DeltaFilter load(final String baseline, final String fileRegularExpression,
+      final String[] languages, final ExportOptions exportOptions) {
+    File baselineFile = new File(baseline);
+    if (baselineFile.isDirectory()) {
+      return new DeltaFilter(readBaselineDirectory(baselineFile, fileRegularExpression,
+          languages, exportOptions));
+    }
+    if (!baselineFile.isFile()) {
+      throw new RuntimeException("The baseline [" + baseline + "] does not exist.");
+    }
+    return new DeltaFilter(readBaselineFile(baseline));
+  }
+
+  private static Map<String, Map<String, String>> readBaselineDirectory(
+      final File baselineDirectory, final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions) {
+    List<File> files = new PropertiesFileWalker(baselineDirectory, fileRegularExpression,
+        Arrays.asList(exportOptions.excludeDirectories), exportOptions.parallelism).walk();
+    Map<String, List<File>> bundles =
+        new BundleGrouper(languages, baselineDirectory.getAbsolutePath()).groupFiles(files);
+
+    Map<String, Map<String, String>> defaultValues = new HashMap<>();
+    PropertiesBundleReader bundleReader = new PropertiesBundleReader(languages);
+    bundles.forEach((fileAccess, bundleFiles) -> {
+      TranslationTable table = bundleReader.readBundle(fileAccess, bundleFiles);
+      Map<String, String> bundleDefaultValues = new HashMap<>();
+      for (int row = 0; row < table.getRowCount(); row++) {
+        bundleDefaultValues.put(table.getKey(row),
+            table.getValue(row, TranslationTable.DEFAULT_LANG_COLUMN));
+      }
+      defaultValues.put(fileAccess, bundleDefaultValues);
+    });
+    return defaultValues;
+  }
+
+  private static Map<String, Map<String, String>> readBaselineFile(final String baseline) {
+    Map<String, Map<String, String>> defaultValues = new HashMap<>();
+    TranslationFormats.createReader(baseline).readRows(new WorkbookRowHandler() {
+
+      @Override
+      public void handleHeader(final String[] baselineLanguages) {
+        // the language values of the baseline are not compared
+      }
+
+      @Override
+      public void handleRow(final WorkbookRowDTO row) {
+        defaultValues.computeIfAbsent(row.propertiesFile, key -> new HashMap<>())
+            .put(row.propKey, row.defaultLangValue);
+      }
+    });
+    return defaultValues;
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param baselineDefaultValues
+   *          the default values of the baseline by the file access of the bundle and the property
+   *          key.
+   */
+  public DeltaFilter(final Map<String, Map<String, String>> baselineDefaultValues) {
+    this.baselineDefaultValues = baselineDefaultValues;
+  }
+
+  /**
+   * Creates a table with the delta rows of a table.
+   *
+   * @param table
+   *          the translations of a bundle.
+   * @return the delta rows in their original order. The original table if all rows are delta rows.
+   */
+  public TranslationTable filter(final TranslationTable table) {
+    Map<String, String> bundleDefaultValues = baselineDefaultValues
+        .getOrDefault(table.getPropertiesFile(), Collections.emptyMap());
+    TranslationTable deltaTable = new TranslationTable(table.getPropertiesFile(),
+        table.getLanguages());
+    int columnCount = table.getColumnCount();
+    for (int row = 0; row < table.getRowCount(); row++) {
+      if (isDelta(table, row, bundleDefaultValues)) {
+        String key = table.getKey(row);
+        for (int column = 0; column < columnCount; column++) {
+          deltaTable.put(key, column, table.getValue(row, column));
+        }
+      }
+    }
+    return deltaTable.getRowCount() == table.getRowCount() ? table : deltaTable;
+  }
+
+  private boolean isDelta(final TranslationTable table, final int row,
+      final Map<String, String> bundleDefaultValues) {
+    for (int column = TranslationTable.DEFAULT_LANG_COLUMN + 1; column < table.getColumnCount();
+        column++) {
+      String value = table.getValue(row, column);
+      if ((value == null) || value.isEmpty()) {
+        return true;
+      }
+    }
+    String key = table.getKey(row);
+    if (!bundleDefaultValues.containsKey(key)) {
+      return true;
+    }
+    return !normalize(table.getValue(row, TranslationTable.DEFAULT_LANG_COLUMN))
+        .equals(normalize(bundleDefaultValues.get(key)));
+  }
+
+  /**
+   * The workbooks do not distinguish the missing values from the empty ones.
+   */
+  private String normalize(final String value) {
+    return value == null ? "" : value;
+  }
+
+}
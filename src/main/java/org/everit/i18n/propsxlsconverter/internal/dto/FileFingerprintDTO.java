@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.dto;
+
+/**
+ * The fingerprint of a properties file.
+ */
+public class FileFingerprintDTO {
+
+  public String fileAccess;
+
+  public String hash;
+
+  public long lastModified;
+
+  /**
+   * The time when the fingerprint was calculated.
+   */
+  public long recorded;
+
+  public long size;
+
+  public FileFingerprintDTO fileAccess(final String fileAccess) {
+    this.fileAccess = fileAccess;
+    return this;
+  }
+
+  public FileFingerprintDTO hash(final String hash) {
+    this.hash = hash;
+    return this;
+  }
+
+  public FileFingerprintDTO lastModified(final long lastModified) {
+    this.lastModified = lastModified;
+    return this;
+  }
+
+  public FileFingerprintDTO recorded(final long recorded) {
+    this.recorded = recorded;
+    return this;
+  }
+
+  public FileFingerprintDTO size(final long size) {
+    this.size = size;
+    return this;
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.files;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups the properties files into bundles. A bundle is a default language file and its language
+ * files, identified by the file access (the path relative to the working directory) of the default
+ * language file.
+ */
+public class BundleGrouper {
+
+  private final LanguageSuffixResolver languageSuffixResolver;
+
+  private final Path workingDirectoryPath;
+
+  /**
+   * The absolute path of the working directory with a trailing separator.
+   */
+  private final String workingDirectoryPrefix;
+
+  /**
+   * Constructor.
+   *
+   * @param languages
+   *          the languages of the export.
+   * @param workingDirectory
+   *          the working directory that the file accesses are relative to. Can be relative to the
+   *          current directory.
+   */
+  public BundleGrouper(final String[] languages, final String workingDirectory) {
+    languageSuffixResolver = new LanguageSuffixResolver(languages);
+    workingDirectoryPath = Paths.get(workingDirectory).toAbsolutePath().normalize();
+    String absoluteWorkingDirectory = workingDirectoryPath.toString();
+    workingDirectoryPrefix = absoluteWorkingDirectory.endsWith(File.separator)
+        ? absoluteWorkingDirectory
+        : absoluteWorkingDirectory + File.separator;
+  }
+
+  /**
+   * Calculate file access between the working directory and language file.
+   *
+   * @param languageFile
+   *          the language file.
+   * @return the calculated file access path.
+   */
+  public String calculateFileAccess(final File languageFile) {
+    String defaultLangFileName = languageSuffixResolver
+        .getDefaultLangFileName(languageFile.getName());
+    String languageFileAbsolutePath = languageFile.getAbsolutePath();
+    int fileNameStart = languageFileAbsolutePath.length() - languageFile.getName().length();
+    if (languageFileAbsolutePath.startsWith(workingDirectoryPrefix)
+        && (fileNameStart >= workingDirectoryPrefix.length())) {
+      return languageFileAbsolutePath.substring(workingDirectoryPrefix.length(), fileNameStart)
+          + defaultLangFileName;
+    }
+    Path defaultLangFilePath = Paths.get(languageFileAbsolutePath).normalize()
+        .resolveSibling(defaultLangFileName);
+    return workingDirectoryPath.relativize(defaultLangFilePath).toString();
+  }
+
+  /**
+   * Groups the files by the file access of their default language file. The order of the groups
+   * and the order of the files in the groups follow the order of the files, so the default language
+   * file comes first in every group if the files are sorted by name.
+   *
+   * @param files
+   *          the properties files.
+   * @return the files of the bundles. Map key is the file access of the bundle.
+   */
+  public Map<String, List<File>> groupFiles(final Collection<File> files) {
+    Map<String, List<File>> bundles = new LinkedHashMap<String, List<File>>();
+    for (File file : files) {
+      String fileAccess = calculateFileAccess(file);
+      bundles.computeIfAbsent(fileAccess, key -> new ArrayList<File>()).add(file);
+    }
+    return bundles;
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.files;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the language of a properties file from the suffix of its name
+ * (<code>messages_de_CH.properties</code>). The languages can be full
+ * <code>lang_COUNTRY_variant</code> tags. A suffix matches a language only if it is equal to the
+ * whole tag, so <code>_de</code> does not match <code>messages_de_CH.properties</code> or
+ * <code>my_design.properties</code>. If several tags match, the longest one wins.
+ *
+ * <p>
+ * The languages are grouped by the length of their tags when the resolver is created, so a file
+ * name is resolved in one pass over its underscores without allocating strings. An instance is
+ * immutable and can be shared by several threads.
+ * </p>
+ */
+public class LanguageSuffixResolver {
+
+  /**
+   * The return value of {@link #resolveLanguage(String)} for the default language files.
+   */
+  public static final int DEFAULT_LANGUAGE = -1;
+
+  private static final char EXTENSION_SEPARATOR = '.';
+
+  private static final char SUFFIX_SEPARATOR = '_';
+
+  /**
+   * The indexes of the languages by the length of their tags.
+   */
+  private final int[][] languageIndexesByLength;
+
+  private final String[] languages;
+
+  /**
+   * Constructor.
+   *
+   * @param languages
+   *          the language tags.
+   */
+  public LanguageSuffixResolver(final String[] languages) {
+    this.languages = languages.clone();
+    int maxLength = 0;
+    for (String lang : languages) {
+      maxLength = Math.max(maxLength, lang.length());
+    }
+    List<List<Integer>> indexesByLength = new ArrayList<>();
+    for (int length = 0; length <= maxLength; length++) {
+      indexesByLength.add(new ArrayList<Integer>());
+    }
+    for (int i = 0; i < languages.length; i++) {
+      indexesByLength.get(languages[i].length()).add(i);
+    }
+    languageIndexesByLength = new int[maxLength + 1][];
+    for (int length = 0; length <= maxLength; length++) {
+      languageIndexesByLength[length] = indexesByLength.get(length).stream()
+          .mapToInt(Integer::intValue)
+          .toArray();
+    }
+  }
+
+  private static int getExtensionStart(final String fileName) {
+    int extensionStart = fileName.lastIndexOf(EXTENSION_SEPARATOR);
+    return extensionStart < 0 ? fileName.length() : extensionStart;
+  }
+
+  /**
+   * Finds the language of a suffix.
+   *
+   * @return the index of the language or {@link #DEFAULT_LANGUAGE} if the suffix is not a tag.
+   */
+  private int findLanguage(final String fileName, final int suffixStart, final int suffixEnd) {
+    int length = suffixEnd - suffixStart;
+    if (length >= languageIndexesByLength.length) {
+      return DEFAULT_LANGUAGE;
+    }
+    for (int languageIndex : languageIndexesByLength[length]) {
+      if (fileName.regionMatches(suffixStart, languages[languageIndex], 0, length)) {
+        return languageIndex;
+      }
+    }
+    return DEFAULT_LANGUAGE;
+  }
+
+  /**
+   * Finds the separator of the language suffix of a file name.
+   *
+   * @return the index of the underscore before the language tag or -1 if the file name has no
+   *         language suffix.
+   */
+  private int findSuffixSeparator(final String fileName, final int extensionStart) {
+    int from = Math.max(0, extensionStart - languageIndexesByLength.length);
+    int separator = fileName.indexOf(SUFFIX_SEPARATOR, from);
+    while ((separator >= 0) && (separator < extensionStart)) {
+      if ((separator > 0)
+          && (findLanguage(fileName, separator + 1, extensionStart) != DEFAULT_LANGUAGE)) {
+        return separator;
+      }
+      separator = fileName.indexOf(SUFFIX_SEPARATOR, separator + 1);
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the name of the default language file of a file.
+   *
+   * @param fileName
+   *          the name of a properties file.
+   * @return the file name without the language suffix or the same string if the file is a default
+   *         language file.
+   */
+  public String getDefaultLangFileName(final String fileName) {
+    int extensionStart = getExtensionStart(fileName);
+    int separator = findSuffixSeparator(fileName, extensionStart);
+    if (separator < 0) {
+      return fileName;
+    }
+    return fileName.substring(0, separator) + fileName.substring(extensionStart);
+  }
+
+  /**
+   * Resolves the language of a file.
+   *
+   * @param fileName
+   *          the name of a properties file.
+   * @return the index of the language in the languages of the resolver or
+   *         {@link #DEFAULT_LANGUAGE} if the file is a default language file.
+   */
+  public int resolveLanguage(final String fileName) {
+    int extensionStart = getExtensionStart(fileName);
+    int separator = findSuffixSeparator(fileName, extensionStart);
+    if (separator < 0) {
+      return DEFAULT_LANGUAGE;
+    }
+    return findLanguage(fileName, separator + 1, extensionStart);
+  }
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
+
+/**
+ * Searches the properties files in a directory tree. The file names are matched against a regular
+ * expression and the excluded directories (for example <code>target</code>,
+ * <code>node_modules</code> or <code>.git</code>) are pruned, so their content is not listed at
+ * all. The directories are listed by several threads of a {@link ForkJoinPool} if the parallelism
+ * is greater than 1, otherwise the tree is walked with {@link Files#walkFileTree}. Symbolic links
+ * are followed the same way in both modes: a broken link is skipped, a link to one of its own
+ * ancestor directories is not followed again, and a directory that is reachable through several
+ * links is listed for each of them.
+ */
+public class PropertiesFileWalker {
+
+  /**
+   * Lists a directory and forks a task for every subdirectory.
+   */
+  private final class DirectoryTask extends RecursiveTask<List<File>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Path directory;
+
+    private final Object fileKey;
+
+    /**
+     * The task of the parent directory or <code>null</code> in case of the root directory.
+     */
+    private final DirectoryTask parent;
+
+    DirectoryTask(final Path directory, final Object fileKey, final DirectoryTask parent) {
+      this.directory = directory;
+      this.fileKey = fileKey;
+      this.parent = parent;
+    }
+
+    @Override
+    protected List<File> compute() {
+      List<File> files = new ArrayList<File>();
+      List<DirectoryTask> subdirectoryTasks = new ArrayList<DirectoryTask>();
+      try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+        for (Path path : directoryStream) {
+          BasicFileAttributes attributes = readAttributes(path);
+          if (attributes.isDirectory()) {
+            if (!isExcluded(path) && !isLoop(path, attributes.fileKey())) {
+              DirectoryTask subdirectoryTask = new DirectoryTask(path, attributes.fileKey(), this);
+              subdirectoryTask.fork();
+              subdirectoryTasks.add(subdirectoryTask);
+            }
+          } else if (attributes.isRegularFile() && isMatching(path)) {
+            files.add(path.toFile());
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to list directory [" + directory + "].", e);
+      }
+      for (DirectoryTask subdirectoryTask : subdirectoryTasks) {
+        files.addAll(subdirectoryTask.join());
+      }
+      return files;
+    }
+
+    /**
+     * Checks if a directory is this directory or one of its ancestors, like
+     * {@link Files#walkFileTree} does before it reports a {@link FileSystemLoopException}.
+     */
+    private boolean isLoop(final Path subdirectory, final Object subdirectoryKey) {
+      for (DirectoryTask task = this; task != null; task = task.parent) {
+        if ((subdirectoryKey != null) && (task.fileKey != null)) {
+          if (subdirectoryKey.equals(task.fileKey)) {
+            return true;
+          }
+        } else if (isSameFile(subdirectory, task.directory)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+  /**
+   * The order of the files: by name, so the default language file precedes its language files,
+   * then by path to make the order of the files with the same name deterministic.
+   */
+  public static final Comparator<File> FILE_ORDER = Comparator.comparing(File::getName)
+      .thenComparing(File::getPath);
+
+  private final List<PathMatcher> excludeMatchers = new ArrayList<PathMatcher>();
+
+  private final Pattern fileNamePattern;
+
+  private final int parallelism;
+
+  private final Path rootDirectory;
+
+  /**
+   * Constructor.
+   *
+   * @param rootDirectory
+   *          the directory to search in.
+   * @param fileRegularExpression
+   *          the regular expression that the file names must match.
+   * @param excludeDirectoryGlobs
+   *          the glob patterns of the excluded directories. A pattern is matched against the path
+   *          of the directory relative to the root directory and against the name of the
+   *          directory, so <code>target</code> excludes all directories named target and
+   *          <code>src/test</code> excludes one directory.
+   * @param parallelism
+   *          the number of threads that list the directories.
+   */
+  public PropertiesFileWalker(final File rootDirectory, final String fileRegularExpression,
+      final List<String> excludeDirectoryGlobs, final int parallelism) {
+    this.rootDirectory = rootDirectory.toPath();
+    fileNamePattern = Pattern.compile(fileRegularExpression);
+    for (String excludeDirectoryGlob : excludeDirectoryGlobs) {
+      excludeMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + excludeDirectoryGlob));
+    }
+    this.parallelism = parallelism;
+  }
+
+  private static boolean isSameFile(final Path path, final Path otherPath) {
+    try {
+      return Files.isSameFile(path, otherPath);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Reads the attributes of a file following the symbolic links. The attributes of a broken link
+   * are read from the link itself, like {@link Files#walkFileTree} does.
+   */
+  private static BasicFileAttributes readAttributes(final Path path) throws IOException {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException e) {
+      return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+  }
+
+  /**
+   * Checks if a directory is excluded.
+   *
+   * @param directory
+   *          the directory in the root directory.
+   * @return <code>true</code> if the directory matches one of the exclude patterns.
+   */
+  public boolean isExcluded(final Path directory) {
+    if (excludeMatchers.isEmpty()) {
+      return false;
+    }
+    Path relativePath = rootDirectory.relativize(directory);
+    Path name = directory.getFileName();
+    for (PathMatcher excludeMatcher : excludeMatchers) {
+      if (excludeMatcher.matches(relativePath)
+          || ((name != null) && excludeMatcher.matches(name))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the name of a file matches the regular expression.
+   *
+   * @param file
+   *          the file.
+   * @return <code>true</code> if the file name matches.
+   */
+  public boolean isMatching(final Path file) {
+    return fileNamePattern.matcher(file.getFileName().toString()).matches();
+  }
+
+  /**
+   * Searches the files.
+   *
+   * @return the matching files sorted by name, then by path.
+   */
+  public List<File> walk() {
+    List<File> files = parallelism > 1 ? walkInParallel() : walkSequentially();
+    Collections.sort(files, FILE_ORDER);
+    return files;
+  }
+
+  private List<File> walkInParallel() {
+    ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+    try {
+      return forkJoinPool.invoke(new DirectoryTask(rootDirectory,
+          readAttributes(rootDirectory).fileKey(), null));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to search files in [" + rootDirectory + "].", e);
+    } finally {
+      forkJoinPool.shutdownNow();
+    }
+  }
+
+  private List<File> walkSequentially() {
+    List<File> files = new ArrayList<File>();
+    try {
+      Files.walkFileTree(rootDirectory, EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+          Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir,
+                final BasicFileAttributes attrs) {
+              if (!dir.equals(rootDirectory) && isExcluded(dir)) {
+                return FileVisitResult.SKIP_SUBTREE;
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+              if (attrs.isRegularFile() && isMatching(file)) {
+                files.add(file.toFile());
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path file, final IOException exc)
+                throws IOException {
+              if (exc instanceof FileSystemLoopException) {
+                return FileVisitResult.CONTINUE;
+              }
+              throw exc;
+            }
+          });
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to search files in [" + rootDirectory + "].", e);
+    }
+    return files;
+  }
+
+}
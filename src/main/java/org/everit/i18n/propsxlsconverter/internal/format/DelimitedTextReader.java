@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.everit.i18n.propsxlsconverter.internal.workbook.CellRowParser;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Reads the translations from a UTF-8 text file with delimiter separated values (CSV or TSV) in the
+ * column layout of the workbook. The file is streamed, only the current record is kept in the
+ * memory. Quoted values may contain delimiters, doubled quotes and line breaks (RFC 4180). The
+ * records may end with LF or CRLF, the blank lines and a leading byte order mark are skipped.
+ */
+public class DelimitedTextReader implements TranslationReader {
+
+  private static final int BUFFER_SIZE = 65536;
+
+  private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+  private static final int EOF = -1;
+
+  private static final char QUOTE = '"';
+
+  private final char delimiter;
+
+  private final String fileName;
+
+  private final InputStream in;
+
+  /**
+   * Constructor.
+   *
+   * @param in
+   *          the stream to read or <code>null</code> to read the file. The stream is closed by the
+   *          reader.
+   * @param fileName
+   *          the name of the file to read.
+   * @param delimiter
+   *          the delimiter of the values.
+   */
+  public DelimitedTextReader(final InputStream in, final String fileName, final char delimiter) {
+    this.in = in;
+    this.fileName = fileName;
+    this.delimiter = delimiter;
+  }
+
+  private InputStream openInputStream() throws FileNotFoundException {
+    return in == null ? new FileInputStream(fileName) : in;
+  }
+
+  /**
+   * Reads a quoted value until its closing quote.
+   *
+   * @return the character after the closing quote.
+   */
+  private int readQuotedValue(final Reader reader, final StringBuilder value)
+      throws IOException {
+    int c = reader.read();
+    while (true) {
+      if (c == EOF) {
+        throw new RuntimeException("Unterminated quoted value in file [" + fileName + "].");
+      }
+      if (c == QUOTE) {
+        c = reader.read();
+        if (c != QUOTE) {
+          return c;
+        }
+      }
+      value.append((char) c);
+      c = reader.read();
+    }
+  }
+
+  private void readRecords(final Reader reader, final CellRowParser cellRowParser)
+      throws IOException {
+    List<String> values = new ArrayList<String>();
+    StringBuilder value = new StringBuilder();
+    boolean recordStarted = false;
+    int c = reader.read();
+    if (c == BYTE_ORDER_MARK) {
+      c = reader.read();
+    }
+    while (c != EOF) {
+      if ((c == QUOTE) && (value.length() == 0)) {
+        c = readQuotedValue(reader, value);
+        recordStarted = true;
+      } else if (c == delimiter) {
+        values.add(value.toString());
+        value.setLength(0);
+        recordStarted = true;
+        c = reader.read();
+      } else if ((c == '\n') || (c == '\r')) {
+        if (recordStarted) {
+          values.add(value.toString());
+          cellRowParser.processRow(values);
+          values.clear();
+          value.setLength(0);
+          recordStarted = false;
+        }
+        c = reader.read();
+      } else {
+        value.append((char) c);
+        recordStarted = true;
+        c = reader.read();
+      }
+    }
+    if (recordStarted) {
+      values.add(value.toString());
+      cellRowParser.processRow(values);
+    }
+  }
+
+  @Override
+  public void readRows(final WorkbookRowHandler handler, final int parallelism) {
+    try (Reader reader = new BufferedReader(new InputStreamReader(openInputStream(),
+        StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      readRecords(reader, new CellRowParser(fileName, handler));
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read file [" + fileName + "].", e);
+    }
+  }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+import org.everit.i18n.propsxlsconverter.internal.workbook.AbstractWorkbook;
+
+/**
+ * Writes the translations into a UTF-8 text file with delimiter separated values (CSV or TSV) in
+ * the column layout of the workbook. The rows are streamed into the file. The values that contain
+ * the delimiter, a quote or a line break are quoted and their quotes are doubled (RFC 4180).
+ */
+public class DelimitedTextWriter extends AbstractWorkbook implements TranslationWriter {
+
+  private static final int BUFFER_SIZE = 65536;
+
+  private static final char LINE_BREAK = '\n';
+
+  private static final char QUOTE = '"';
+
+  private final char delimiter;
+
+  private final Writer writer;
+
+  /**
+   * Constructor.
+   *
+   * @param out
+   *          the stream to write. The stream is closed by the writer.
+   * @param fileName
+   *          the name of the written file in the error messages.
+   * @param languages
+   *          the languages to be processed.
+   * @param delimiter
+   *          the delimiter of the values.
+   */
+  public DelimitedTextWriter(final OutputStream out, final String fileName,
+      final String[] languages, final char delimiter) {
+    super(fileName);
+    this.delimiter = delimiter;
+
+    int nextColumnNumber = COLUMN_DEFAULT_LANG + 1;
+    for (String lang : languages) {
+      langColumnNumber.put(lang, nextColumnNumber++);
+    }
+
+    try {
+      writer = new BufferedWriter(new OutputStreamWriter(out,
+          StandardCharsets.UTF_8), BUFFER_SIZE);
+      writeValue(HEADER_PROPERTIES_FILE_NAME, true);
+      writeValue(HEADER_PROPERTY_KEY, false);
+      writeValue(HEADER_DEFAULT_LANG, false);
+      for (String lang : languages) {
+        writeValue(lang, false);
+      }
+      writer.write(LINE_BREAK);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open file [" + fileName + "].", e);
+    }
+  }
+
+  @Override
+  public void abort() {
+    IOUtils.closeQuietly(writer);
+  }
+
+  @Override
+  public void finish() {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to save file [" + xlsFileName + "].", e);
+    }
+  }
+
+  private boolean isQuotingRequired(final String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if ((c == delimiter) || (c == QUOTE) || (c == LINE_BREAK) || (c == '\r')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void writeRow(final WorkbookRowDTO workbookRow) {
+    try {
+      writeValue(workbookRow.propertiesFile, true);
+      writeValue(workbookRow.propKey, false);
+      writeValue(workbookRow.defaultLangValue, false);
+      for (String lang : langColumnNumber.keySet()) {
+        writeValue(workbookRow.langValues.get(lang), false);
+      }
+      writer.write(LINE_BREAK);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write file [" + xlsFileName + "].", e);
+    }
+  }
+
+  @Override
+  public void writeTable(final TranslationTable table) {
+    String propertiesFile = table.getPropertiesFile();
+    int[] tableColumns = langColumnNumber.keySet().stream()
+        .mapToInt(table::getColumn)
+        .toArray();
+    try {
+      for (int row = 0; row < table.getRowCount(); row++) {
+        writeValue(propertiesFile, true);
+        writeValue(table.getKey(row), false);
+        writeValue(table.getValue(row, TranslationTable.DEFAULT_LANG_COLUMN), false);
+        for (int tableColumn : tableColumns) {
+          writeValue(tableColumn < 0 ? null : table.getValue(row, tableColumn), false);
+        }
+        writer.write(LINE_BREAK);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write file [" + xlsFileName + "].", e);
+    }
+  }
+
+  private void writeValue(final String value, final boolean first) throws IOException {
+    if (!first) {
+      writer.write(delimiter);
+    }
+    if ((value == null) || value.isEmpty()) {
+      return;
+    }
+    if (!isQuotingRequired(value)) {
+      writer.write(value);
+      return;
+    }
+    writer.write(QUOTE);
+    int start = 0;
+    int quoteIndex = value.indexOf(QUOTE);
+    while (quoteIndex >= 0) {
+      writer.write(value, start, quoteIndex + 1 - start);
+      writer.write(QUOTE);
+      start = quoteIndex + 1;
+      quoteIndex = value.indexOf(QUOTE, start);
+    }
+    writer.write(value, start, value.length() - start);
+    writer.write(QUOTE);
+  }
+
+}
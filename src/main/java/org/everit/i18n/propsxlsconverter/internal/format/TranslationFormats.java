@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import org.everit.i18n.propsxlsconverter.ExportOptions;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookReader;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookWriter;
+
+/**
+ * Selects the output format by the extension of the file name: <code>.csv</code> for comma
+ * separated values, <code>.tsv</code> for tab separated values, <code>.xlf</code> or
+ * <code>.xliff</code> for XLIFF 1.2 and XLS or XLSX workbook for the other extensions. The readers
+ * and the writers of a stream get a file name only to select the format and for the error
+ * messages.
+ */
+public final class TranslationFormats {
+
+  private static final char COMMA = ',';
+
+  private static final String CSV_EXTENSION = ".csv";
+
+  private static final char TAB = '\t';
+
+  private static final String TSV_EXTENSION = ".tsv";
+
+  private static final String XLF_EXTENSION = ".xlf";
+
+  private static final String XLIFF_EXTENSION = ".xliff";
+
+  /**
+   * Creates a reader for the format of a file.
+   *
+   * @param fileName
+   *          the name of the file to read.
+   * @return the reader.
+   */
+  public static TranslationReader createReader(final String fileName) {
+    return createReader(null, fileName);
+  }
+
+  /**
+   * Creates a reader of a stream.
+   *
+   * @param in
+   *          the stream to read or <code>null</code> to read the file. The stream is closed by the
+   *          reader.
+   * @param fileName
+   *          the name of the file that selects the format.
+   * @return the reader.
+   */
+  public static TranslationReader createReader(final InputStream in, final String fileName) {
+    String lowerCaseFileName = fileName.toLowerCase(Locale.ENGLISH);
+    if (lowerCaseFileName.endsWith(CSV_EXTENSION)) {
+      return new DelimitedTextReader(in, fileName, COMMA);
+    }
+    if (lowerCaseFileName.endsWith(TSV_EXTENSION)) {
+      return new DelimitedTextReader(in, fileName, TAB);
+    }
+    if (isXliff(lowerCaseFileName)) {
+      return new XliffReader(in, fileName);
+    }
+    return new WorkbookReader(in, fileName);
+  }
+
+  /**
+   * Creates a writer for the format of a file.
+   *
+   * @param fileName
+   *          the name of the file to write.
+   * @param languages
+   *          the languages of the export.
+   * @param exportOptions
+   *          the options of the export. The sharding and the shared strings table options are used
+   *          only by the workbook formats.
+   * @return the writer.
+   */
+  public static TranslationWriter createWriter(final String fileName, final String[] languages,
+      final ExportOptions exportOptions) {
+    return createWriter(openOutputStream(fileName), fileName, languages, exportOptions);
+  }
+
+  /**
+   * Creates a writer of a stream.
+   *
+   * @param out
+   *          the stream to write. The stream is closed by the writer.
+   * @param fileName
+   *          the name of the file that selects the format.
+   * @param languages
+   *          the languages of the export.
+   * @param exportOptions
+   *          the options of the export. The sharding and the shared strings table options are used
+   *          only by the workbook formats.
+   * @return the writer.
+   */
+  public static TranslationWriter createWriter(final OutputStream out, final String fileName,
+      final String[] languages, final ExportOptions exportOptions) {
+    String lowerCaseFileName = fileName.toLowerCase(Locale.ENGLISH);
+    if (lowerCaseFileName.endsWith(CSV_EXTENSION)) {
+      return new DelimitedTextWriter(out, fileName, languages, COMMA);
+    }
+    if (lowerCaseFileName.endsWith(TSV_EXTENSION)) {
+      return new DelimitedTextWriter(out, fileName, languages, TAB);
+    }
+    if (isXliff(lowerCaseFileName)) {
+      return new XliffWriter(out, fileName, languages);
+    }
+    return new WorkbookWriter(out, fileName, languages, exportOptions.sharedStringsTable,
+        exportOptions.maxRowsPerSheet, exportOptions.shardByDirectory);
+  }
+
+  private static boolean isXliff(final String lowerCaseFileName) {
+    return lowerCaseFileName.endsWith(XLF_EXTENSION)
+        || lowerCaseFileName.endsWith(XLIFF_EXTENSION);
+  }
+
+  private static OutputStream openOutputStream(final String fileName) {
+    try {
+      return new FileOutputStream(fileName);
+    } catch (FileNotFoundException e) {
+      throw new RuntimeException("Failed to open file [" + fileName + "].", e);
+    }
+  }
+
+  private TranslationFormats() {
+  }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Reads the translations from a file of an output format in streaming mode.
+ */
+public interface TranslationReader {
+
+  /**
+   * Reads the file and passes the header and the rows to the handler as soon as they are parsed.
+   *
+   * @param handler
+   *          the handler of the rows.
+   */
+  default void readRows(final WorkbookRowHandler handler) {
+    readRows(handler, 1);
+  }
+
+  /**
+   * Reads the file and passes the header and the rows to the handler. The header is passed only
+   * once. The handler is called on the calling thread, the rows of a properties file follow each
+   * other.
+   *
+   * @param handler
+   *          the handler of the rows.
+   * @param parallelism
+   *          the number of threads that may parse the file if the format supports it.
+   */
+  void readRows(WorkbookRowHandler handler, int parallelism);
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+
+/**
+ * Writes the translations into a file of an output format. The rows of a properties file are
+ * written after each other.
+ */
+public interface TranslationWriter {
+
+  /**
+   * Releases the resources of the writer after a failure without completing the file. Can be
+   * called after {@link #finish()} failed.
+   */
+  void abort();
+
+  /**
+   * Completes the file. Must be called after the last row.
+   */
+  void finish();
+
+  /**
+   * Writes a row.
+   *
+   * @param workbookRow
+   *          the values of the row.
+   */
+  void writeRow(WorkbookRowDTO workbookRow);
+
+  /**
+   * Writes the rows of a translation table.
+   *
+   * @param table
+   *          the translations of a bundle.
+   */
+  void writeTable(TranslationTable table);
+
+}
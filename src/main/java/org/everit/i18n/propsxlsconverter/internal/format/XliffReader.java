@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Reads the translations from an XLIFF 1.2 document like the ones written by {@link XliffWriter}.
+ * The consecutive <code>file</code> elements of the same bundle are merged into one row per key.
+ * The document is streamed, only the rows of the current bundle are kept in the memory.
+ *
+ * <p>
+ * The <code>trans-unit</code> elements are searched in the <code>body</code> and in the nested
+ * <code>group</code> elements. Other elements, for e.g. <code>header</code>, <code>note</code> and
+ * <code>alt-trans</code> are skipped. The inline elements of the <code>source</code> and
+ * <code>target</code> elements are flattened to their text content, except the placeholders
+ * without content (<code>x</code>, <code>bx</code>, <code>ex</code>) that cannot be converted back
+ * to a property value.
+ */
+public class XliffReader implements TranslationReader {
+
+  private static final int BUFFER_SIZE = 65536;
+
+  /**
+   * The inline elements that refer to an original code without containing it.
+   */
+  private static final Set<String> PLACEHOLDER_ELEMENTS =
+      new HashSet<>(Arrays.asList("bx", "ex", "x"));
+
+  /**
+   * The rows of the current bundle by key.
+   */
+  private final Map<String, WorkbookRowDTO> bundleRows = new LinkedHashMap<>();
+
+  private String bundlePropertiesFile;
+
+  private final String fileName;
+
+  private WorkbookRowHandler handler;
+
+  private final InputStream in;
+
+  /**
+   * The languages of the document. Known after the first bundle.
+   */
+  private final Set<String> languages = new LinkedHashSet<>();
+
+  private boolean languagesHandled;
+
+  /**
+   * Constructor.
+   *
+   * @param in
+   *          the stream to read or <code>null</code> to read the file. The stream is closed by the
+   *          reader.
+   * @param fileName
+   *          the name of the file to read.
+   */
+  public XliffReader(final InputStream in, final String fileName) {
+    this.in = in;
+    this.fileName = fileName;
+  }
+
+  private void flushBundle() {
+    if (bundlePropertiesFile == null) {
+      return;
+    }
+    if (!languagesHandled) {
+      languagesHandled = true;
+      handler.handleHeader(languages.toArray(new String[languages.size()]));
+    }
+    for (WorkbookRowDTO row : bundleRows.values()) {
+      for (String lang : languages) {
+        row.langValues.putIfAbsent(lang, "");
+      }
+      handler.handleRow(row);
+    }
+    bundleRows.clear();
+    bundlePropertiesFile = null;
+  }
+
+  private InputStream openInputStream() throws FileNotFoundException {
+    return in == null ? new FileInputStream(fileName) : in;
+  }
+
+  /**
+   * Reads the <code>trans-unit</code> elements of the current <code>file</code> element.
+   */
+  private void readFileContent(final XMLStreamReader reader, final String propertiesFile,
+      final String lang) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      } else if (event == XMLStreamConstants.START_ELEMENT) {
+        String elementName = reader.getLocalName();
+        if ("trans-unit".equals(elementName)) {
+          readTransUnit(reader, propertiesFile, lang);
+        } else if ("body".equals(elementName) || "group".equals(elementName)) {
+          depth++;
+        } else {
+          skipElement(reader);
+        }
+      }
+    }
+  }
+
+  private void readFileElement(final XMLStreamReader reader) throws XMLStreamException {
+    String original = reader.getAttributeValue(null, "original");
+    if (original == null) {
+      throw new RuntimeException(
+          "A file element has no original attribute in the file [" + fileName + "].");
+    }
+    String lang = reader.getAttributeValue(null, "target-language");
+    if (!original.equals(bundlePropertiesFile)) {
+      flushBundle();
+      bundlePropertiesFile = original;
+    }
+    if ((lang != null) && !languagesHandled) {
+      languages.add(lang);
+    } else if ((lang != null) && !languages.contains(lang)) {
+      throw new RuntimeException("The language [" + lang + "] of the bundle [" + original
+          + "] is missing from the previous bundles in the file [" + fileName + "].");
+    }
+    readFileContent(reader, original, lang);
+  }
+
+  private void readRows(final XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      if ((reader.next() == XMLStreamConstants.START_ELEMENT)
+          && "file".equals(reader.getLocalName())) {
+        readFileElement(reader);
+      }
+    }
+    flushBundle();
+  }
+
+  @Override
+  public void readRows(final WorkbookRowHandler workbookRowHandler, final int parallelism) {
+    handler = workbookRowHandler;
+    XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try (InputStream in = new BufferedInputStream(openInputStream(), BUFFER_SIZE)) {
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+      try {
+        readRows(reader);
+      } finally {
+        reader.close();
+      }
+    } catch (IOException | XMLStreamException e) {
+      throw new RuntimeException("Failed to read file [" + fileName + "].", e);
+    }
+  }
+
+  /**
+   * Reads the text of the current element. The inline elements are flattened to their text
+   * content.
+   */
+  private String readText(final XMLStreamReader reader, final String propertiesFile,
+      final String key) throws XMLStreamException {
+    StringBuilder text = new StringBuilder();
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      } else if (event == XMLStreamConstants.START_ELEMENT) {
+        if (PLACEHOLDER_ELEMENTS.contains(reader.getLocalName())) {
+          throw new RuntimeException("The trans-unit [" + key + "] of the bundle ["
+              + propertiesFile + "] contains the placeholder element [" + reader.getLocalName()
+              + "] that cannot be converted to a property value in the file [" + fileName
+              + "].");
+        }
+        depth++;
+      } else if (reader.isCharacters() || (event == XMLStreamConstants.CDATA)
+          || (event == XMLStreamConstants.SPACE)) {
+        text.append(reader.getText());
+      }
+    }
+    return text.toString();
+  }
+
+  private void readTransUnit(final XMLStreamReader reader, final String propertiesFile,
+      final String lang) throws XMLStreamException {
+    String key = reader.getAttributeValue(null, "id");
+    if (key == null) {
+      throw new RuntimeException("A trans-unit of the bundle [" + propertiesFile
+          + "] has no id attribute in the file [" + fileName + "].");
+    }
+    WorkbookRowDTO row = bundleRows.computeIfAbsent(key, k -> new WorkbookRowDTO()
+        .propertiesFile(propertiesFile)
+        .propKey(k)
+        .langValues(new HashMap<String, String>()));
+
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String elementName = reader.getLocalName();
+      if ("source".equals(elementName)) {
+        row.defaultLangValue = readText(reader, propertiesFile, key);
+      } else if ("target".equals(elementName) && (lang != null)) {
+        row.langValues.put(lang, readText(reader, propertiesFile, key));
+      } else {
+        skipElement(reader);
+      }
+    }
+  }
+
+  /**
+   * Skips the current element with its content.
+   */
+  private void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+}
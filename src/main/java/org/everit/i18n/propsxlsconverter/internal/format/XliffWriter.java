@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.io.IOUtils;
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+
+/**
+ * Writes the translations into an XLIFF 1.2 document. Every bundle gets a <code>file</code>
+ * element for each language, the source of the translation units is the value of the default
+ * language. The document is streamed, only the rows of the current bundle are kept in the memory.
+ */
+public class XliffWriter implements TranslationWriter {
+
+  public static final String DATATYPE = "javaproperties";
+
+  public static final String DEFAULT_SOURCE_LANGUAGE = "x-default";
+
+  public static final String NAMESPACE = "urn:oasis:names:tc:xliff:document:1.2";
+
+  public static final String VERSION = "1.2";
+
+  private static final int BUFFER_SIZE = 65536;
+
+  private static final String INDENT = "  ";
+
+  private static final String LINE_BREAK = "\n";
+
+  /**
+   * The rows of the bundle passed to {@link #writeRow(WorkbookRowDTO)} that are not written yet.
+   */
+  private TranslationTable bundleTable;
+
+  private final String fileName;
+
+  private final String[] languages;
+
+  private final OutputStream out;
+
+  private final XMLStreamWriter writer;
+
+  /**
+   * Constructor.
+   *
+   * @param out
+   *          the stream to write. The stream is closed by the writer.
+   * @param fileName
+   *          the name of the written file in the error messages.
+   * @param languages
+   *          the languages to be processed.
+   */
+  public XliffWriter(final OutputStream out, final String fileName, final String[] languages) {
+    this.fileName = fileName;
+    this.languages = languages.clone();
+    this.out = new BufferedOutputStream(out, BUFFER_SIZE);
+    try {
+      writer = XMLOutputFactory.newInstance()
+          .createXMLStreamWriter(this.out, StandardCharsets.UTF_8.name());
+      writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+      writer.writeCharacters(LINE_BREAK);
+      writer.writeStartElement("xliff");
+      writer.writeDefaultNamespace(NAMESPACE);
+      writer.writeAttribute("version", VERSION);
+    } catch (XMLStreamException e) {
+      throw new RuntimeException("Failed to open file [" + fileName + "].", e);
+    }
+  }
+
+  @Override
+  public void abort() {
+    IOUtils.closeQuietly(out);
+  }
+
+  @Override
+  public void finish() {
+    try {
+      flushBundle();
+      writeIndent(0);
+      writer.writeEndElement();
+      writer.writeCharacters(LINE_BREAK);
+      writer.writeEndDocument();
+      writer.close();
+      out.close();
+    } catch (IOException | XMLStreamException e) {
+      throw new RuntimeException("Failed to save file [" + fileName + "].", e);
+    }
+  }
+
+  private void flushBundle() {
+    if (bundleTable != null) {
+      TranslationTable table = bundleTable;
+      bundleTable = null;
+      writeTable(table);
+    }
+  }
+
+  private void writeFile(final TranslationTable table, final String lang)
+      throws XMLStreamException {
+    int column = lang == null ? -1 : table.getColumn(lang);
+    writeIndent(1);
+    writer.writeStartElement("file");
+    writer.writeAttribute("original", table.getPropertiesFile());
+    writer.writeAttribute("source-language", DEFAULT_SOURCE_LANGUAGE);
+    if (lang != null) {
+      writer.writeAttribute("target-language", lang);
+    }
+    writer.writeAttribute("datatype", DATATYPE);
+    writeIndent(2);
+    writer.writeStartElement("body");
+    for (int row = 0; row < table.getRowCount(); row++) {
+      String source = table.getValue(row, TranslationTable.DEFAULT_LANG_COLUMN);
+      writeIndent(2 + 1);
+      writer.writeStartElement("trans-unit");
+      writer.writeAttribute("id", table.getKey(row));
+      writer.writeAttribute("xml", "http://www.w3.org/XML/1998/namespace", "space", "preserve");
+      writer.writeStartElement("source");
+      writeText(source == null ? "" : source);
+      writer.writeEndElement();
+      String target = column < 0 ? null : table.getValue(row, column);
+      if (target != null) {
+        writer.writeStartElement("target");
+        writeText(target);
+        writer.writeEndElement();
+      }
+      writer.writeEndElement();
+    }
+    writeIndent(2);
+    writer.writeEndElement();
+    writeIndent(1);
+    writer.writeEndElement();
+  }
+
+  private void writeIndent(final int depth) throws XMLStreamException {
+    writer.writeCharacters(LINE_BREAK);
+    for (int i = 0; i < depth; i++) {
+      writer.writeCharacters(INDENT);
+    }
+  }
+
+  /**
+   * Writes a text with the carriage returns as character references, because the XML parsers
+   * normalize the raw line breaks.
+   */
+  private void writeText(final String text) throws XMLStreamException {
+    int start = 0;
+    int carriageReturnIndex = text.indexOf('\r');
+    while (carriageReturnIndex >= 0) {
+      writer.writeCharacters(text.substring(start, carriageReturnIndex));
+      writer.writeEntityRef("#13");
+      start = carriageReturnIndex + 1;
+      carriageReturnIndex = text.indexOf('\r', start);
+    }
+    writer.writeCharacters(text.substring(start));
+  }
+
+  /**
+   * Buffers the row until the last row of its bundle is received.
+   */
+  @Override
+  public void writeRow(final WorkbookRowDTO workbookRow) {
+    if ((bundleTable != null)
+        && !bundleTable.getPropertiesFile().equals(workbookRow.propertiesFile)) {
+      flushBundle();
+    }
+    if (bundleTable == null) {
+      bundleTable = new TranslationTable(workbookRow.propertiesFile, languages);
+    }
+    bundleTable.put(workbookRow.propKey, TranslationTable.DEFAULT_LANG_COLUMN,
+        workbookRow.defaultLangValue);
+    for (String lang : languages) {
+      bundleTable.put(workbookRow.propKey, bundleTable.getColumn(lang),
+          workbookRow.langValues.get(lang));
+    }
+  }
+
+  @Override
+  public void writeTable(final TranslationTable table) {
+    flushBundle();
+    try {
+      if (languages.length == 0) {
+        writeFile(table, null);
+      }
+      for (String lang : languages) {
+        writeFile(table, lang);
+      }
+    } catch (XMLStreamException e) {
+      throw new RuntimeException("Failed to write file [" + fileName + "].", e);
+    }
+  }
+
+}
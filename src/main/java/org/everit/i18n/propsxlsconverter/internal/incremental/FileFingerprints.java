@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.incremental;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.FileFingerprintDTO;
+
+/**
+ * The fingerprints (size, last modification time and content hash) of the properties files of an
+ * export. The fingerprints are stored next to the workbook, so the next incremental export can
+ * find the changed bundles.
+ */
+public class FileFingerprints {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final String FINGERPRINTS_FILE_SUFFIX = ".fingerprints";
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final int INDEX_FILE_ACCESS = 1;
+
+  private static final int INDEX_HASH = 5;
+
+  private static final int INDEX_LAST_MODIFIED = 4;
+
+  private static final int INDEX_PATH = 2;
+
+  private static final int INDEX_RECORDED = 6;
+
+  private static final int INDEX_SIZE = 3;
+
+  private static final String LINE_FILE = "file";
+
+  private static final String LINE_LANGUAGES = "languages";
+
+  private static final int NIBBLE_MASK = 0xF;
+
+  private static final int NIBBLE_SIZE = 4;
+
+  /**
+   * The hash of the files that were modified in this interval before their fingerprint was
+   * calculated is not reused, because the resolution of the last modification time is one or two
+   * seconds on some file systems.
+   */
+  private static final long RACY_INTERVAL_MILLIS = 2000;
+
+  private static final String SEPARATOR = "\t";
+
+  /**
+   * Map key is the file access of the default language file of the bundle, value is the content
+   * hashes of the files of the bundle by path.
+   */
+  private final Map<String, Map<String, String>> bundleHashes = new HashMap<>();
+
+  /**
+   * Map key is the path of the file relative to the working directory.
+   */
+  private final Map<String, FileFingerprintDTO> fingerprints = new TreeMap<>();
+
+  private final String[] languages;
+
+  /**
+   * Constructor.
+   *
+   * @param languages
+   *          the languages of the export.
+   */
+  public FileFingerprints(final String[] languages) {
+    this.languages = languages.clone();
+  }
+
+  /**
+   * Calculates the fingerprint of a file. The content hash is taken from the previous fingerprint
+   * if the size and the last modification time of the file did not change and the file was not
+   * modified shortly before the previous fingerprint was calculated.
+   *
+   * @param file
+   *          the file.
+   * @param fileAccess
+   *          the file access of the default language file of the bundle of the file.
+   * @param previous
+   *          the previous fingerprint of the file or <code>null</code>.
+   * @return the fingerprint.
+   */
+  public static FileFingerprintDTO calculateFingerprint(final File file, final String fileAccess,
+      final FileFingerprintDTO previous) {
+    long recorded = System.currentTimeMillis();
+    long size = file.length();
+    long lastModified = file.lastModified();
+    String hash = ((previous != null) && (previous.size == size)
+        && (previous.lastModified == lastModified)
+        && (previous.lastModified <= (previous.recorded - RACY_INTERVAL_MILLIS)))
+            ? previous.hash
+            : calculateHash(file);
+    return new FileFingerprintDTO()
+        .fileAccess(fileAccess)
+        .size(size)
+        .lastModified(lastModified)
+        .recorded(recorded)
+        .hash(hash);
+  }
+
+  private static String calculateHash(final File file) {
+    try (InputStream in = new FileInputStream(file)) {
+      MessageDigest messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+        messageDigest.update(buffer, 0, read);
+      }
+      return toHex(messageDigest.digest());
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to calculate the hash of file [" + file + "].", e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Gets the file that stores the fingerprints of a workbook.
+   *
+   * @param xlsFileName
+   *          the file name of the workbook.
+   * @return the fingerprints file.
+   */
+  public static File getFingerprintsFile(final String xlsFileName) {
+    return new File(xlsFileName + FINGERPRINTS_FILE_SUFFIX);
+  }
+
+  /**
+   * Loads the fingerprints from a file.
+   *
+   * @param fingerprintsFile
+   *          the file that was written by {@link #store(File)}.
+   * @return the fingerprints or <code>null</code> if the file does not exist.
+   */
+  public static FileFingerprints load(final File fingerprintsFile) {
+    if (!fingerprintsFile.isFile()) {
+      return null;
+    }
+    try (BufferedReader br = Files.newBufferedReader(fingerprintsFile.toPath(),
+        StandardCharsets.UTF_8)) {
+      FileFingerprints result = null;
+      String line = null;
+      while ((line = br.readLine()) != null) {
+        String[] fields = line.split(SEPARATOR, -1);
+        if (LINE_LANGUAGES.equals(fields[0])) {
+          result = new FileFingerprints(
+              fields[1].isEmpty() ? new String[0] : fields[1].split(","));
+        } else if (LINE_FILE.equals(fields[0]) && (result != null)) {
+          result.put(fields[INDEX_PATH], parseFingerprint(fields));
+        }
+      }
+      return result;
+    } catch (IOException | RuntimeException e) {
+      throw new RuntimeException("Failed to load fingerprints file [" + fingerprintsFile + "].",
+          e);
+    }
+  }
+
+  /**
+   * Parses a fingerprint line. The fingerprints of the older files have no recording time, they
+   * are handled as if they were recorded at the last modification, so their hash is not reused.
+   */
+  private static FileFingerprintDTO parseFingerprint(final String[] fields) {
+    long lastModified = Long.parseLong(fields[INDEX_LAST_MODIFIED]);
+    return new FileFingerprintDTO()
+        .fileAccess(fields[INDEX_FILE_ACCESS])
+        .size(Long.parseLong(fields[INDEX_SIZE]))
+        .lastModified(lastModified)
+        .hash(fields[INDEX_HASH])
+        .recorded(fields.length > INDEX_RECORDED
+            ? Long.parseLong(fields[INDEX_RECORDED])
+            : lastModified);
+  }
+
+  private static String toHex(final byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[i * 2] = HEX_DIGITS[(bytes[i] >> NIBBLE_SIZE) & NIBBLE_MASK];
+      chars[(i * 2) + 1] = HEX_DIGITS[bytes[i] & NIBBLE_MASK];
+    }
+    return new String(chars);
+  }
+
+  public FileFingerprintDTO get(final String path) {
+    return fingerprints.get(path);
+  }
+
+  /**
+   * Checks whether a bundle has the same files with the same content as in the previous
+   * fingerprints.
+   *
+   * @param fileAccess
+   *          the file access of the default language file of the bundle.
+   * @param previous
+   *          the previous fingerprints.
+   * @return <code>true</code> if the bundle did not change.
+   */
+  public boolean isBundleUnchanged(final String fileAccess, final FileFingerprints previous) {
+    return Arrays.equals(languages, previous.languages)
+        && Objects.equals(bundleHashes.get(fileAccess), previous.bundleHashes.get(fileAccess));
+  }
+
+  /**
+   * Adds the fingerprint of a file.
+   *
+   * @param path
+   *          the path of the file relative to the working directory.
+   * @param fingerprint
+   *          the fingerprint of the file.
+   */
+  public void put(final String path, final FileFingerprintDTO fingerprint) {
+    fingerprints.put(path, fingerprint);
+    bundleHashes.computeIfAbsent(fingerprint.fileAccess, (key) -> new HashMap<>())
+        .put(path, fingerprint.hash);
+  }
+
+  /**
+   * Stores the fingerprints into a file.
+   *
+   * @param fingerprintsFile
+   *          the target file.
+   */
+  public void store(final File fingerprintsFile) {
+    try (BufferedWriter bw = Files.newBufferedWriter(fingerprintsFile.toPath(),
+        StandardCharsets.UTF_8)) {
+      bw.write(LINE_LANGUAGES + SEPARATOR + String.join(",", languages) + "\n");
+      for (Map.Entry<String, FileFingerprintDTO> entry : fingerprints.entrySet()) {
+        FileFingerprintDTO fingerprint = entry.getValue();
+        bw.write(LINE_FILE + SEPARATOR + fingerprint.fileAccess + SEPARATOR + entry.getKey()
+            + SEPARATOR + fingerprint.size + SEPARATOR + fingerprint.lastModified + SEPARATOR
+            + fingerprint.hash + SEPARATOR + fingerprint.recorded + "\n");
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to save fingerprints file [" + fingerprintsFile + "].",
+          e);
+    }
+  }
+
+}
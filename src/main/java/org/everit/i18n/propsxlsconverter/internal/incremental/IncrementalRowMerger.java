@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.incremental;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Merges the rows of the previous workbook with the bundles of the current export. The rows of
+ * the unchanged bundles are copied from the previous workbook while it is streamed, the other
+ * bundles are read from the properties files. The bundles are written in the order of the current
+ * export.
+ */
+public class IncrementalRowMerger implements WorkbookRowHandler {
+
+  private final BiConsumer<String, List<File>> bundleExporter;
+
+  private final Iterator<Entry<String, List<File>>> bundleIterator;
+
+  private boolean copyingPrevBundle = false;
+
+  private final Set<String> exportedBundles = new HashSet<>();
+
+  private final String[] languages;
+
+  private String prevBundle = null;
+
+  private boolean prevWorkbookCompatible = false;
+
+  private final Consumer<WorkbookRowDTO> rowWriter;
+
+  private final Set<String> unchangedBundles;
+
+  /**
+   * Constructor.
+   *
+   * @param bundles
+   *          the bundles of the current export in the order of the export. Map key is the file
+   *          access of the default language file.
+   * @param unchangedBundles
+   *          the file accesses of the bundles that did not change since the previous export.
+   * @param languages
+   *          the languages of the current export.
+   * @param bundleExporter
+   *          reads a bundle from the properties files and writes its rows.
+   * @param rowWriter
+   *          writes a row copied from the previous workbook.
+   */
+  public IncrementalRowMerger(final Map<String, List<File>> bundles,
+      final Set<String> unchangedBundles, final String[] languages,
+      final BiConsumer<String, List<File>> bundleExporter,
+      final Consumer<WorkbookRowDTO> rowWriter) {
+    bundleIterator = bundles.entrySet().iterator();
+    this.unchangedBundles = unchangedBundles;
+    this.languages = languages.clone();
+    this.bundleExporter = bundleExporter;
+    this.rowWriter = rowWriter;
+  }
+
+  /**
+   * Exports the bundles until the given one.
+   *
+   * @return <code>true</code> if the bundle was found.
+   */
+  private boolean exportBundlesUntil(final String fileAccess) {
+    while (bundleIterator.hasNext()) {
+      Entry<String, List<File>> bundle = bundleIterator.next();
+      exportedBundles.add(bundle.getKey());
+      if (bundle.getKey().equals(fileAccess)) {
+        return true;
+      }
+      bundleExporter.accept(bundle.getKey(), bundle.getValue());
+    }
+    return false;
+  }
+
+  /**
+   * Exports the bundles that are not exported yet. Must be called after the previous workbook is
+   * processed.
+   */
+  public void finish() {
+    exportBundlesUntil(null);
+  }
+
+  @Override
+  public void handleHeader(final String[] prevLanguages) {
+    prevWorkbookCompatible = Arrays.equals(languages, prevLanguages);
+  }
+
+  @Override
+  public void handleRow(final WorkbookRowDTO row) {
+    if (!prevWorkbookCompatible) {
+      return;
+    }
+    if (!row.propertiesFile.equals(prevBundle)) {
+      prevBundle = row.propertiesFile;
+      copyingPrevBundle = unchangedBundles.contains(prevBundle)
+          && !exportedBundles.contains(prevBundle)
+          && exportBundlesUntil(prevBundle);
+    }
+    if (copyingPrevBundle) {
+      rowWriter.accept(row);
+    }
+  }
+
+}
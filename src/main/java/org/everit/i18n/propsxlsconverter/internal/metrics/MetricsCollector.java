@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.everit.i18n.propsxlsconverter.ConversionListener;
+import org.everit.i18n.propsxlsconverter.ConversionMetrics;
+import org.everit.i18n.propsxlsconverter.ConversionPhase;
+
+/**
+ * Collects the metrics of a conversion and passes them to the {@link ConversionListener}. Can be
+ * used from several threads at the same time.
+ */
+public class MetricsCollector {
+
+  private static final ConversionListener NO_LISTENER = new ConversionListener() {
+  };
+
+  private final LongAdder bytesProcessed = new LongAdder();
+
+  private final LongAdder filesProcessed = new LongAdder();
+
+  private final ConversionListener listener;
+
+  private final Map<ConversionPhase, LongAdder> phaseNanos =
+      new EnumMap<>(ConversionPhase.class);
+
+  private final LongAdder rowsProcessed = new LongAdder();
+
+  private final long startNanos = System.nanoTime();
+
+  /**
+   * Constructor.
+   *
+   * @param listener
+   *          the listener of the conversion or <code>null</code>.
+   */
+  public MetricsCollector(final ConversionListener listener) {
+    this.listener = listener != null ? listener : NO_LISTENER;
+    for (ConversionPhase phase : ConversionPhase.values()) {
+      phaseNanos.put(phase, new LongAdder());
+    }
+  }
+
+  /**
+   * Adds time to a phase.
+   *
+   * @param phase
+   *          the phase.
+   * @param nanos
+   *          the time to add.
+   */
+  public void addPhaseNanos(final ConversionPhase phase, final long nanos) {
+    phaseNanos.get(phase).add(nanos);
+  }
+
+  /**
+   * Notifies the listener about the total time of a phase.
+   *
+   * @param phase
+   *          the completed phase.
+   */
+  public void completePhase(final ConversionPhase phase) {
+    listener.phaseCompleted(phase, phaseNanos.get(phase).sum());
+  }
+
+  /**
+   * Records a processed properties file.
+   *
+   * @param path
+   *          the path of the file.
+   * @param bytes
+   *          the size of the file.
+   */
+  public void fileProcessed(final String path, final long bytes) {
+    filesProcessed.increment();
+    bytesProcessed.add(bytes);
+    listener.fileProcessed(path, bytes);
+  }
+
+  /**
+   * Finishes the conversion and passes the metrics to the listener. The phases without time are
+   * left out from the metrics.
+   *
+   * @return the metrics of the conversion.
+   */
+  public ConversionMetrics finish() {
+    Map<ConversionPhase, Long> phases = new EnumMap<>(ConversionPhase.class);
+    phaseNanos.forEach((phase, nanos) -> {
+      if (nanos.sum() > 0) {
+        phases.put(phase, nanos.sum());
+      }
+    });
+    ConversionMetrics metrics = new ConversionMetrics()
+        .durationNanos(System.nanoTime() - startNanos)
+        .filesProcessed(filesProcessed.sum())
+        .rowsProcessed(rowsProcessed.sum())
+        .bytesProcessed(bytesProcessed.sum())
+        .phaseNanos(phases);
+    listener.finished(metrics);
+    return metrics;
+  }
+
+  /**
+   * Records processed workbook rows.
+   *
+   * @param rows
+   *          the number of rows.
+   */
+  public void rowsProcessed(final long rows) {
+    rowsProcessed.add(rows);
+  }
+
+  /**
+   * Runs an action and adds its time to a phase.
+   *
+   * @param phase
+   *          the phase.
+   * @param action
+   *          the action.
+   */
+  public void time(final ConversionPhase phase, final Runnable action) {
+    long start = System.nanoTime();
+    try {
+      action.run();
+    } finally {
+      addPhaseNanos(phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Runs an action and adds its time to a phase.
+   *
+   * @param phase
+   *          the phase.
+   * @param action
+   *          the action.
+   * @param <T>
+   *          the type of the result.
+   * @return the result of the action.
+   */
+  public <T> T timeAndGet(final ConversionPhase phase, final Supplier<T> action) {
+    long start = System.nanoTime();
+    try {
+      return action.get();
+    } finally {
+      addPhaseNanos(phase, System.nanoTime() - start);
+    }
+  }
+
+}
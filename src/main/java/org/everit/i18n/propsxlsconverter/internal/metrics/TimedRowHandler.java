@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.metrics;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Counts the rows passed to a {@link WorkbookRowHandler} and measures the time spent in it, so the
+ * time of the workbook reading can be separated from the time of the row processing.
+ */
+public class TimedRowHandler implements WorkbookRowHandler {
+
+  private final WorkbookRowHandler delegate;
+
+  private long handlerNanos = 0;
+
+  private final MetricsCollector metricsCollector;
+
+  /**
+   * Constructor.
+   *
+   * @param delegate
+   *          the handler that processes the rows.
+   * @param metricsCollector
+   *          receives the number of rows.
+   */
+  public TimedRowHandler(final WorkbookRowHandler delegate,
+      final MetricsCollector metricsCollector) {
+    this.delegate = delegate;
+    this.metricsCollector = metricsCollector;
+  }
+
+  public long getHandlerNanos() {
+    return handlerNanos;
+  }
+
+  @Override
+  public void handleHeader(final String[] languages) {
+    long start = System.nanoTime();
+    delegate.handleHeader(languages);
+    handlerNanos += System.nanoTime() - start;
+  }
+
+  @Override
+  public void handleRow(final WorkbookRowDTO row) {
+    long start = System.nanoTime();
+    delegate.handleRow(row);
+    handlerNanos += System.nanoTime() - start;
+    metricsCollector.rowsProcessed(1);
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.everit.i18n.propsxlsconverter.internal.metrics.MetricsCollector;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+
+/**
+ * Base class of the row handlers that write the rows of the workbook into the properties files.
+ * Calculates the names of the language files and counts the written and the skipped files.
+ */
+public abstract class AbstractPropertiesImporter implements WorkbookRowHandler, AutoCloseable {
+
+  /**
+   * The suffix of the temporary files that replace the language files when they are complete. It
+   * is not <code>.properties</code>, so the temporary files are not exported.
+   */
+  protected static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private static final String UNDERLINE = "_";
+
+  protected final AtomicInteger filesSkipped = new AtomicInteger();
+
+  protected final AtomicInteger filesWritten = new AtomicInteger();
+
+  protected final MetricsCollector metricsCollector;
+
+  protected final String workingDirectory;
+
+  /**
+   * Constructor.
+   *
+   * @param workingDirectory
+   *          the directory where the properties files are written.
+   * @param metricsCollector
+   *          receives the time of the file writing and the written files.
+   */
+  public AbstractPropertiesImporter(final String workingDirectory,
+      final MetricsCollector metricsCollector) {
+    this.workingDirectory = workingDirectory;
+    this.metricsCollector = metricsCollector;
+  }
+
+  private String calculateLangFileName(final String fileAccess, final String lang,
+      final int lastIndexOfFolderSeparator) {
+    String fileName = lastIndexOfFolderSeparator > -1
+        ? fileAccess.substring(lastIndexOfFolderSeparator)
+        : fileAccess;
+    int lastDotIndex = fileName.lastIndexOf(".");
+    return fileName.substring(0, lastDotIndex) + UNDERLINE + lang
+        + fileName.substring(lastDotIndex);
+  }
+
+  @Override
+  public void close() {
+  }
+
+  /**
+   * Writes the files of the last properties file and waits until all files are written. Must be
+   * called after the last row.
+   */
+  public abstract void finish();
+
+  public int getFilesSkipped() {
+    return filesSkipped.get();
+  }
+
+  public int getFilesWritten() {
+    return filesWritten.get();
+  }
+
+  /**
+   * Gets a language file of a properties file and creates its directories.
+   *
+   * @param fileAccess
+   *          the file access of the default language file.
+   * @param lang
+   *          the language or an empty string for the default language.
+   * @return the language file.
+   */
+  protected File getLangFile(final String fileAccess, final String lang) {
+    int lastIndexOfFolderSeparator = getLastIndexOfFolderSeparator(fileAccess);
+    String pathWithoutFileName = getPathWithoutFileName(fileAccess, lastIndexOfFolderSeparator);
+    makeDirectories(workingDirectory, pathWithoutFileName);
+
+    if ("".equals(lang)) {
+      return new File(workingDirectory, fileAccess);
+    }
+    return new File(workingDirectory, pathWithoutFileName
+        + calculateLangFileName(fileAccess, lang, lastIndexOfFolderSeparator));
+  }
+
+  private int getLastIndexOfFolderSeparator(final String fileAccess) {
+    int lastIndexOf = fileAccess.lastIndexOf("/");
+    if (lastIndexOf == -1) {
+      lastIndexOf = fileAccess.lastIndexOf("\\");
+    }
+    return lastIndexOf;
+  }
+
+  private String getPathWithoutFileName(final String fileAccess,
+      final int lastIndexOfFolderSeparator) {
+    if (lastIndexOfFolderSeparator > -1) {
+      return fileAccess.substring(0, lastIndexOfFolderSeparator);
+    }
+    return "";
+  }
+
+  private void makeDirectories(final String workingDirectory, final String pathWithoutFileName) {
+    File file = new File(workingDirectory, pathWithoutFileName);
+    if (!file.mkdirs() && !file.isDirectory()) {
+      throw new RuntimeException("Cannot create directories.");
+    }
+  }
+
+}
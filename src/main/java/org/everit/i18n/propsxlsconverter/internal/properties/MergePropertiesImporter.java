@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.everit.i18n.propsxlsconverter.ConversionPhase;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.BoundedExecutor;
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.metrics.MetricsCollector;
+import org.everit.i18n.propsxlsconverter.internal.util.TempFiles;
+
+/**
+ * Merges the rows of the workbook into the existing properties files. Collects the rows that
+ * belong to the same properties file and patches the language files of that properties file when
+ * the rows of the next properties file arrive. Only the rows of the properties files that are
+ * being written are kept in the memory.
+ */
+public class MergePropertiesImporter extends AbstractPropertiesImporter {
+
+  private Map<String, Properties> langProperties;
+
+  private String[] languages;
+
+  private String prevPropertiesFile = null;
+
+  private ArrayList<String> propKeySequence = new ArrayList<String>();
+
+  private final BoundedExecutor writerExecutor;
+
+  /**
+   * Constructor.
+   *
+   * @param workingDirectory
+   *          the directory where the properties files are written.
+   * @param parallelism
+   *          the maximum number of properties files that are written at the same time.
+   * @param metricsCollector
+   *          receives the time of the file writing and the written files.
+   */
+  public MergePropertiesImporter(final String workingDirectory, final int parallelism,
+      final MetricsCollector metricsCollector) {
+    super(workingDirectory, metricsCollector);
+    writerExecutor = new BoundedExecutor(parallelism);
+  }
+
+  @Override
+  public void close() {
+    writerExecutor.close();
+  }
+
+  @Override
+  public void finish() {
+    if (prevPropertiesFile != null) {
+      submitPropertiesFile();
+    }
+    writerExecutor.awaitCompletion();
+  }
+
+  @Override
+  public void handleHeader(final String[] languages) {
+    this.languages = languages;
+    langProperties = newLangProperties();
+  }
+
+  @Override
+  public void handleRow(final WorkbookRowDTO nextRow) {
+    if (prevPropertiesFile == null) {
+      prevPropertiesFile = nextRow.propertiesFile;
+    }
+
+    if (!prevPropertiesFile.equals(nextRow.propertiesFile)) {
+      submitPropertiesFile();
+      prevPropertiesFile = nextRow.propertiesFile;
+    }
+
+    langProperties.get("").setProperty(nextRow.propKey, normalize(nextRow.defaultLangValue));
+    for (String lang : languages) {
+      langProperties.get(lang).setProperty(nextRow.propKey,
+          normalize(nextRow.langValues.get(lang)));
+    }
+    propKeySequence.add(nextRow.propKey);
+  }
+
+  /**
+   * The absent cells are handled as the empty ones, so they do not change the existing values.
+   */
+  private String normalize(final String value) {
+    return value == null ? "" : value;
+  }
+
+  private Map<String, Properties> newLangProperties() {
+    Map<String, Properties> result = new HashMap<String, Properties>();
+    result.put("", new Properties());
+    for (String lang : languages) {
+      result.put(lang, new Properties());
+    }
+    return result;
+  }
+
+  /**
+   * Passes the collected rows of the previous properties file to a writer and starts collecting
+   * the rows of the next file.
+   */
+  private void submitPropertiesFile() {
+    Map<String, Properties> fileLangProperties = langProperties;
+    String fileAccess = prevPropertiesFile;
+    ArrayList<String> filePropKeySequence = propKeySequence;
+
+    writerExecutor.execute(() -> writePropertiesToFiles(fileLangProperties, fileAccess,
+        filePropKeySequence));
+
+    langProperties = newLangProperties();
+    propKeySequence = new ArrayList<String>();
+  }
+
+  /**
+   * Patches a language file. The file is not written if nothing changed.
+   */
+  private void writeLangFile(final File langFile, final boolean defaultLang,
+      final Properties properties, final List<String> propKeys) throws IOException {
+    byte[] existingContent = langFile.isFile()
+        ? Files.readAllBytes(langFile.toPath())
+        : null;
+    byte[] content =
+        new PropertiesPatcher(properties, propKeys, defaultLang).patch(existingContent);
+    if (content == null) {
+      return;
+    }
+
+    if (content == existingContent) {
+      filesSkipped.incrementAndGet();
+    } else {
+      Path tempFile = TempFiles.createTempFile(langFile, TEMP_FILE_SUFFIX);
+      try {
+        Files.write(tempFile, content);
+        TempFiles.replace(tempFile, langFile);
+      } catch (IOException | RuntimeException e) {
+        TempFiles.deleteQuietly(tempFile);
+        throw e;
+      }
+      filesWritten.incrementAndGet();
+    }
+    metricsCollector.fileProcessed(langFile.getPath(), content.length);
+  }
+
+  private void writePropertiesToFiles(final Map<String, Properties> langProperties,
+      final String fileAccess, final ArrayList<String> propKeySequence) {
+
+    langProperties.forEach((lang, properties) -> {
+      File langFile = getLangFile(fileAccess, lang);
+
+      long startNanos = System.nanoTime();
+      try {
+        writeLangFile(langFile, "".equals(lang), properties, propKeySequence);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to save file [" + langFile + "]", e);
+      }
+      metricsCollector.addPhaseNanos(ConversionPhase.WRITE, System.nanoTime() - startNanos);
+    });
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.everit.i18n.propsxlsconverter.internal.files.LanguageSuffixResolver;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+import org.everit.i18n.propsxlsconverter.internal.util.StringPool;
+
+/**
+ * Reads the language files of a bundle into a translation table. A bundle is a default language
+ * properties file and its language files.
+ */
+public class PropertiesBundleReader {
+
+  private final String[] languages;
+
+  private final LanguageSuffixResolver languageSuffixResolver;
+
+  /**
+   * Deduplicates the values, because many translations are repeated across the bundles. Can be
+   * <code>null</code>.
+   */
+  private final StringPool valuePool;
+
+  /**
+   * Constructor that deduplicates the values with a {@link StringPool}.
+   *
+   * @param languages
+   *          the languages of the export.
+   */
+  public PropertiesBundleReader(final String[] languages) {
+    this(languages, new StringPool());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param languages
+   *          the languages of the export.
+   * @param valuePool
+   *          the pool that deduplicates the values or <code>null</code> if every value is kept
+   *          as it is parsed.
+   */
+  public PropertiesBundleReader(final String[] languages, final StringPool valuePool) {
+    this.languages = languages.clone();
+    this.valuePool = valuePool;
+    languageSuffixResolver = new LanguageSuffixResolver(languages);
+  }
+
+  /**
+   * Gets the column of the language of a file.
+   *
+   * @param fileName
+   *          the file name.
+   * @return the column of the language (hu, de_CH) or of the default language.
+   */
+  private int getColumn(final String fileName) {
+    int languageIndex = languageSuffixResolver.resolveLanguage(fileName);
+    if (languageIndex == LanguageSuffixResolver.DEFAULT_LANGUAGE) {
+      return TranslationTable.DEFAULT_LANG_COLUMN;
+    }
+    return languageIndex + 1;
+  }
+
+  public String[] getLanguages() {
+    return languages.clone();
+  }
+
+  /**
+   * Reads the properties files of a bundle. Can be called from several threads at the same time.
+   *
+   * @param fileAccess
+   *          the file access of the default language file of the bundle.
+   * @param bundleFiles
+   *          the language files of the bundle, the default language file first.
+   * @return the translations of the bundle, the rows in the order of the first occurrence of their
+   *         keys and the columns in the order of the languages.
+   */
+  public TranslationTable readBundle(final String fileAccess, final List<File> bundleFiles) {
+    TranslationTable table = new TranslationTable(fileAccess, languages);
+    PropertiesParser propertiesParser = new PropertiesParser();
+    for (File file : bundleFiles) {
+      int column = getColumn(file.getName());
+
+      try {
+        propertiesParser.parse(file.toPath(),
+            (propKey, propValue) -> table.put(propKey, column,
+                valuePool == null ? propValue : valuePool.intern(propValue)));
+      } catch (IOException e) {
+        throw new RuntimeException("Has problem with IO when try to load/process properties "
+            + "files.", e);
+      }
+    }
+    return table;
+  }
+}
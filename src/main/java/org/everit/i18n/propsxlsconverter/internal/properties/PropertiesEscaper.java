@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
+/**
+ * Escapes the keys and the values of the properties, so {@link PropertiesParser} reads back the
+ * same keys and values. Shared by the importers, so the merged and the regenerated files are
+ * escaped the same way.
+ */
+final class PropertiesEscaper {
+
+  /**
+   * The characters that follow the backslash in the escaped form of {@link #KEY_SPECIAL_CHARS}.
+   */
+  private static final String KEY_ESCAPE_CHARS = "tnrf=: #!\\";
+
+  /**
+   * The characters of the keys that are escaped.
+   */
+  private static final String KEY_SPECIAL_CHARS = "\t\n\r\f=: #!\\";
+
+  /**
+   * Escapes a key. The separators, the whitespace, the comment characters and the backslash are
+   * escaped, the other characters are kept.
+   *
+   * @param key
+   *          the key.
+   * @return the escaped key.
+   */
+  static String escapeKey(final String key) {
+    StringBuilder sb = new StringBuilder(key.length());
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      int specialIndex = KEY_SPECIAL_CHARS.indexOf(c);
+      if (specialIndex < 0) {
+        sb.append(c);
+      } else {
+        sb.append('\\').append(KEY_ESCAPE_CHARS.charAt(specialIndex));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Escapes a value. The special and the non-ASCII characters are escaped as in Java strings, and a
+   * leading space is escaped, because the leading whitespace of the values is skipped by the
+   * parsers.
+   *
+   * @param value
+   *          the value or <code>null</code> that is escaped as an empty value.
+   * @return the escaped value.
+   */
+  static String escapeValue(final String value) {
+    if (value == null) {
+      return "";
+    }
+    String escapedValue = StringEscapeUtils.escapeJava(value);
+    if (escapedValue.startsWith(" ")) {
+      return "\\" + escapedValue;
+    }
+    return escapedValue;
+  }
+
+  private PropertiesEscaper() {
+  }
+
+}
@@ -0,0 +1,592 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * Parses properties files according to the grammar of {@link java.util.Properties#load(Reader)}.
+ * The characters are processed in one pass: the key and the value are decoded into a reusable
+ * buffer while the separator is searched, so only the key and the value strings are allocated per
+ * property. Supports comments (<code>#</code> and <code>!</code>), all separators
+ * (<code>=</code>, <code>:</code> and whitespace), escaped separators, line continuations and
+ * unicode escapes.
+ *
+ * <p>
+ * Files are parsed on byte level: a file is read into a reusable buffer with bulk reads, the line
+ * and separator boundaries are searched in the bytes and only the key and the value slices are
+ * decoded. The lines that contain backslashes are decoded as a whole and parsed by characters.
+ * </p>
+ *
+ * <p>
+ * An instance is not thread-safe, but it can parse several files one after the other.
+ * </p>
+ */
+public class PropertiesParser {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private static final int BYTE_MASK = 0xFF;
+
+  private static final int ESCAPE_BACKSLASH = 1;
+
+  private static final int ESCAPE_NONE = 0;
+
+  private static final int ESCAPE_UNICODE = 2;
+
+  private static final int HEX_RADIX = 16;
+
+  private static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+  private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+  private static final int STATE_COMMENT = 1;
+
+  private static final int STATE_KEY = 2;
+
+  private static final int STATE_KEY_TRAILING_WHITESPACE = 3;
+
+  private static final int STATE_LINE_START = 0;
+
+  private static final int STATE_VALUE = 5;
+
+  private static final int STATE_VALUE_LEADING_WHITESPACE = 4;
+
+  private static final int UNICODE_DIGITS = 4;
+
+  private static final int UTF8_CONTINUATION = 0x80;
+
+  private static final int UTF8_CONTINUATION_BITS = 6;
+
+  private static final int UTF8_CONTINUATION_MASK = 0xC0;
+
+  private static final int UTF8_LEAD_2 = 0xC0;
+
+  private static final int UTF8_LEAD_2_MASK = 0xE0;
+
+  private static final int UTF8_LEAD_3 = 0xE0;
+
+  private static final int UTF8_LEAD_3_MASK = 0xF0;
+
+  private static final int UTF8_LEAD_4 = 0xF0;
+
+  private static final int UTF8_LEAD_4_MASK = 0xF8;
+
+  private static final int UTF8_LENGTH_3 = 3;
+
+  private static final int UTF8_LENGTH_4 = 4;
+
+  private int escape = ESCAPE_NONE;
+
+  private byte[] fileBuffer = new byte[BUFFER_SIZE];
+
+  private BiConsumer<String, String> handler;
+
+  private int keyLength = 0;
+
+  /**
+   * The byte offset after the logical line that is being parsed.
+   */
+  private int propertyEnd = 0;
+
+  /**
+   * The byte offset of the key of the logical line that is being parsed.
+   */
+  private int propertyStart = 0;
+
+  private final char[] readBuffer = new char[BUFFER_SIZE];
+
+  private boolean skipContinuationWhitespace = false;
+
+  private boolean skipLineFeed = false;
+
+  private int state = STATE_LINE_START;
+
+  private char[] tokenBuffer = new char[BUFFER_SIZE];
+
+  private int tokenLength = 0;
+
+  private int unicodeDigits = 0;
+
+  private int unicodeValue = 0;
+
+  private static int findLineEnd(final byte[] bytes, final int from, final int length) {
+    int position = from;
+    while ((position < length) && !isLineTerminator((char) bytes[position])) {
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * Finds the end of a logical line that may continue in the next natural lines.
+   */
+  private static int findLogicalLineEnd(final byte[] bytes, final int lineStart,
+      final int lineEnd, final int length) {
+    int end = lineEnd;
+    while ((end < length) && isContinued(bytes, lineStart, end)) {
+      end = findLineEnd(bytes, skipLineTerminator(bytes, end, length), length);
+    }
+    return end;
+  }
+
+  private static boolean hasBackslash(final byte[] bytes, final int from, final int to) {
+    for (int i = from; i < to; i++) {
+      if (bytes[i] == '\\') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether the natural line ends with an odd number of backslashes.
+   */
+  private static boolean isContinued(final byte[] bytes, final int lineStart, final int lineEnd) {
+    int backslashCount = 0;
+    for (int i = lineEnd - 1; (i >= lineStart) && (bytes[i] == '\\'); i--) {
+      backslashCount++;
+    }
+    return (backslashCount % 2) == 1;
+  }
+
+  private static boolean isLineTerminator(final char c) {
+    return (c == '\n') || (c == '\r');
+  }
+
+  private static boolean isSeparator(final char c) {
+    return (c == '=') || (c == ':');
+  }
+
+  private static boolean isWhitespace(final char c) {
+    return (c == ' ') || (c == '\t') || (c == '\f');
+  }
+
+  private static int skipLineTerminator(final byte[] bytes, final int position,
+      final int length) {
+    if (position >= length) {
+      return length;
+    }
+    if ((bytes[position] == '\r') && ((position + 1) < length) && (bytes[position + 1] == '\n')) {
+      return position + 2;
+    }
+    return position + 1;
+  }
+
+  private static int skipWhitespace(final byte[] bytes, final int from, final int to) {
+    int position = from;
+    while ((position < to) && isWhitespace((char) bytes[position])) {
+      position++;
+    }
+    return position;
+  }
+
+  private void appendLiteral(final char c) {
+    if ((state == STATE_KEY_TRAILING_WHITESPACE) || (state == STATE_VALUE_LEADING_WHITESPACE)) {
+      state = STATE_VALUE;
+    }
+    if (tokenLength == tokenBuffer.length) {
+      char[] newTokenBuffer = new char[tokenBuffer.length * 2];
+      System.arraycopy(tokenBuffer, 0, newTokenBuffer, 0, tokenLength);
+      tokenBuffer = newTokenBuffer;
+    }
+    tokenBuffer[tokenLength++] = c;
+  }
+
+  private void endLine() {
+    if (escape == ESCAPE_UNICODE) {
+      throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+    }
+    escape = ESCAPE_NONE;
+    if (state == STATE_KEY) {
+      keyLength = tokenLength;
+    }
+    // an empty key in key state means that the line contained only a line continuation
+    boolean emptyLine = (state == STATE_KEY) && (tokenLength == 0);
+    if ((state != STATE_LINE_START) && (state != STATE_COMMENT) && !emptyLine) {
+      handler.accept(new String(tokenBuffer, 0, keyLength),
+          new String(tokenBuffer, keyLength, tokenLength - keyLength));
+    }
+    state = STATE_LINE_START;
+    tokenLength = 0;
+    keyLength = 0;
+    skipContinuationWhitespace = false;
+  }
+
+  /**
+   * Parses the properties of an UTF-8 encoded byte array.
+   *
+   * @param bytes
+   *          the content of the properties file.
+   * @param length
+   *          the number of bytes to parse from the beginning of the array.
+   * @param propertyHandler
+   *          called with the key and the value of every property in the order of the properties.
+   * @throws IllegalArgumentException
+   *           if the input contains a malformed unicode escape.
+   */
+  void parse(final byte[] bytes, final int length,
+      final BiConsumer<String, String> propertyHandler) {
+    handler = propertyHandler;
+    reset();
+    try {
+      int position = 0;
+      while (position < length) {
+        position = parseLine(bytes, position, length);
+      }
+    } finally {
+      handler = null;
+    }
+  }
+
+  /**
+   * Parses an UTF-8 encoded properties file.
+   *
+   * @param file
+   *          the properties file.
+   * @param propertyHandler
+   *          called with the key and the value of every property in the order of the properties.
+   * @throws IOException
+   *           if the file cannot be read.
+   * @throws IllegalArgumentException
+   *           if the file contains a malformed unicode escape.
+   */
+  public void parse(final Path file, final BiConsumer<String, String> propertyHandler)
+      throws IOException {
+    int length = readFile(file);
+    parse(fileBuffer, length, propertyHandler);
+  }
+
+  /**
+   * Parses the properties. The reader is not closed.
+   *
+   * @param reader
+   *          the reader of the properties.
+   * @param propertyHandler
+   *          called with the key and the value of every property in the order of the properties.
+   * @throws IOException
+   *           if the reader throws it.
+   * @throws IllegalArgumentException
+   *           if the input contains a malformed unicode escape.
+   */
+  public void parse(final Reader reader, final BiConsumer<String, String> propertyHandler)
+      throws IOException {
+    handler = propertyHandler;
+    reset();
+    try {
+      int read;
+      while ((read = reader.read(readBuffer)) >= 0) {
+        for (int i = 0; i < read; i++) {
+          processChar(readBuffer[i]);
+        }
+      }
+      endLine();
+    } finally {
+      handler = null;
+    }
+  }
+
+  /**
+   * Parses the properties of an UTF-8 encoded byte array and reports the positions of their lines.
+   *
+   * @param bytes
+   *          the content of the properties file.
+   * @param length
+   *          the number of bytes to parse from the beginning of the array.
+   * @param lineHandler
+   *          called with every property in the order of the properties.
+   * @throws IllegalArgumentException
+   *           if the input contains a malformed unicode escape.
+   */
+  void parseLines(final byte[] bytes, final int length, final PropertyLineHandler lineHandler) {
+    parse(bytes, length,
+        (key, value) -> lineHandler.handleProperty(key, value, propertyStart, propertyEnd));
+  }
+
+  /**
+   * Parses a logical line that contains backslashes by characters. The bytes are decoded on the
+   * fly, without decoding the line into a string first.
+   */
+  private void parseEscapedLine(final byte[] bytes, final int from, final int to) {
+    int position = from;
+    while (position < to) {
+      if (bytes[position] >= 0) {
+        processChar((char) bytes[position]);
+        position++;
+      } else {
+        position = processUtf8Sequence(bytes, position, to);
+      }
+    }
+    endLine();
+  }
+
+  /**
+   * Parses the line that starts at the given position.
+   *
+   * @return the start of the next line.
+   */
+  private int parseLine(final byte[] bytes, final int start, final int length) {
+    int keyStart = skipWhitespace(bytes, start, length);
+    int lineEnd = findLineEnd(bytes, keyStart, length);
+    boolean comment = (keyStart < lineEnd)
+        && ((bytes[keyStart] == '#') || (bytes[keyStart] == '!'));
+    if ((keyStart < lineEnd) && !comment) {
+      propertyStart = keyStart;
+      if (hasBackslash(bytes, keyStart, lineEnd)) {
+        lineEnd = findLogicalLineEnd(bytes, keyStart, lineEnd, length);
+        propertyEnd = lineEnd;
+        parseEscapedLine(bytes, keyStart, lineEnd);
+      } else {
+        propertyEnd = lineEnd;
+        parseUnescapedLine(bytes, keyStart, lineEnd);
+      }
+    }
+    return skipLineTerminator(bytes, lineEnd, length);
+  }
+
+  /**
+   * Parses a line without backslashes by decoding only its key and value slices.
+   */
+  private void parseUnescapedLine(final byte[] bytes, final int from, final int to) {
+    int keyEnd = from;
+    while ((keyEnd < to) && !isSeparator((char) bytes[keyEnd])
+        && !isWhitespace((char) bytes[keyEnd])) {
+      keyEnd++;
+    }
+    int valueStart = skipWhitespace(bytes, keyEnd, to);
+    if ((valueStart < to) && isSeparator((char) bytes[valueStart])) {
+      valueStart = skipWhitespace(bytes, valueStart + 1, to);
+    }
+    handler.accept(new String(bytes, from, keyEnd - from, StandardCharsets.UTF_8),
+        new String(bytes, valueStart, to - valueStart, StandardCharsets.UTF_8));
+  }
+
+  private void processChar(final char c) {
+    if (skipLineFeed) {
+      skipLineFeed = false;
+      if (c == '\n') {
+        return;
+      }
+    }
+    if (state == STATE_COMMENT) {
+      processCommentChar(c);
+    } else if (escape != ESCAPE_NONE) {
+      processEscapedChar(c);
+    } else if (!skipContinuationWhitespace || !isWhitespace(c)) {
+      skipContinuationWhitespace = false;
+      processLineChar(c);
+    }
+  }
+
+  private void processCommentChar(final char c) {
+    if (isLineTerminator(c)) {
+      skipLineFeed = c == '\r';
+      endLine();
+    }
+  }
+
+  private void processEscapedChar(final char c) {
+    if (escape == ESCAPE_UNICODE) {
+      processUnicodeDigit(c);
+    } else if (isLineTerminator(c)) {
+      // line continuation: the leading whitespace of the next line is ignored
+      escape = ESCAPE_NONE;
+      skipLineFeed = c == '\r';
+      skipContinuationWhitespace = true;
+    } else if (c == 'u') {
+      escape = ESCAPE_UNICODE;
+      unicodeDigits = 0;
+      unicodeValue = 0;
+    } else {
+      escape = ESCAPE_NONE;
+      appendLiteral(unescape(c));
+    }
+  }
+
+  private void processKeyChar(final char c) {
+    if (isSeparator(c)) {
+      keyLength = tokenLength;
+      state = STATE_VALUE_LEADING_WHITESPACE;
+    } else if (isWhitespace(c)) {
+      keyLength = tokenLength;
+      state = STATE_KEY_TRAILING_WHITESPACE;
+    } else {
+      appendLiteral(c);
+    }
+  }
+
+  private void processLineChar(final char c) {
+    if (isLineTerminator(c)) {
+      skipLineFeed = c == '\r';
+      endLine();
+    } else if (c == '\\') {
+      if (state == STATE_LINE_START) {
+        state = STATE_KEY;
+      }
+      escape = ESCAPE_BACKSLASH;
+    } else {
+      processUnescapedChar(c);
+    }
+  }
+
+  private void processLineStartChar(final char c) {
+    if ((c == '#') || (c == '!')) {
+      state = STATE_COMMENT;
+    } else if (!isWhitespace(c)) {
+      state = STATE_KEY;
+      processKeyChar(c);
+    }
+  }
+
+  /**
+   * Decodes a multi-byte UTF-8 sequence and processes its characters. Malformed sequences are
+   * replaced with {@link #REPLACEMENT_CHARACTER} like in case of the JDK decoder.
+   *
+   * @return the position after the sequence.
+   */
+  private int processUtf8Sequence(final byte[] bytes, final int position, final int to) {
+    int lead = bytes[position] & BYTE_MASK;
+    int sequenceLength;
+    int codePoint;
+    if ((lead & UTF8_LEAD_2_MASK) == UTF8_LEAD_2) {
+      sequenceLength = 2;
+      codePoint = lead & ~UTF8_LEAD_2_MASK;
+    } else if ((lead & UTF8_LEAD_3_MASK) == UTF8_LEAD_3) {
+      sequenceLength = UTF8_LENGTH_3;
+      codePoint = lead & ~UTF8_LEAD_3_MASK;
+    } else if ((lead & UTF8_LEAD_4_MASK) == UTF8_LEAD_4) {
+      sequenceLength = UTF8_LENGTH_4;
+      codePoint = lead & ~UTF8_LEAD_4_MASK;
+    } else {
+      processChar(REPLACEMENT_CHARACTER);
+      return position + 1;
+    }
+    if ((position + sequenceLength) > to) {
+      processChar(REPLACEMENT_CHARACTER);
+      return position + 1;
+    }
+    for (int i = 1; i < sequenceLength; i++) {
+      int continuation = bytes[position + i] & BYTE_MASK;
+      if ((continuation & UTF8_CONTINUATION_MASK) != UTF8_CONTINUATION) {
+        processChar(REPLACEMENT_CHARACTER);
+        return position + i;
+      }
+      codePoint = (codePoint << UTF8_CONTINUATION_BITS) | (continuation & ~UTF8_CONTINUATION_MASK);
+    }
+    if (Character.isBmpCodePoint(codePoint)) {
+      processChar((char) codePoint);
+    } else if (Character.isValidCodePoint(codePoint)) {
+      processChar(Character.highSurrogate(codePoint));
+      processChar(Character.lowSurrogate(codePoint));
+    } else {
+      processChar(REPLACEMENT_CHARACTER);
+    }
+    return position + sequenceLength;
+  }
+
+  private void processUnescapedChar(final char c) {
+    switch (state) {
+      case STATE_LINE_START:
+        processLineStartChar(c);
+        break;
+      case STATE_KEY:
+        processKeyChar(c);
+        break;
+      case STATE_KEY_TRAILING_WHITESPACE:
+        if (isSeparator(c)) {
+          state = STATE_VALUE_LEADING_WHITESPACE;
+        } else if (!isWhitespace(c)) {
+          appendLiteral(c);
+        }
+        break;
+      case STATE_VALUE_LEADING_WHITESPACE:
+        if (!isWhitespace(c)) {
+          appendLiteral(c);
+        }
+        break;
+      default:
+        appendLiteral(c);
+        break;
+    }
+  }
+
+  private void processUnicodeDigit(final char c) {
+    int digit = Character.digit(c, HEX_RADIX);
+    if (digit < 0) {
+      throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+    }
+    unicodeValue = (unicodeValue * HEX_RADIX) + digit;
+    unicodeDigits++;
+    if (unicodeDigits == UNICODE_DIGITS) {
+      escape = ESCAPE_NONE;
+      appendLiteral((char) unicodeValue);
+    }
+  }
+
+  /**
+   * Reads the file into the {@link #fileBuffer}.
+   *
+   * @return the number of read bytes.
+   */
+  private int readFile(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > MAX_FILE_SIZE) {
+        throw new IOException("The file is too large [" + file + "].");
+      }
+      if (fileBuffer.length < size) {
+        fileBuffer = new byte[(int) size];
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(fileBuffer, 0, (int) size);
+      while (buffer.hasRemaining() && (channel.read(buffer) >= 0)) {
+        // read until the end of the file
+      }
+      return buffer.position();
+    }
+  }
+
+  private void reset() {
+    state = STATE_LINE_START;
+    escape = ESCAPE_NONE;
+    tokenLength = 0;
+    keyLength = 0;
+    skipContinuationWhitespace = false;
+    skipLineFeed = false;
+  }
+
+  private char unescape(final char c) {
+    switch (c) {
+      case 't':
+        return '\t';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 'f':
+        return '\f';
+      default:
+        return c;
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Patches the content of an existing properties file with new values. Only the logical lines of
+ * the properties whose value changed are rewritten, the comments, the blank lines, the order and
+ * the formatting of the other lines are kept byte by byte. An empty new value does not change an
+ * existing property, because the workbooks do not distinguish a cleared cell from an untouched
+ * one. The new properties are appended to the end of the file. An instance patches one file.
+ */
+class PropertiesPatcher {
+
+  private static final int APPEND_RESERVE = 256;
+
+  private static final int LINE_FEED = '\n';
+
+  private final boolean appendEmptyValues;
+
+  private final Set<String> existingKeys = new HashSet<String>();
+
+  private ByteArrayOutputStream out;
+
+  private boolean patched = false;
+
+  private int position = 0;
+
+  private final List<String> propKeys;
+
+  private final Properties values;
+
+  /**
+   * Constructor.
+   *
+   * @param values
+   *          the new values by key.
+   * @param propKeys
+   *          the keys of the new values in the order of appending.
+   * @param appendEmptyValues
+   *          <code>true</code> if the properties with empty values should be appended too.
+   */
+  PropertiesPatcher(final Properties values, final List<String> propKeys,
+      final boolean appendEmptyValues) {
+    this.values = values;
+    this.propKeys = propKeys;
+    this.appendEmptyValues = appendEmptyValues;
+  }
+
+  private void appendNewProperties(final byte[] content) {
+    // the last line is not terminated if it was rewritten or it had no line terminator
+    boolean lineFeedRequired = (content.length > 0)
+        && ((position == content.length) || !isLineTerminator(content[content.length - 1]));
+    for (String propKey : propKeys) {
+      String value = values.getProperty(propKey);
+      if ((appendEmptyValues || !value.isEmpty()) && existingKeys.add(propKey)) {
+        if (lineFeedRequired) {
+          out.write(LINE_FEED);
+          lineFeedRequired = false;
+        }
+        writeProperty(propKey, value);
+        out.write(LINE_FEED);
+        patched = true;
+      }
+    }
+  }
+
+  private void handleProperty(final byte[] content, final String key, final String value,
+      final int lineStart, final int lineEnd) {
+    existingKeys.add(key);
+    String newValue = values.getProperty(key);
+    if ((newValue == null) || newValue.isEmpty() || newValue.equals(value)) {
+      return;
+    }
+    out.write(content, position, lineStart - position);
+    writeProperty(key, newValue);
+    position = lineEnd;
+    patched = true;
+  }
+
+  private boolean isLineTerminator(final byte b) {
+    return (b == LINE_FEED) || (b == '\r');
+  }
+
+  /**
+   * Patches the content of a properties file.
+   *
+   * @param content
+   *          the UTF-8 encoded content of the existing file or <code>null</code> if the file does
+   *          not exist.
+   * @return the patched content, the same array instance if nothing changed or <code>null</code>
+   *         if the file does not exist and there is nothing to write.
+   */
+  byte[] patch(final byte[] content) {
+    byte[] existingContent = content == null ? new byte[0] : content;
+    out = new ByteArrayOutputStream(existingContent.length + APPEND_RESERVE);
+    new PropertiesParser().parseLines(existingContent, existingContent.length,
+        (key, value, lineStart, lineEnd) -> handleProperty(existingContent, key, value,
+            lineStart, lineEnd));
+    out.write(existingContent, position, existingContent.length - position);
+    appendNewProperties(existingContent);
+    if (!patched) {
+      return content;
+    }
+    return out.toByteArray();
+  }
+
+  private void writeProperty(final String key, final String value) {
+    byte[] property = (PropertiesEscaper.escapeKey(key) + "="
+        + PropertiesEscaper.escapeValue(value)).getBytes(StandardCharsets.UTF_8);
+    out.write(property, 0, property.length);
+  }
+
+}
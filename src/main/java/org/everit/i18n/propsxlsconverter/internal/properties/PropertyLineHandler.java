@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+/**
+ * Receives the properties of a properties file with the position of their lines.
+ */
+@FunctionalInterface
+interface PropertyLineHandler {
+
+  /**
+   * Handles a property.
+   *
+   * @param key
+   *          the key of the property.
+   * @param value
+   *          the value of the property.
+   * @param lineStart
+   *          the byte offset of the first character of the key. The leading whitespace of the line
+   *          is before this offset.
+   * @param lineEnd
+   *          the byte offset after the last character of the logical line, the line terminator is
+   *          not included.
+   */
+  void handleProperty(String key, String value, int lineStart, int lineEnd);
+
+}
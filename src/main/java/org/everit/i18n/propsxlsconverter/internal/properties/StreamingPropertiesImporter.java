@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.apache.commons.io.IOUtils;
+import org.everit.i18n.propsxlsconverter.ConversionPhase;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.BoundedExecutor;
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.metrics.MetricsCollector;
+import org.everit.i18n.propsxlsconverter.internal.util.TempFiles;
+
+/**
+ * Writes the rows of the workbook straight into the language files of their properties file. The
+ * language files of the current properties file are kept open until the rows of the next
+ * properties file arrive, so the memory usage does not depend on the size of the bundles. The rows
+ * are written on the thread that reads the workbook. The completed language files of a properties
+ * file are closed and replace the existing files on a worker thread, while the reading continues
+ * with the next properties file.
+ */
+public class StreamingPropertiesImporter extends AbstractPropertiesImporter {
+
+  /**
+   * The content of a language file. The content is written into a temporary file that replaces
+   * the language file when it is complete. If the unchanged files are skipped, the content is
+   * compared with the existing language file while it is written and the temporary file is
+   * created only at the first difference.
+   */
+  private final class LangFileOutputStream extends OutputStream {
+
+    private byte[] compareBuffer;
+
+    /**
+     * The number of the bytes that are equal to the beginning of the existing language file.
+     */
+    private long equalBytes = 0;
+
+    /**
+     * The content of the existing language file while the written content is equal to it or
+     * <code>null</code>.
+     */
+    private InputStream existingIn;
+
+    private final File langFile;
+
+    /**
+     * The file that is written instead of the language file, so a failed import does not leave a
+     * half-written language file behind. <code>null</code> while the content is equal to the
+     * existing language file.
+     */
+    private Path tempFile;
+
+    private OutputStream tempOut;
+
+    LangFileOutputStream(final File langFile) throws IOException {
+      this.langFile = langFile;
+      if (skipUnchanged && langFile.isFile()) {
+        existingIn = new FileInputStream(langFile);
+        compareBuffer = new byte[COMPARE_BUFFER_SIZE];
+      } else {
+        openTempFile();
+      }
+    }
+
+    /**
+     * Closes the files and deletes the temporary file after a failure.
+     */
+    void abort() {
+      IOUtils.closeQuietly(existingIn);
+      IOUtils.closeQuietly(tempOut);
+      TempFiles.deleteQuietly(tempFile);
+    }
+
+    /**
+     * Closes the files. If the existing language file is longer than the written content, the
+     * content differs.
+     */
+    @Override
+    public void close() throws IOException {
+      if ((existingIn != null) && (existingIn.read() >= 0)) {
+        openTempFile();
+      }
+      if (existingIn != null) {
+        existingIn.close();
+      }
+      if (tempOut != null) {
+        tempOut.close();
+      }
+    }
+
+    private int countEqualBytes(final byte[] b, final int off, final int len) throws IOException {
+      int count = 0;
+      while (count < len) {
+        int read = IOUtils.read(existingIn, compareBuffer, 0,
+            Math.min(len - count, compareBuffer.length));
+        for (int i = 0; i < read; i++) {
+          if (compareBuffer[i] != b[off + count + i]) {
+            return count + i;
+          }
+        }
+        count += read;
+        if (read == 0) {
+          return count;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Opens the temporary file and copies the beginning of the existing language file that was
+     * equal to the written content. The comparison stops.
+     */
+    private void openTempFile() throws IOException {
+      tempFile = TempFiles.createTempFile(langFile, TEMP_FILE_SUFFIX);
+      tempOut = new FileOutputStream(tempFile.toFile());
+      if (existingIn != null) {
+        existingIn.close();
+        existingIn = null;
+        try (InputStream in = new FileInputStream(langFile)) {
+          IOUtils.copyLarge(in, tempOut, 0, equalBytes);
+        }
+      }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      if (existingIn == null) {
+        tempOut.write(b, off, len);
+        return;
+      }
+      int equalLength = countEqualBytes(b, off, len);
+      equalBytes += equalLength;
+      if (equalLength < len) {
+        openTempFile();
+        tempOut.write(b, off + equalLength, len - equalLength);
+      }
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+  }
+
+  /**
+   * A language file that is being written.
+   */
+  private final class LangFileWriter {
+
+    private final File langFile;
+
+    private final LangFileOutputStream out;
+
+    private final Writer writer;
+
+    LangFileWriter(final File langFile) throws IOException {
+      this.langFile = langFile;
+      out = new LangFileOutputStream(langFile);
+      writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    void abort() {
+      out.abort();
+    }
+
+    /**
+     * Closes the file and replaces the language file with it. The unchanged files are not
+     * replaced if the unchanged files are skipped.
+     */
+    void finish() throws IOException {
+      writer.close();
+      if (out.tempFile == null) {
+        filesSkipped.incrementAndGet();
+      } else {
+        TempFiles.replace(out.tempFile, langFile);
+        filesWritten.incrementAndGet();
+      }
+      metricsCollector.fileProcessed(langFile.getPath(), langFile.length());
+    }
+
+    void write(final String propKey, final String propValue) throws IOException {
+      writer.write(PropertiesEscaper.escapeKey(propKey));
+      writer.write('=');
+      writer.write(PropertiesEscaper.escapeValue(propValue));
+      writer.write('\n');
+    }
+  }
+
+  private static final int COMPARE_BUFFER_SIZE = 8192;
+
+  /**
+   * The writers of the default language file and of the language files of the current properties
+   * file in the order of the languages or <code>null</code> before the first row.
+   */
+  private LangFileWriter[] langFileWriters;
+
+  private String[] languages;
+
+  private String propertiesFile = null;
+
+  private final boolean skipUnchanged;
+
+  private final BoundedExecutor writerExecutor;
+
+  private long writeNanos = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param workingDirectory
+   *          the directory where the properties files are written.
+   * @param skipUnchanged
+   *          <code>true</code> if the files that already have the generated content should not be
+   *          replaced. The generated content is compared with the existing files while it is
+   *          written.
+   * @param parallelism
+   *          the maximum number of properties files whose completed language files are closed and
+   *          replaced at the same time.
+   * @param metricsCollector
+   *          receives the time of the file writing and the written files.
+   */
+  public StreamingPropertiesImporter(final String workingDirectory,
+      final boolean skipUnchanged, final int parallelism,
+      final MetricsCollector metricsCollector) {
+    super(workingDirectory, metricsCollector);
+    this.skipUnchanged = skipUnchanged;
+    writerExecutor = new BoundedExecutor(parallelism);
+  }
+
+  private static void abort(final LangFileWriter[] fileWriters) {
+    for (LangFileWriter langFileWriter : fileWriters) {
+      if (langFileWriter != null) {
+        langFileWriter.abort();
+      }
+    }
+  }
+
+  /**
+   * Closes the files that are being written after a failure.
+   */
+  @Override
+  public void close() {
+    if (langFileWriters != null) {
+      abort(langFileWriters);
+      langFileWriters = null;
+    }
+    writerExecutor.close();
+  }
+
+  @Override
+  public void finish() {
+    long startNanos = System.nanoTime();
+    if (langFileWriters != null) {
+      submitPropertiesFile();
+    }
+    writerExecutor.awaitCompletion();
+    metricsCollector.addPhaseNanos(ConversionPhase.WRITE,
+        writeNanos + (System.nanoTime() - startNanos));
+    writeNanos = 0;
+  }
+
+  private void finishLangFiles(final LangFileWriter[] fileWriters) throws IOException {
+    try {
+      for (LangFileWriter langFileWriter : fileWriters) {
+        langFileWriter.finish();
+      }
+    } catch (IOException | RuntimeException e) {
+      abort(fileWriters);
+      throw e;
+    }
+  }
+
+  /**
+   * Finishes the language files of a properties file on a worker thread.
+   */
+  private void finishPropertiesFile(final LangFileWriter[] fileWriters,
+      final String fileAccess) {
+    long startNanos = System.nanoTime();
+    try {
+      finishLangFiles(fileWriters);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to save the files of [" + fileAccess + "].", e);
+    }
+    metricsCollector.addPhaseNanos(ConversionPhase.WRITE, System.nanoTime() - startNanos);
+  }
+
+  @Override
+  public void handleHeader(final String[] languages) {
+    this.languages = languages.clone();
+  }
+
+  @Override
+  public void handleRow(final WorkbookRowDTO row) {
+    if (!row.propertiesFile.equals(propertiesFile) && (langFileWriters != null)) {
+      // the waiting for a worker is not part of the writing
+      submitPropertiesFile();
+    }
+    long startNanos = System.nanoTime();
+    if (!row.propertiesFile.equals(propertiesFile)) {
+      startPropertiesFile(row.propertiesFile);
+    }
+    try {
+      langFileWriters[0].write(row.propKey, row.defaultLangValue);
+      for (int i = 0; i < languages.length; i++) {
+        langFileWriters[i + 1].write(row.propKey, row.langValues.get(languages[i]));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write the files of [" + propertiesFile + "].", e);
+    }
+    writeNanos += System.nanoTime() - startNanos;
+  }
+
+  private void startPropertiesFile(final String nextPropertiesFile) {
+    propertiesFile = nextPropertiesFile;
+    langFileWriters = new LangFileWriter[languages.length + 1];
+    try {
+      langFileWriters[0] = new LangFileWriter(getLangFile(propertiesFile, ""));
+      for (int i = 0; i < languages.length; i++) {
+        langFileWriters[i + 1] = new LangFileWriter(getLangFile(propertiesFile, languages[i]));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open the files of [" + propertiesFile + "].", e);
+    }
+  }
+
+  /**
+   * Passes the completed language files of the current properties file to a worker. Blocks while
+   * all workers are busy.
+   */
+  private void submitPropertiesFile() {
+    LangFileWriter[] fileWriters = langFileWriters;
+    String fileAccess = propertiesFile;
+    writerExecutor.execute(() -> finishPropertiesFile(fileWriters, fileAccess));
+    langFileWriters = null;
+  }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.table;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+
+/**
+ * The translations of a bundle in columnar layout. The keys are stored in the order of their first
+ * occurrence and they are found through an open addressing hash index of row numbers. The values
+ * of the default language and of every language are stored in their own arrays indexed by the row
+ * number, so a row takes a few references instead of a row object with a hash map of its language
+ * values. Not thread-safe while it is filled, a filled table can be read by several threads if it
+ * was safely published.
+ */
+public class TranslationTable {
+
+  /**
+   * The column of the default language values.
+   */
+  public static final int DEFAULT_LANG_COLUMN = 0;
+
+  /**
+   * Mixes the high bits of the hash codes into the low bits that select the slot.
+   */
+  private static final int HASH_SPREAD_SHIFT = 16;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The estimated size of a reference and of an int in bytes.
+   */
+  private static final int SLOT_SIZE = 4;
+
+  /**
+   * The estimated size of a string without its characters in bytes.
+   */
+  private static final int STRING_OVERHEAD = 40;
+
+  /**
+   * The values of the columns. The first index is the column, the second is the row.
+   */
+  private final String[][] columns;
+
+  /**
+   * The hash index of the keys. A slot contains the row number of the key plus one or 0 if the
+   * slot is empty. At most the half of the slots are used.
+   */
+  private int[] index = new int[INITIAL_CAPACITY * 2];
+
+  private String[] keys = new String[INITIAL_CAPACITY];
+
+  private final String[] languages;
+
+  private final String propertiesFile;
+
+  private int rowCount = 0;
+
+  /**
+   * Constructor.
+   *
+   * @param propertiesFile
+   *          the file access of the default language file of the bundle.
+   * @param languages
+   *          the languages of the columns after the default language column.
+   */
+  public TranslationTable(final String propertiesFile, final String[] languages) {
+    this.propertiesFile = propertiesFile;
+    this.languages = languages.clone();
+    columns = new String[languages.length + 1][INITIAL_CAPACITY];
+  }
+
+  private static int hash(final String key) {
+    int hashCode = key.hashCode();
+    return hashCode ^ (hashCode >>> HASH_SPREAD_SHIFT);
+  }
+
+  private static long estimateStringSize(final String value) {
+    return value == null ? 0 : STRING_OVERHEAD + (value.length() * 2L);
+  }
+
+  /**
+   * Estimates the memory usage of the table. The strings are counted in every cell, even if they
+   * are shared with other cells or tables.
+   *
+   * @return the estimated size in bytes.
+   */
+  public long estimateSize() {
+    long size = (long) (index.length + keys.length + (columns.length * keys.length)) * SLOT_SIZE;
+    for (int row = 0; row < rowCount; row++) {
+      size += estimateStringSize(keys[row]);
+      for (String[] column : columns) {
+        size += estimateStringSize(column[row]);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Finds the row of a key.
+   *
+   * @param key
+   *          the property key.
+   * @return the row number or -1 if the table does not contain the key.
+   */
+  public int findRow(final String key) {
+    return index[findSlot(key)] - 1;
+  }
+
+  /**
+   * Finds the slot of the index that contains the key or the empty slot where the key belongs.
+   */
+  private int findSlot(final String key) {
+    int mask = index.length - 1;
+    int slot = hash(key) & mask;
+    while ((index[slot] != 0) && !keys[index[slot] - 1].equals(key)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Finds the column of a language.
+   *
+   * @param lang
+   *          the language or "" (empty string) for the default language.
+   * @return the column or -1 if the table does not contain the language.
+   */
+  public int getColumn(final String lang) {
+    if (lang.isEmpty()) {
+      return DEFAULT_LANG_COLUMN;
+    }
+    for (int i = 0; i < languages.length; i++) {
+      if (languages[i].equals(lang)) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public String getKey(final int row) {
+    return keys[row];
+  }
+
+  public String[] getLanguages() {
+    return languages.clone();
+  }
+
+  /**
+   * Gets the row of a key and adds a new row to the end of the table if the key is not found.
+   *
+   * @param key
+   *          the property key.
+   * @return the row number.
+   */
+  public int getOrAddRow(final String key) {
+    int slot = findSlot(key);
+    if (index[slot] != 0) {
+      return index[slot] - 1;
+    }
+    if (rowCount == keys.length) {
+      grow();
+      slot = findSlot(key);
+    }
+    keys[rowCount] = key;
+    index[slot] = rowCount + 1;
+    return rowCount++;
+  }
+
+  public String getPropertiesFile() {
+    return propertiesFile;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Gets a value.
+   *
+   * @param row
+   *          the row number.
+   * @param column
+   *          the column, {@link #DEFAULT_LANG_COLUMN} for the default language or the index of
+   *          the language plus one.
+   * @return the value or <code>null</code> if the language file does not contain the key.
+   */
+  public String getValue(final int row, final int column) {
+    return columns[column][row];
+  }
+
+  private void grow() {
+    int capacity = keys.length * 2;
+    keys = Arrays.copyOf(keys, capacity);
+    for (int column = 0; column < columns.length; column++) {
+      columns[column] = Arrays.copyOf(columns[column], capacity);
+    }
+    index = new int[capacity * 2];
+    int mask = index.length - 1;
+    for (int row = 0; row < rowCount; row++) {
+      int slot = hash(keys[row]) & mask;
+      while (index[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      index[slot] = row + 1;
+    }
+  }
+
+  /**
+   * Sets the value of a key in a column. Adds a new row if the key is not found.
+   *
+   * @param key
+   *          the property key.
+   * @param column
+   *          the column, {@link #DEFAULT_LANG_COLUMN} for the default language or the index of
+   *          the language plus one.
+   * @param value
+   *          the value.
+   */
+  public void put(final String key, final int column, final String value) {
+    // the row is added first, because it can replace the column arrays.
+    int row = getOrAddRow(key);
+    columns[column][row] = value;
+  }
+
+  /**
+   * Creates a row object of a row. Used by the consumers that process the rows one by one.
+   *
+   * @param row
+   *          the row number.
+   * @return the row object.
+   */
+  public WorkbookRowDTO toWorkbookRow(final int row) {
+    Map<String, String> langValues = new HashMap<String, String>();
+    for (int i = 0; i < languages.length; i++) {
+      langValues.put(languages[i], columns[i + 1][row]);
+    }
+    return new WorkbookRowDTO()
+        .propertiesFile(propertiesFile)
+        .propKey(keys[row])
+        .defaultLangValue(columns[DEFAULT_LANG_COLUMN][row])
+        .langValues(langValues);
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates strings, so the repeated values (for example "OK" or "Cancel") are kept in the
+ * memory only once. Only the short strings are pooled, because the long ones are rarely repeated,
+ * and the size of the pool is limited. Can be used from several threads at the same time.
+ */
+public class StringPool {
+
+  /**
+   * The default maximum number of pooled strings.
+   */
+  public static final int DEFAULT_MAX_SIZE = 65536;
+
+  /**
+   * The default maximum length of the pooled strings.
+   */
+  public static final int DEFAULT_MAX_STRING_LENGTH = 64;
+
+  private final int maxSize;
+
+  private final int maxStringLength;
+
+  private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor with {@link #DEFAULT_MAX_SIZE} and {@link #DEFAULT_MAX_STRING_LENGTH}.
+   */
+  public StringPool() {
+    this(DEFAULT_MAX_SIZE, DEFAULT_MAX_STRING_LENGTH);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxSize
+   *          the maximum number of pooled strings. When the pool is full, the pooled strings are
+   *          still returned but no new strings are added.
+   * @param maxStringLength
+   *          the maximum length of the pooled strings.
+   */
+  public StringPool(final int maxSize, final int maxStringLength) {
+    this.maxSize = maxSize;
+    this.maxStringLength = maxStringLength;
+  }
+
+  /**
+   * Gets the pooled instance of a string.
+   *
+   * @param value
+   *          the string. Can be <code>null</code>.
+   * @return the pooled instance that equals to the value or the value itself if it is not pooled.
+   */
+  public String intern(final String value) {
+    if ((value == null) || (value.length() > maxStringLength)) {
+      return value;
+    }
+    String pooled = pool.get(value);
+    if (pooled != null) {
+      return pooled;
+    }
+    if (pool.size() >= maxSize) {
+      return value;
+    }
+    pooled = pool.putIfAbsent(value, value);
+    return pooled != null ? pooled : value;
+  }
+
+  /**
+   * Gets the number of pooled strings.
+   *
+   * @return the size of the pool.
+   */
+  public int size() {
+    return pool.size();
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Helper methods to write files through temporary files, so a failed or cancelled conversion does
+ * not leave half-written files behind. The temporary file is created next to the target file, so
+ * it can be renamed to the target in one step. The temporary files are created with the default
+ * permissions and get the permissions of the replaced file, so the replaced files are not
+ * restricted to their owner.
+ */
+public final class TempFiles {
+
+  private static void copyPermissions(final File sourceFile, final Path targetFile)
+      throws IOException {
+    Set<PosixFilePermission> permissions;
+    try {
+      permissions = Files.getPosixFilePermissions(sourceFile.toPath());
+    } catch (NoSuchFileException | UnsupportedOperationException e) {
+      // the file is new or the file system has no POSIX permissions
+      return;
+    }
+    Files.setPosixFilePermissions(targetFile, permissions);
+  }
+
+  /**
+   * Creates a temporary file with the default permissions in the directory of a target file.
+   *
+   * @param targetFile
+   *          the file that will be replaced by the temporary file.
+   * @param suffix
+   *          the suffix of the temporary file.
+   * @return the temporary file.
+   * @throws IOException
+   *           if the file cannot be created.
+   */
+  public static Path createTempFile(final File targetFile, final String suffix)
+      throws IOException {
+    Path directory = targetFile.getAbsoluteFile().getParentFile().toPath();
+    while (true) {
+      // Files.createTempFile would create a file that only the owner can read
+      Path tempFile = directory.resolve(targetFile.getName()
+          + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + suffix);
+      try {
+        return Files.createFile(tempFile);
+      } catch (FileAlreadyExistsException e) {
+        continue;
+      }
+    }
+  }
+
+  /**
+   * Deletes a temporary file and ignores the failures, because it is called after a failure.
+   *
+   * @param tempFile
+   *          the temporary file or <code>null</code>.
+   */
+  public static void deleteQuietly(final Path tempFile) {
+    if (tempFile != null) {
+      tempFile.toFile().delete();
+    }
+  }
+
+  /**
+   * Replaces a target file with a temporary file. The temporary file gets the permissions of the
+   * target file. The file is moved atomically if the file system supports it.
+   *
+   * @param tempFile
+   *          the completely written temporary file.
+   * @param targetFile
+   *          the target file.
+   * @throws IOException
+   *           if the file cannot be moved.
+   */
+  public static void replace(final Path tempFile, final File targetFile) throws IOException {
+    copyPermissions(targetFile, tempFile);
+    try {
+      Files.move(tempFile, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempFile, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private TempFiles() {
+  }
+
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.watch;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.everit.i18n.propsxlsconverter.ConversionPhase;
+import org.everit.i18n.propsxlsconverter.ExportOptions;
+import org.everit.i18n.propsxlsconverter.internal.I18nConverterImpl;
+import org.everit.i18n.propsxlsconverter.internal.delta.DeltaFilter;
+import org.everit.i18n.propsxlsconverter.internal.files.BundleGrouper;
+import org.everit.i18n.propsxlsconverter.internal.files.PropertiesFileWalker;
+import org.everit.i18n.propsxlsconverter.internal.format.TranslationWriter;
+import org.everit.i18n.propsxlsconverter.internal.metrics.MetricsCollector;
+import org.everit.i18n.propsxlsconverter.internal.properties.PropertiesBundleReader;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
+
+/**
+ * Keeps a workbook in sync with the properties files of a working directory. The properties files
+ * are exported once, then the directories are watched with a {@link WatchService}. The events are
+ * collected until no new event arrives for the debounce time, then only the bundles of the changed
+ * files are read again and the workbook is rewritten from the translation tables kept in the
+ * memory. The working directory is searched again only if a directory is created or deleted. The
+ * workbook is written the same way as by the exports of the converter: into a temporary file that
+ * replaces the workbook when the update completes, while the lock of the workbook is held.
+ */
+public class ExportWatcher implements Closeable {
+
+  /**
+   * The changes collected in one debounce period.
+   */
+  private static final class Changes {
+
+    private final Set<Path> files = new HashSet<Path>();
+
+    /**
+     * All bundles must be read again, because events were lost or the previous export failed.
+     */
+    private boolean reloadAll;
+
+    /**
+     * The working directory must be searched again, because a directory was created or deleted.
+     */
+    private boolean rescan;
+
+  }
+
+  private final BundleGrouper bundleGrouper;
+
+  private final PropertiesBundleReader bundleReader;
+
+  /**
+   * The files of the bundles of the last export.
+   */
+  private Map<String, List<File>> bundles = new LinkedHashMap<String, List<File>>();
+
+  /**
+   * The translations of the last export in the order of the bundles. Map key is the file access of
+   * the bundle.
+   */
+  private Map<String, TranslationTable> bundleTables =
+      new LinkedHashMap<String, TranslationTable>();
+
+  private final long debounceMillis;
+
+  /**
+   * Filters the delta rows if the export has a baseline, otherwise <code>null</code>. The baseline
+   * is read only once.
+   */
+  private final DeltaFilter deltaFilter;
+
+  private final Consumer<RuntimeException> errorHandler;
+
+  private final ExportOptions exportOptions;
+
+  /**
+   * The properties files in the order of {@link PropertiesFileWalker#FILE_ORDER}.
+   */
+  private final Set<File> files = new TreeSet<File>(PropertiesFileWalker.FILE_ORDER);
+
+  private final PropertiesFileWalker fileWalker;
+
+  private final String[] languages;
+
+  private boolean reloadRequired;
+
+  private final Set<Path> watchedDirectories = new HashSet<Path>();
+
+  private final WatchService watchService;
+
+  private final Path workingDirectoryPath;
+
+  private final String xlsFileName;
+
+  /**
+   * Constructor.
+   *
+   * @param xlsFileName
+   *          the name of the workbook file.
+   * @param workingDirectory
+   *          the working directory.
+   * @param fileRegularExpression
+   *          the regular expression of the properties file names.
+   * @param languages
+   *          the languages of the export.
+   * @param exportOptions
+   *          the optional settings of the export. The incremental setting is not supported, the
+   *          unchanged bundles are taken from the memory.
+   * @param debounceMillis
+   *          the time in milliseconds without events after that the workbook is updated.
+   * @param errorHandler
+   *          receives the errors of the updates. The watching goes on after an error and the next
+   *          update reads all bundles.
+   *
+   * @throws IllegalArgumentException
+   *           if the debounceMillis is negative or the incremental setting is enabled.
+   */
+  public ExportWatcher(final String xlsFileName, final String workingDirectory,
+      final String fileRegularExpression, final String[] languages,
+      final ExportOptions exportOptions, final long debounceMillis,
+      final Consumer<RuntimeException> errorHandler) {
+    if (debounceMillis < 0) {
+      throw new IllegalArgumentException("The debounceMillis is negative. Cannot be negative.");
+    }
+    if (exportOptions.incremental) {
+      throw new IllegalArgumentException("The watch mode cannot be combined with incremental.");
+    }
+    this.xlsFileName = xlsFileName;
+    this.languages = languages.clone();
+    this.exportOptions = exportOptions;
+    this.debounceMillis = debounceMillis;
+    this.errorHandler = errorHandler;
+    File workingDirectoryFile = new File(workingDirectory);
+    workingDirectoryPath = workingDirectoryFile.toPath();
+    fileWalker = new PropertiesFileWalker(workingDirectoryFile, fileRegularExpression,
+        Arrays.asList(exportOptions.excludeDirectories), exportOptions.parallelism);
+    bundleGrouper = new BundleGrouper(languages, workingDirectory);
+    bundleReader = new PropertiesBundleReader(languages);
+    deltaFilter = exportOptions.baseline == null
+        ? null
+        : DeltaFilter.load(exportOptions.baseline, fileRegularExpression, languages,
+            exportOptions);
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to create watch service for [" + workingDirectory
+          + "].", e);
+    }
+  }
+
+  private Changes awaitChanges() throws InterruptedException {
+    Changes changes = new Changes();
+    changes.reloadAll = reloadRequired;
+    changes.rescan = reloadRequired;
+    WatchKey watchKey = watchService.take();
+    while (watchKey != null) {
+      collectChanges(watchKey, changes);
+      watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+    }
+    return changes;
+  }
+
+  /**
+   * Stops the watching. The {@link #watch()} method returns after the running update.
+   */
+  @Override
+  public void close() {
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to close watch service.", e);
+    }
+  }
+
+  private void collectChange(final Path path, final WatchEvent.Kind<?> kind,
+      final Changes changes) {
+    if (watchedDirectories.contains(path) || Files.isDirectory(path)) {
+      if ((kind != StandardWatchEventKinds.ENTRY_MODIFY) && !fileWalker.isExcluded(path)) {
+        changes.rescan = true;
+      }
+    } else if (fileWalker.isMatching(path)) {
+      changes.files.add(path);
+    }
+  }
+
+  private void collectChanges(final WatchKey watchKey, final Changes changes) {
+    Path directory = (Path) watchKey.watchable();
+    for (WatchEvent<?> event : watchKey.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        changes.reloadAll = true;
+        changes.rescan = true;
+      } else {
+        collectChange(directory.resolve((Path) event.context()), event.kind(), changes);
+      }
+    }
+    if (!watchKey.reset()) {
+      // the directory was deleted.
+      watchedDirectories.remove(directory);
+      changes.rescan = true;
+    }
+  }
+
+  private void export(final Changes changes) {
+    MetricsCollector metricsCollector = new MetricsCollector(exportOptions.listener);
+
+    Set<String> changedBundles = metricsCollector.timeAndGet(ConversionPhase.FILE_SCAN,
+        () -> updateFiles(changes));
+    Map<String, List<File>> newBundles = metricsCollector.timeAndGet(ConversionPhase.FILE_SCAN,
+        () -> bundleGrouper.groupFiles(files));
+    metricsCollector.completePhase(ConversionPhase.FILE_SCAN);
+
+    Map<String, TranslationTable> newBundleTables = new LinkedHashMap<String, TranslationTable>();
+    newBundles.forEach((fileAccess, bundleFiles) -> {
+      TranslationTable table = bundleTables.get(fileAccess);
+      if (changes.reloadAll || (table == null) || changedBundles.contains(fileAccess)
+          || !bundleFiles.equals(bundles.get(fileAccess))) {
+        table = readBundle(metricsCollector, fileAccess, bundleFiles);
+      }
+      newBundleTables.put(fileAccess, table);
+    });
+    metricsCollector.completePhase(ConversionPhase.PARSE);
+
+    I18nConverterImpl.exportToFile(xlsFileName, languages, exportOptions, metricsCollector,
+        (translationWriter) -> writeTables(metricsCollector, newBundleTables, translationWriter));
+
+    bundles = newBundles;
+    bundleTables = newBundleTables;
+    metricsCollector.finish();
+  }
+
+  private TranslationTable readBundle(final MetricsCollector metricsCollector,
+      final String fileAccess, final List<File> bundleFiles) {
+    TranslationTable table = metricsCollector.timeAndGet(ConversionPhase.PARSE,
+        () -> bundleReader.readBundle(fileAccess, bundleFiles));
+    for (File file : bundleFiles) {
+      metricsCollector.fileProcessed(file.getPath(), file.length());
+    }
+    return table;
+  }
+
+  private void registerDirectories() throws IOException {
+    Files.walkFileTree(workingDirectoryPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+        Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+
+          @Override
+          public FileVisitResult preVisitDirectory(final Path dir,
+              final BasicFileAttributes attrs) throws IOException {
+            if (!dir.equals(workingDirectoryPath) && fileWalker.isExcluded(dir)) {
+              return FileVisitResult.SKIP_SUBTREE;
+            }
+            if (watchedDirectories.add(dir)) {
+              dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                  StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(final Path file, final IOException exc)
+              throws IOException {
+            if (exc instanceof FileSystemLoopException) {
+              return FileVisitResult.CONTINUE;
+            }
+            throw exc;
+          }
+        });
+  }
+
+  /**
+   * Updates the properties files.
+   *
+   * @return the file accesses of the bundles whose files changed.
+   */
+  private Set<String> updateFiles(final Changes changes) {
+    if (changes.rescan) {
+      try {
+        registerDirectories();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to watch directory [" + workingDirectoryPath + "].",
+            e);
+      }
+      files.clear();
+      files.addAll(fileWalker.walk());
+    }
+    Set<String> changedBundles = new HashSet<String>();
+    for (Path path : changes.files) {
+      File file = path.toFile();
+      changedBundles.add(bundleGrouper.calculateFileAccess(file));
+      if (Files.isRegularFile(path)) {
+        files.add(file);
+      } else {
+        files.remove(file);
+      }
+    }
+    return changedBundles;
+  }
+
+  /**
+   * Exports the properties files, then updates the workbook after every change until this watcher
+   * is closed or the thread is interrupted. The errors of the first export are thrown, the errors
+   * of the updates are passed to the error handler.
+   */
+  public void watch() {
+    Changes initialChanges = new Changes();
+    initialChanges.reloadAll = true;
+    initialChanges.rescan = true;
+    export(initialChanges);
+    try {
+      while (true) {
+        Changes changes = awaitChanges();
+        try {
+          export(changes);
+          reloadRequired = false;
+        } catch (RuntimeException e) {
+          reloadRequired = true;
+          errorHandler.accept(e);
+        }
+      }
+    } catch (ClosedWatchServiceException e) {
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeTables(final MetricsCollector metricsCollector,
+      final Map<String, TranslationTable> newBundleTables,
+      final TranslationWriter translationWriter) {
+    for (TranslationTable bundleTable : newBundleTables.values()) {
+      TranslationTable table = deltaFilter == null ? bundleTable : deltaFilter.filter(bundleTable);
+      metricsCollector.time(ConversionPhase.SHEET_BUILD, () -> translationWriter.writeTable(table));
+      metricsCollector.rowsProcessed(table.getRowCount());
+    }
+    metricsCollector.completePhase(ConversionPhase.SHEET_BUILD);
+  }
+
+}
@@ -16,13 +16,12 @@
 package org.everit.i18n.propsxlsconverter.internal.workbook;
 
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-
 /**
- * Helper class to read, insert, and update row in the application.
+ * Helper class to define the layout of the workbook that is shared by the reader and the writer.
+ * The rows can be sharded into several sheets, every sheet starts with the same header row.
  */
 public abstract class AbstractWorkbook {
 
@@ -32,15 +31,21 @@ public abstract class AbstractWorkbook {
 
   protected static final int COLUMN_PROPERTY_KEY = 1;
 
-  protected static final String SHEET_NAME = "translations";
+  protected static final String HEADER_DEFAULT_LANG = "Default value";
 
-  protected final Map<String, Integer> langColumnNumber = new LinkedHashMap<>();
+  protected static final String HEADER_PROPERTIES_FILE_NAME = "Properties file (default language)";
 
-  protected int rowNumber = 0;
+  protected static final String HEADER_PROPERTY_KEY = "Key";
 
-  protected final HSSFSheet sheet;
+  /**
+   * The name of the first sheet. The next sheets of the same shard get a <code>_2</code>,
+   * <code>_3</code>, ... suffix.
+   */
+  protected static final String SHEET_NAME = "translations";
+
+  protected static final String XLSX_EXTENSION = ".xlsx";
 
-  protected final HSSFWorkbook workbook;
+  protected final Map<String, Integer> langColumnNumber = new LinkedHashMap<>();
 
   protected final String xlsFileName;
 
@@ -49,19 +54,14 @@ public abstract class AbstractWorkbook {
    */
   public AbstractWorkbook(final String xlsFileName) {
     this.xlsFileName = xlsFileName;
-    workbook = initWorkbook();
-    sheet = initSheet();
   }
 
   public String[] getLanguages() {
     return langColumnNumber.keySet().toArray(new String[langColumnNumber.size()]);
   }
 
-  public int getLastRowNumber() {
-    return sheet.getLastRowNum();
+  protected boolean isXlsx() {
+    return xlsFileName.toLowerCase(Locale.ENGLISH).endsWith(XLSX_EXTENSION);
   }
 
-  protected abstract HSSFSheet initSheet();
-
-  protected abstract HSSFWorkbook initWorkbook();
 }
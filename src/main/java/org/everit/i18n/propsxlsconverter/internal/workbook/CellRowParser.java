@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.workbook;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+
+/**
+ * Converts the cell values of the rows of a file with the workbook layout into the header and the
+ * rows of a {@link WorkbookRowHandler}. A file can contain several sheets, every sheet starts with
+ * the header row. The sheets that are not named {@value #SHEET_NAME} and do not start with the
+ * header row of the translations are skipped.
+ */
+public class CellRowParser extends AbstractWorkbook {
+
+  private final WorkbookRowHandler handler;
+
+  /**
+   * The languages passed to the handler or <code>null</code> if no header is processed yet.
+   */
+  private String[] headerLanguages;
+
+  private boolean sheetHeaderProcessed = false;
+
+  private String sheetName = SHEET_NAME;
+
+  private boolean sheetSkipped = false;
+
+  /**
+   * Constructor.
+   *
+   * @param fileName
+   *          the name of the parsed file.
+   * @param handler
+   *          the handler of the rows.
+   */
+  public CellRowParser(final String fileName, final WorkbookRowHandler handler) {
+    super(fileName);
+    this.handler = handler;
+  }
+
+  private static String getCell(final List<String> cells, final int columnNumber) {
+    if (columnNumber >= cells.size()) {
+      return null;
+    }
+    return cells.get(columnNumber);
+  }
+
+  private static String getCellOrEmpty(final List<String> cells, final int columnNumber) {
+    String value = getCell(cells, columnNumber);
+    return value == null ? "" : value;
+  }
+
+  private void processHeader(final List<String> cells) {
+    sheetHeaderProcessed = true;
+    if (!SHEET_NAME.equals(sheetName)
+        && !HEADER_PROPERTIES_FILE_NAME.equals(getCell(cells, COLUMN_PROPERTIES_FILE_NAME))) {
+      // not a sheet of the translations
+      sheetSkipped = true;
+      return;
+    }
+
+    int columnNumber = COLUMN_DEFAULT_LANG + 1;
+    String lang = null;
+    while ((lang = getCell(cells, columnNumber)) != null) {
+      if (!lang.trim().isEmpty()) {
+        langColumnNumber.put(lang, columnNumber);
+      }
+      columnNumber++;
+    }
+
+    String[] languages = getLanguages();
+    if (headerLanguages == null) {
+      headerLanguages = languages;
+      handler.handleHeader(languages);
+    } else if (!Arrays.equals(headerLanguages, languages)) {
+      throw new RuntimeException("The languages of the sheet [" + sheetName + "] differ from "
+          + "the languages of the previous sheets in the file [" + xlsFileName + "].");
+    }
+  }
+
+  /**
+   * Processes the next row of the current sheet. The first row is the header.
+   *
+   * @param cells
+   *          the cell values of the row, the missing cells are <code>null</code>.
+   */
+  public void processRow(final List<String> cells) {
+    if (sheetSkipped) {
+      return;
+    }
+    if (!sheetHeaderProcessed) {
+      processHeader(cells);
+      return;
+    }
+
+    String propertiesFileName = getCell(cells, COLUMN_PROPERTIES_FILE_NAME);
+    if ((propertiesFileName == null) || propertiesFileName.isEmpty()) {
+      // empty row
+      return;
+    }
+
+    HashMap<String, String> langValues = new HashMap<String, String>();
+    langColumnNumber.forEach((key, value) -> {
+      langValues.put(key, getCellOrEmpty(cells, value));
+    });
+
+    handler.handleRow(new WorkbookRowDTO()
+        .propertiesFile(propertiesFileName)
+        .propKey(getCellOrEmpty(cells, COLUMN_PROPERTY_KEY))
+        .defaultLangValue(getCellOrEmpty(cells, COLUMN_DEFAULT_LANG))
+        .langValues(langValues));
+  }
+
+  /**
+   * Starts the next sheet. Files without sheets are processed as one sheet named
+   * {@value #SHEET_NAME}.
+   *
+   * @param nextSheetName
+   *          the name of the sheet.
+   */
+  public void startSheet(final String nextSheetName) {
+    sheetName = nextSheetName;
+    sheetHeaderProcessed = false;
+    sheetSkipped = false;
+    langColumnNumber.clear();
+  }
+
+}
@@ -15,86 +15,196 @@
  */
 package org.everit.i18n.propsxlsconverter.internal.workbook;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.everit.i18n.propsxlsconverter.internal.concurrent.FutureResults;
+import org.everit.i18n.propsxlsconverter.internal.format.TranslationReader;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 /**
- * Helper class to help manipulate workbook with read.
+ * Helper class to read the rows of a workbook in streaming mode. XLS files are processed with the
+ * event API of HSSF, XLSX files with a SAX parser, so the object model of the workbook is never
+ * loaded into the memory. The rows of all sheets are read in the order of the sheets.
+ *
+ * <p>
+ * A workbook that is read from a stream instead of a file is buffered in the memory first,
+ * because both formats need random access to the parts of the workbook.
  */
-public class WorkbookReader extends AbstractWorkbook {
+public class WorkbookReader extends AbstractWorkbook implements TranslationReader {
+
+  private static final int PENDING_SHEETS_PER_THREAD = 2;
+
+  private final InputStream in;
 
   /**
    * Constructor.
    *
+   * @param in
+   *          the stream to read or <code>null</code> to read the file. The stream is closed by the
+   *          reader.
    * @param xlsFileName
-   *          the file name of the xls to read
+   *          the file name of the xls or xlsx to read. The workbook is read in XLSX format if the
+   *          file name ends with {@value #XLSX_EXTENSION}.
    */
-  public WorkbookReader(final String xlsFileName) {
+  public WorkbookReader(final InputStream in, final String xlsFileName) {
     super(xlsFileName);
+    this.in = in;
+  }
 
-    HSSFRow firstRow = sheet.getRow(rowNumber++);
+  private NPOIFSFileSystem openXls() throws IOException {
+    if (in == null) {
+      return new NPOIFSFileSystem(new File(xlsFileName), true);
+    }
+    try (InputStream xlsIn = in) {
+      return new NPOIFSFileSystem(xlsIn);
+    }
+  }
 
-    int columnNumber = COLUMN_DEFAULT_LANG + 1;
-    HSSFCell cell = null;
-    while (((cell = firstRow.getCell(columnNumber)) != null)) {
-      if (!cell.getStringCellValue().trim().isEmpty()) {
-        String lang = cell.getStringCellValue();
-        langColumnNumber.put(lang, columnNumber);
-        columnNumber++;
-      }
+  private OPCPackage openXlsx() throws IOException, OpenXML4JException {
+    if (in == null) {
+      return OPCPackage.open(new File(xlsFileName), PackageAccess.READ);
+    }
+    try (InputStream xlsxIn = in) {
+      return OPCPackage.open(xlsxIn);
     }
+  }
 
+  private void parseXlsxSheet(final InputStream sheet, final StylesTable stylesTable,
+      final ReadOnlySharedStringsTable sharedStringsTable,
+      final Consumer<List<String>> rowConsumer)
+      throws IOException, SAXException, ParserConfigurationException {
+    XSSFSheetXMLHandler sheetHandler = new XSSFSheetXMLHandler(stylesTable, sharedStringsTable,
+        new XlsxRowHandler(rowConsumer), new DataFormatter(), false);
+    XMLReader xmlReader = SAXHelper.newXMLReader();
+    xmlReader.setContentHandler(sheetHandler);
+    xmlReader.parse(new InputSource(sheet));
   }
 
   /**
-   * Get next row in the sheet. Read rows between second to last row.
+   * Reads the workbook and passes the header and the rows to the handler. The header is passed
+   * only once, all sheets must have the same languages. The handler is called on the calling
+   * thread in the order of the sheets.
    *
-   * @return the {@link WorkbookRowDTO}.
+   * @param handler
+   *          the handler of the rows.
+   * @param parallelism
+   *          the number of threads that parse the sheets of an XLSX workbook. At most
+   *          {@value #PENDING_SHEETS_PER_THREAD} parsed sheets per thread are kept in the memory
+   *          until the handler gets their rows. XLS workbooks are always read by the calling
+   *          thread.
    */
-  public WorkbookRowDTO getNextRow() {
-    if (sheet == null) {
-      throw new RuntimeException("Not opened workbook yet.");
+  @Override
+  public void readRows(final WorkbookRowHandler handler, final int parallelism) {
+    CellRowParser cellRowParser = new CellRowParser(xlsFileName, handler);
+    if (isXlsx()) {
+      readXlsx(cellRowParser, parallelism);
+    } else {
+      readXls(cellRowParser);
     }
+  }
 
-    HSSFRow row = sheet.getRow(rowNumber++);
-    HSSFCell propertiesFileNameCell = row.getCell(COLUMN_PROPERTIES_FILE_NAME);
-    String propertiesFileName = propertiesFileNameCell.getStringCellValue();
-
-    HSSFCell propKeyCell = row.getCell(COLUMN_PROPERTY_KEY);
-    HSSFCell defaultLangCell = row.getCell(COLUMN_DEFAULT_LANG);
-    HashMap<String, String> langValues = new HashMap<String, String>();
-
-    langColumnNumber.forEach((key, value) -> {
-      HSSFCell langCell = row.getCell(value);
-      String langValue = langCell == null ? "" : langCell.getStringCellValue();
-      langValues.put(key, langValue);
-    });
-
-    return new WorkbookRowDTO()
-        .propertiesFile(propertiesFileName)
-        .propKey(propKeyCell.getStringCellValue())
-        .defaultLangValue(defaultLangCell.getStringCellValue())
-        .langValues(langValues);
+  private void readXls(final CellRowParser cellRowParser) {
+    try (NPOIFSFileSystem fileSystem = openXls()) {
+      XlsRowListener xlsRowListener = new XlsRowListener(cellRowParser::startSheet,
+          cellRowParser::processRow);
+      HSSFRequest request = new HSSFRequest();
+      request.addListenerForAllRecords(xlsRowListener.getRequestListener());
+      new HSSFEventFactory().processWorkbookEvents(request, fileSystem.getRoot());
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open XLS file [" + xlsFileName + "].", e);
+    }
   }
 
-  @Override
-  protected HSSFSheet initSheet() {
-    return workbook.getSheet(SHEET_NAME);
+  private void readXlsx(final CellRowParser cellRowParser, final int parallelism) {
+    OPCPackage opcPackage = null;
+    try {
+      opcPackage = openXlsx();
+      XSSFReader xssfReader = new XSSFReader(opcPackage);
+      StylesTable stylesTable = xssfReader.getStylesTable();
+      ReadOnlySharedStringsTable sharedStringsTable = new ReadOnlySharedStringsTable(opcPackage);
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+      if (parallelism > 1) {
+        readXlsxSheetsInParallel(sheets, stylesTable, sharedStringsTable, cellRowParser,
+            parallelism);
+      } else {
+        while (sheets.hasNext()) {
+          try (InputStream sheet = sheets.next()) {
+            cellRowParser.startSheet(sheets.getSheetName());
+            parseXlsxSheet(sheet, stylesTable, sharedStringsTable, cellRowParser::processRow);
+          }
+        }
+      }
+    } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+      throw new RuntimeException("Failed to open XLSX file [" + xlsFileName + "].", e);
+    } finally {
+      if (opcPackage != null) {
+        opcPackage.revert();
+      }
+    }
   }
 
-  @Override
-  protected HSSFWorkbook initWorkbook() {
-    try (FileInputStream file = new FileInputStream(xlsFileName)) {
-      return new HSSFWorkbook(file);
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to open XLS file [" + xlsFileName + "].", e);
+  private List<List<String>> readXlsxSheet(final InputStream sheet,
+      final StylesTable stylesTable, final ReadOnlySharedStringsTable sharedStringsTable)
+      throws IOException, SAXException, ParserConfigurationException {
+    List<List<String>> rows = new ArrayList<List<String>>();
+    try (InputStream sheetInputStream = sheet) {
+      parseXlsxSheet(sheetInputStream, stylesTable, sharedStringsTable,
+          (cells) -> rows.add(new ArrayList<String>(cells)));
+    }
+    return rows;
+  }
+
+  /**
+   * Parses the sheets with several threads and passes their rows to the parser on the calling
+   * thread in the order of the sheets.
+   */
+  private void readXlsxSheetsInParallel(final XSSFReader.SheetIterator sheets,
+      final StylesTable stylesTable, final ReadOnlySharedStringsTable sharedStringsTable,
+      final CellRowParser cellRowParser, final int parallelism) {
+    ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+    try {
+      int maxPendingSheets = parallelism * PENDING_SHEETS_PER_THREAD;
+      Deque<String> pendingSheetNames = new ArrayDeque<>();
+      Deque<Future<List<List<String>>>> pendingSheets = new ArrayDeque<>();
+      while (sheets.hasNext() || !pendingSheets.isEmpty()) {
+        while (sheets.hasNext() && (pendingSheets.size() < maxPendingSheets)) {
+          InputStream sheet = sheets.next();
+          pendingSheetNames.add(sheets.getSheetName());
+          pendingSheets.add(executorService.submit(
+              () -> readXlsxSheet(sheet, stylesTable, sharedStringsTable)));
+        }
+        List<List<String>> rows = FutureResults.get(pendingSheets.removeFirst());
+        cellRowParser.startSheet(pendingSheetNames.removeFirst());
+        rows.forEach(cellRowParser::processRow);
+      }
+    } finally {
+      executorService.shutdownNow();
     }
   }
 
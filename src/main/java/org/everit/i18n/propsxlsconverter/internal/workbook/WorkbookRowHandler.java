@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.workbook;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+
+/**
+ * Receives the content of a workbook while the {@link WorkbookReader} parses it.
+ */
+public interface WorkbookRowHandler {
+
+  /**
+   * Called once with the languages of the header row before the first row.
+   *
+   * @param languages
+   *          the languages in the order of their columns.
+   */
+  void handleHeader(String[] languages);
+
+  /**
+   * Called for every row in the order of the workbook.
+   *
+   * @param row
+   *          the parsed row.
+   */
+  void handleRow(WorkbookRowDTO row);
+
+}
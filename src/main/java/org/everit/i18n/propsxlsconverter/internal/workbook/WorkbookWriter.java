@@ -15,128 +15,329 @@
  */
 package org.everit.i18n.propsxlsconverter.internal.workbook;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.commons.io.IOUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.format.TranslationWriter;
+import org.everit.i18n.propsxlsconverter.internal.table.TranslationTable;
 
 /**
- * Helper class to help manipulate workbook with create, insert, update and to save workbook.
+ * Helper class to help manipulate workbook with create, insert and to save workbook. The rows are
+ * written sequentially, so an XLSX workbook is streamed through a {@link SXSSFWorkbook} that keeps
+ * only the last {@value #ROW_ACCESS_WINDOW_SIZE} rows of every sheet in the memory.
+ *
+ * <p>
+ * The rows can be sharded into several sheets by the top level directory of their properties file
+ * and by a maximum number of rows per sheet. The first sheet of a shard is created when its first
+ * row arrives. A new sheet of a shard is started with a <code>_2</code>, <code>_3</code>, ...
+ * suffix when the current one is full. The sheets are never longer than the row limit of the file
+ * format.
  */
-public class WorkbookWriter extends AbstractWorkbook {
+public class WorkbookWriter extends AbstractWorkbook implements TranslationWriter {
+
+  /**
+   * The sheets of the rows that belong to the same shard.
+   */
+  private static final class Shard {
+
+    private final String name;
+
+    private int rowNumber;
+
+    private Sheet sheet;
+
+    private int sheetCount;
+
+    Shard(final String name) {
+      this.name = name;
+    }
+
+  }
+
+  private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+  private static final int ROW_ACCESS_WINDOW_SIZE = 100;
+
+  private static final String SHEET_NAME_DUPLICATE_SEPARATOR = "~";
+
+  private static final String SHEET_NAME_PART_SEPARATOR = "_";
+
+  private Shard lastShard;
+
+  /**
+   * The properties file of the last row. The rows of a properties file are written after each
+   * other, so the shard is calculated only once per properties file.
+   */
+  private String lastShardPropertiesFile;
+
+  private final int maxRowsPerSheet;
+
+  private final OutputStream out;
+
+  private final boolean shardByDirectory;
+
+  private final Map<String, Shard> shards = new HashMap<String, Shard>();
+
+  private final Workbook workbook;
+
+  /**
+   * Constructor that writes all rows into one sheet.
+   *
+   * @param out
+   *          the stream that the workbook is written into when it is finished. The stream is
+   *          closed by the writer.
+   * @param xlsFileName
+   *          the file name of the xls to write. The workbook is written in XLSX format if the file
+   *          name ends with {@value #XLSX_EXTENSION}.
+   * @param languages
+   *          the languages to be processed
+   * @param sharedStringsTable
+   *          <code>true</code> if the strings of an XLSX workbook should be written into the shared
+   *          strings table instead of inline. XLS workbooks always use a shared strings table.
+   */
+  public WorkbookWriter(final OutputStream out, final String xlsFileName, final String[] languages,
+      final boolean sharedStringsTable) {
+    this(out, xlsFileName, languages, sharedStringsTable, 0, false);
+  }
 
   /**
    * Constructor.
    *
+   * @param out
+   *          the stream that the workbook is written into when it is finished. The stream is
+   *          closed by the writer.
    * @param xlsFileName
-   *          the file name of the xls to write
+   *          the file name of the xls to write. The workbook is written in XLSX format if the file
+   *          name ends with {@value #XLSX_EXTENSION}.
    * @param languages
    *          the languages to be processed
+   * @param sharedStringsTable
+   *          <code>true</code> if the strings of an XLSX workbook should be written into the shared
+   *          strings table instead of inline. XLS workbooks always use a shared strings table.
+   * @param maxRowsPerSheet
+   *          the maximum number of rows in a sheet without the header row or 0 for the limit of
+   *          the file format.
+   * @param shardByDirectory
+   *          <code>true</code> if the rows of every top level directory should be written into
+   *          their own sheets. The sheet is named after the directory. The rows of the properties
+   *          files directly in the working directory are written into the
+   *          {@value #SHEET_NAME} sheet.
    */
-  public WorkbookWriter(final String xlsFileName, final String[] languages) {
+  public WorkbookWriter(final OutputStream out, final String xlsFileName, final String[] languages,
+      final boolean sharedStringsTable, final int maxRowsPerSheet,
+      final boolean shardByDirectory) {
 
     super(xlsFileName);
-
-    HSSFRow firstRow = sheet.createRow(rowNumber++);
-
-    HSSFCell firstCell = firstRow.createCell(COLUMN_PROPERTIES_FILE_NAME);
-    firstCell.setCellValue("Properties file (default language)");
-
-    HSSFCell secondCell = firstRow.createCell(COLUMN_PROPERTY_KEY);
-    secondCell.setCellValue("Key");
-
-    HSSFCell thirdCell = firstRow.createCell(COLUMN_DEFAULT_LANG);
-    thirdCell.setCellValue("Default value");
+    this.out = out;
+    workbook = initWorkbook(sharedStringsTable);
 
     int nextColumnNumber = COLUMN_DEFAULT_LANG + 1;
     for (String lang : languages) {
-      langColumnNumber.put(lang, nextColumnNumber);
-      HSSFCell cell = firstRow.createCell(nextColumnNumber++);
-      cell.setCellValue(lang);
+      langColumnNumber.put(lang, nextColumnNumber++);
     }
 
+    SpreadsheetVersion spreadsheetVersion = isXlsx()
+        ? SpreadsheetVersion.EXCEL2007
+        : SpreadsheetVersion.EXCEL97;
+    int formatMaxRowsPerSheet = spreadsheetVersion.getMaxRows() - 1;
+    this.maxRowsPerSheet = (maxRowsPerSheet > 0)
+        ? Math.min(maxRowsPerSheet, formatMaxRowsPerSheet)
+        : formatMaxRowsPerSheet;
+    this.shardByDirectory = shardByDirectory;
   }
 
-  @Override
-  protected final HSSFSheet initSheet() {
-    return workbook.createSheet(SHEET_NAME);
+  private void createCell(final Row row, final int columnNumber, final String value) {
+    Cell cell = row.createCell(columnNumber);
+    if ((value != null) && !value.isEmpty()) {
+      cell.setCellValue(value);
+    }
   }
 
-  @Override
-  protected final HSSFWorkbook initWorkbook() {
-    return new HSSFWorkbook();
+  /**
+   * Creates a new row at the end of the sheet of the shard of a properties file. A new sheet is
+   * started if the shard has no sheet yet or the sheet is full.
+   */
+  private Row createRow(final String propertiesFile) {
+    Shard shard = getShard(propertiesFile);
+    if ((shard.sheet == null) || (shard.rowNumber > maxRowsPerSheet)) {
+      createSheet(shard);
+    }
+    return shard.sheet.createRow(shard.rowNumber++);
+  }
+
+  private void createSheet(final Shard shard) {
+    shard.sheetCount++;
+    shard.sheet = workbook.createSheet(createSheetName(shard));
+    shard.rowNumber = 0;
+
+    Row headerRow = shard.sheet.createRow(shard.rowNumber++);
+    createCell(headerRow, COLUMN_PROPERTIES_FILE_NAME, HEADER_PROPERTIES_FILE_NAME);
+    createCell(headerRow, COLUMN_PROPERTY_KEY, HEADER_PROPERTY_KEY);
+    createCell(headerRow, COLUMN_DEFAULT_LANG, HEADER_DEFAULT_LANG);
+    langColumnNumber.forEach((lang, columnNumber) -> {
+      createCell(headerRow, columnNumber, lang);
+    });
   }
 
   /**
-   * Insert a new row to workbook.
-   *
-   * @param propertiesFile
-   *          the properties file column value.
-   * @param propKey
-   *          the property key column value.
-   * @param lang
-   *          the lang to find the column.
-   * @param propValue
-   *          the propety value.
-   * @return the inserted row number.
+   * Creates a sheet name that is not used yet in the workbook.
    */
-  public int insertRow(final String propertiesFile, final String propKey, final String lang,
-      final String propValue) {
-    int insertedRowNumber = rowNumber;
-    rowNumber++;
+  private String createSheetName(final Shard shard) {
+    String suffix = shard.sheetCount == 1
+        ? ""
+        : SHEET_NAME_PART_SEPARATOR + shard.sheetCount;
+    String sheetName = truncateSheetName(shard.name, suffix);
+    int duplicateCount = 1;
+    while (workbook.getSheetIndex(sheetName) >= 0) {
+      duplicateCount++;
+      sheetName = truncateSheetName(shard.name,
+          suffix + SHEET_NAME_DUPLICATE_SEPARATOR + duplicateCount);
+    }
+    return sheetName;
+  }
 
-    HSSFRow row = sheet.createRow(insertedRowNumber);
+  private Shard getShard(final String propertiesFile) {
+    if (!propertiesFile.equals(lastShardPropertiesFile)) {
+      lastShardPropertiesFile = propertiesFile;
+      lastShard = shards.computeIfAbsent(getShardName(propertiesFile), Shard::new);
+    }
+    return lastShard;
+  }
 
-    HSSFCell first = row.createCell(COLUMN_PROPERTIES_FILE_NAME);
-    first.setCellValue(propertiesFile);
+  private String getShardName(final String propertiesFile) {
+    if (!shardByDirectory) {
+      return SHEET_NAME;
+    }
+    Path path = Paths.get(propertiesFile);
+    if (path.getNameCount() < 2) {
+      return SHEET_NAME;
+    }
+    return WorkbookUtil.createSafeSheetName(path.getName(0).toString());
+  }
 
-    HSSFCell second = row.createCell(COLUMN_PROPERTY_KEY);
-    second.setCellValue(propKey);
+  private Workbook initWorkbook(final boolean sharedStringsTable) {
+    if (isXlsx()) {
+      return new SXSSFWorkbook(new XSSFWorkbook(), ROW_ACCESS_WINDOW_SIZE, true,
+          sharedStringsTable);
+    }
+    return new HSSFWorkbook();
+  }
 
-    row.createCell(COLUMN_DEFAULT_LANG);
+  private String truncateSheetName(final String name, final String suffix) {
+    int maxNameLength = MAX_SHEET_NAME_LENGTH - suffix.length();
+    if (name.length() > maxNameLength) {
+      return name.substring(0, maxNameLength) + suffix;
+    }
+    return name + suffix;
+  }
 
-    int nextColumnNumber = COLUMN_DEFAULT_LANG + 1;
-    for (int i = 0; i < getLanguages().length; i++) {
-      row.createCell(nextColumnNumber++);
+  @Override
+  public void abort() {
+    IOUtils.closeQuietly(out);
+    IOUtils.closeQuietly(workbook);
+    if (workbook instanceof SXSSFWorkbook) {
+      ((SXSSFWorkbook) workbook).dispose();
     }
+  }
 
-    updateRow(insertedRowNumber, lang, propValue);
+  @Override
+  public void finish() {
+    writeWorkbook();
+  }
 
-    return insertedRowNumber;
+  /**
+   * Writes the workbook into the stream and closes the stream.
+   */
+  public void writeWorkbook() {
+    if (workbook.getNumberOfSheets() == 0) {
+      // the workbook has a sheet even if there are no rows.
+      createSheet(new Shard(SHEET_NAME));
+    }
+    try (OutputStream workbookOut = out) {
+      workbook.write(workbookOut);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to save XLS file [" + xlsFileName + "].", e);
+    } finally {
+      try {
+        workbook.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to close XLS file [" + xlsFileName + "].", e);
+      }
+      if (workbook instanceof SXSSFWorkbook) {
+        ((SXSSFWorkbook) workbook).dispose();
+      }
+    }
   }
 
   /**
-   * Update row.
+   * Append a new row to the end of the sheet of its shard.
    *
-   * @param rowNumber
-   *          the row number which want to update.
-   * @param lang
-   *          the lang to find the column.
-   * @param propValue
-   *          the propety value.
+   * @param workbookRow
+   *          the values of the row. The missing values are written as empty cells.
    */
-  public void updateRow(final int rowNumber, final String lang, final String propValue) {
-    HSSFRow row = sheet.getRow(rowNumber);
-    if ("".equals(lang)) {
-      row.getCell(COLUMN_DEFAULT_LANG).setCellValue(propValue);
-    } else {
-      Integer columnNumber = langColumnNumber.get(lang);
-      row.getCell(columnNumber).setCellValue(propValue);
-    }
+  @Override
+  public void writeRow(final WorkbookRowDTO workbookRow) {
+    Row row = createRow(workbookRow.propertiesFile);
+
+    createCell(row, COLUMN_PROPERTIES_FILE_NAME, workbookRow.propertiesFile);
+    createCell(row, COLUMN_PROPERTY_KEY, workbookRow.propKey);
+    createCell(row, COLUMN_DEFAULT_LANG, workbookRow.defaultLangValue);
+
+    langColumnNumber.forEach((lang, columnNumber) -> {
+      createCell(row, columnNumber, workbookRow.langValues.get(lang));
+    });
   }
 
   /**
-   * Write workbook to file.
+   * Appends the rows of a translation table to the end of the sheet of their shard in one pass
+   * without creating row objects.
+   *
+   * @param table
+   *          the translations of a bundle. The missing values are written as empty cells, the
+   *          languages that are not exported are skipped.
    */
-  public void writeWorkbookToFile() {
-    try (FileOutputStream out = new FileOutputStream(xlsFileName)) {
-      workbook.close();
-      workbook.write(out);
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to save XLS file [" + xlsFileName + "].", e);
+  @Override
+  public void writeTable(final TranslationTable table) {
+    String propertiesFile = table.getPropertiesFile();
+    int[] tableColumns = new int[langColumnNumber.size()];
+    int[] columnNumbers = new int[langColumnNumber.size()];
+    int langCount = 0;
+    for (Entry<String, Integer> langColumn : langColumnNumber.entrySet()) {
+      tableColumns[langCount] = table.getColumn(langColumn.getKey());
+      columnNumbers[langCount] = langColumn.getValue();
+      langCount++;
+    }
+
+    for (int i = 0; i < table.getRowCount(); i++) {
+      Row row = createRow(propertiesFile);
+
+      createCell(row, COLUMN_PROPERTIES_FILE_NAME, propertiesFile);
+      createCell(row, COLUMN_PROPERTY_KEY, table.getKey(i));
+      createCell(row, COLUMN_DEFAULT_LANG,
+          table.getValue(i, TranslationTable.DEFAULT_LANG_COLUMN));
+
+      for (int j = 0; j < langCount; j++) {
+        String value = tableColumns[j] < 0
+            ? null
+            : table.getValue(i, tableColumns[j]);
+        createCell(row, columnNumbers[j], value);
+      }
     }
   }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.workbook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+
+/**
+ * Collects the cell values of the rows of the sheets from the record stream of an XLS file, so the
+ * workbook object model is never built.
+ */
+class XlsRowListener implements HSSFListener {
+
+  private final List<BoundSheetRecord> boundSheetRecords = new ArrayList<>();
+
+  private final List<String> cells = new ArrayList<>();
+
+  private final FormatTrackingHSSFListener formatTrackingListener;
+
+  private BoundSheetRecord[] orderedBoundSheetRecords;
+
+  private final Consumer<List<String>> rowConsumer;
+
+  private int sheetIndex = -1;
+
+  private boolean sheetProcessed = false;
+
+  private final Consumer<String> sheetStartConsumer;
+
+  private SSTRecord sstRecord;
+
+  /**
+   * Constructor.
+   *
+   * @param sheetStartConsumer
+   *          receives the name of the sheet before its first row.
+   * @param rowConsumer
+   *          receives the cell values of the rows, the missing cells are <code>null</code>.
+   */
+  XlsRowListener(final Consumer<String> sheetStartConsumer,
+      final Consumer<List<String>> rowConsumer) {
+    this.sheetStartConsumer = sheetStartConsumer;
+    this.rowConsumer = rowConsumer;
+    formatTrackingListener = new FormatTrackingHSSFListener(this);
+  }
+
+  /**
+   * Gets the listener that must be registered to the request.
+   */
+  HSSFListener getRequestListener() {
+    return new MissingRecordAwareHSSFListener(formatTrackingListener);
+  }
+
+  private void processBOFRecord(final BOFRecord bofRecord) {
+    if (bofRecord.getType() != BOFRecord.TYPE_WORKSHEET) {
+      return;
+    }
+    if (orderedBoundSheetRecords == null) {
+      orderedBoundSheetRecords = BoundSheetRecord.orderByBofPosition(boundSheetRecords);
+    }
+    sheetIndex++;
+    sheetProcessed = true;
+    cells.clear();
+    sheetStartConsumer.accept(orderedBoundSheetRecords[sheetIndex].getSheetname());
+  }
+
+  @Override
+  public void processRecord(final Record record) {
+    switch (record.getSid()) {
+      case BoundSheetRecord.sid:
+        boundSheetRecords.add((BoundSheetRecord) record);
+        break;
+      case BOFRecord.sid:
+        processBOFRecord((BOFRecord) record);
+        break;
+      case SSTRecord.sid:
+        sstRecord = (SSTRecord) record;
+        break;
+      case LabelSSTRecord.sid:
+        LabelSSTRecord labelSSTRecord = (LabelSSTRecord) record;
+        setCell(labelSSTRecord.getColumn(),
+            sstRecord.getString(labelSSTRecord.getSSTIndex()).getString());
+        break;
+      case LabelRecord.sid:
+        LabelRecord labelRecord = (LabelRecord) record;
+        setCell(labelRecord.getColumn(), labelRecord.getValue());
+        break;
+      case NumberRecord.sid:
+        NumberRecord numberRecord = (NumberRecord) record;
+        setCell(numberRecord.getColumn(),
+            formatTrackingListener.formatNumberDateCell(numberRecord));
+        break;
+      default:
+        if ((record instanceof LastCellOfRowDummyRecord) && sheetProcessed) {
+          rowConsumer.accept(cells);
+          cells.clear();
+        }
+        break;
+    }
+  }
+
+  private void setCell(final int column, final String value) {
+    if (!sheetProcessed) {
+      return;
+    }
+    while (cells.size() <= column) {
+      cells.add(null);
+    }
+    cells.set(column, value);
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.workbook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+
+/**
+ * Collects the cell values of the rows from the SAX events of an XLSX sheet.
+ */
+class XlsxRowHandler implements SheetContentsHandler {
+
+  private final List<String> cells = new ArrayList<>();
+
+  private final Consumer<List<String>> rowConsumer;
+
+  /**
+   * Constructor.
+   *
+   * @param rowConsumer
+   *          receives the cell values of the rows, the missing cells are <code>null</code>.
+   */
+  XlsxRowHandler(final Consumer<List<String>> rowConsumer) {
+    this.rowConsumer = rowConsumer;
+  }
+
+  @Override
+  public void cell(final String cellReference, final String formattedValue,
+      final XSSFComment comment) {
+    int column = cellReference == null
+        ? cells.size()
+        : new CellReference(cellReference).getCol();
+    while (cells.size() <= column) {
+      cells.add(null);
+    }
+    cells.set(column, formattedValue);
+  }
+
+  @Override
+  public void endRow(final int rowNum) {
+    rowConsumer.accept(cells);
+  }
+
+  @Override
+  public void headerFooter(final String text, final boolean isHeader, final String tagName) {
+    // headers and footers are not part of the translations
+  }
+
+  @Override
+  public void startRow(final int rowNum) {
+    cells.clear();
+  }
+
+}
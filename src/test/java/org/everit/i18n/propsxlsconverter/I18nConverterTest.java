@@ -15,23 +15,68 @@
  */
 package org.everit.i18n.propsxlsconverter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.WildcardFileFilter;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.everit.i18n.propsxlsconverter.internal.I18nConverterImpl;
+import org.everit.i18n.propsxlsconverter.internal.I18nConverterSessionImpl;
+import org.everit.i18n.propsxlsconverter.internal.watch.ExportWatcher;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 public class I18nConverterTest {
 
+  private static final int CONCURRENT_RUNS = 40;
+
+  private static final int CONCURRENT_THREADS = 8;
+
   private static final String FILE_NAME_XLS = "example.xls";
 
+  private static final String FILE_NAME_XLS_PARALLEL = "example_parallel.xls";
+
+  private static final String FILE_NAME_XLSX = "example.xlsx";
+
   private static final String FOLDER_TARGET_TEST = "./target/test/";
 
   private static final List<String> MESSAGES_FOLDER_FILE_AND_DIRECTORY_NAMES;
@@ -40,6 +85,12 @@ public class I18nConverterTest {
 
   private static final String MESSAGES2_FOLDER_NAME = "messages2";
 
+  private static final int SHARD_MAX_ROWS = 3;
+
+  private static final long WATCH_DEBOUNCE_MILLIS = 100;
+
+  private static final long WATCH_TIMEOUT_SECONDS = 10;
+
   static {
     MESSAGES2_FOLDER_FILE_NAMES = new ArrayList<String>();
     MESSAGES2_FOLDER_FILE_NAMES.add("messages.properties");
@@ -64,6 +115,12 @@ public class I18nConverterTest {
 
     File fileXls = new File(FILE_NAME_XLS);
     FileUtils.deleteQuietly(fileXls);
+
+    File fileXlsx = new File(FILE_NAME_XLSX);
+    FileUtils.deleteQuietly(fileXlsx);
+
+    File fileXlsParallel = new File(FILE_NAME_XLS_PARALLEL);
+    FileUtils.deleteQuietly(fileXlsParallel);
   }
 
   @Before
@@ -74,6 +131,9 @@ public class I18nConverterTest {
     File fileXls = new File(FILE_NAME_XLS);
     FileUtils.deleteQuietly(fileXls);
 
+    File fileXlsx = new File(FILE_NAME_XLSX);
+    FileUtils.deleteQuietly(fileXlsx);
+
     i18nConverter = new I18nConverterImpl();
   }
 
@@ -147,6 +207,22 @@ public class I18nConverterTest {
     } catch (PatternSyntaxException e) {
       Assert.assertNotNull(e);
     }
+
+    try {
+      i18nConverter.exportToXls(FILE_NAME_XLS, "./src/", ".*", new String[] {},
+          new ExportOptions().parallelism(0));
+      Assert.fail("Expect IllegalArgumentException.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
+
+    try {
+      i18nConverter.exportToXls(FILE_NAME_XLS, "./src/", ".*", new String[] {},
+          new ExportOptions().baseline(FILE_NAME_XLSX).incremental(true));
+      Assert.fail("Expect IllegalArgumentException.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
   }
 
   private void checkImportFunctionValidatesProblem() {
@@ -184,25 +260,64 @@ public class I18nConverterTest {
     } catch (RuntimeException e) {
       Assert.assertNotNull(e);
     }
+
+    try {
+      i18nConverter.importFromXls(FILE_NAME_XLS, "./src/", new ImportOptions().parallelism(0));
+      Assert.fail("Expect IllegalArgumentException.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
   }
 
-  private void exportFunctionTest() throws IOException {
+  private static ConversionListener blockingListener(final CountDownLatch started,
+      final CountDownLatch released) {
+    return new ConversionListener() {
+      @Override
+      public void fileProcessed(final String path, final long bytes) {
+        started.countDown();
+        try {
+          Assert.assertTrue(released.await(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+
+  private static Properties loadProperties(final File file) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    return properties;
+  }
+
+  private static Map<String, String> readFiles(final File directory) throws IOException {
+    Map<String, String> contents = new TreeMap<String, String>();
+    for (File file : FileUtils.listFiles(directory, null, true)) {
+      contents.put(directory.toPath().relativize(file.toPath()).toString(),
+          FileUtils.readFileToString(file, "UTF-8"));
+    }
+    return contents;
+  }
+
+  private void exportFunctionTest(final String fileName) throws IOException {
     File workingDirectory = new File("./src/test/resources/messages/");
 
-    i18nConverter.exportToXls(FILE_NAME_XLS,
+    i18nConverter.exportToXls(fileName,
         workingDirectory.getCanonicalPath().toString(),
         ".*\\.properties$",
         new String[] { "hu", "de" });
 
-    File file = new File(FILE_NAME_XLS);
-    Assert.assertTrue("The " + FILE_NAME_XLS + " not found", file.exists());
+    File file = new File(fileName);
+    Assert.assertTrue("The " + fileName + " not found", file.exists());
   }
 
-  private void importFunctiontest() throws IOException {
+  private void importFunctiontest(final String fileName) throws IOException {
     File workingDirectory = new File(FOLDER_TARGET_TEST);
     workingDirectory.mkdirs();
 
-    i18nConverter.importFromXls(FILE_NAME_XLS,
+    i18nConverter.importFromXls(fileName,
         workingDirectory.getCanonicalPath().toString());
 
     File[] messageFolderFiles = workingDirectory.listFiles();
@@ -231,10 +346,673 @@ public class I18nConverterTest {
     }
   }
 
+  @Test
+  public void testDeltaExportAndMergeImport() throws IOException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "delta");
+    FileUtils.copyDirectory(new File("./src/test/resources/messages/"), workingDirectory);
+    String[] languages = new String[] { "hu", "de" };
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages);
+
+    File defaultFile = new File(workingDirectory, "messages.properties");
+    FileUtils.writeStringToFile(defaultFile, FileUtils.readFileToString(defaultFile, "UTF-8")
+        .replace("example_1=Example.", "example_1=Changed.") + "example_3=New.\n", "UTF-8");
+
+    File deltaFile = new File(FOLDER_TARGET_TEST, "delta.csv");
+    for (String baseline : new String[] { FILE_NAME_XLS, "./src/test/resources/messages/" }) {
+      i18nConverter.exportToXls(deltaFile.getPath(), workingDirectory.getCanonicalPath(),
+          ".*\\.properties$", languages, new ExportOptions().baseline(baseline));
+
+      List<String> deltaLines = FileUtils.readLines(deltaFile, "UTF-8");
+      Assert.assertEquals(Arrays.asList(
+          "Properties file (default language),Key,Default value,hu,de",
+          "messages.properties,example_1,Changed.,\u00e1rv\u00edzt\u0171r\u0151 "
+              + "t\u00fck\u00f6rf\u00far\u00f3g\u00e9p,Beispiel",
+          "messages.properties,example_3,New.,,",
+          MESSAGES2_FOLDER_NAME + "/messages.properties,example_1,Example.,,",
+          MESSAGES2_FOLDER_NAME + "/messages.properties,example_2,\"special_ $ ! / = '' \"\"\"\" "
+              + "- < > # & @ { } \",,"),
+          deltaLines);
+    }
+
+    File huFile = new File(workingDirectory, "messages_hu.properties");
+    String huContent = FileUtils.readFileToString(huFile, "UTF-8");
+    FileUtils.writeStringToFile(deltaFile, FileUtils.readFileToString(deltaFile, "UTF-8")
+        .replace("example_3,New.,,", "example_3,New.,\u00daj.,Neu."), "UTF-8");
+    ImportResult importResult = i18nConverter.importFromXls(deltaFile.getPath(),
+        workingDirectory.getCanonicalPath(), new ImportOptions().merge(true));
+    // the default language files are unchanged, the messages2 translations are empty
+    Assert.assertEquals(2, importResult.filesWritten);
+    Assert.assertEquals(2, importResult.filesSkipped);
+    Assert.assertEquals(huContent + "example_3=\\u00DAj.\n",
+        FileUtils.readFileToString(huFile, "UTF-8"));
+
+    Properties huProperties = new Properties();
+    try (InputStream in = new FileInputStream(huFile)) {
+      huProperties.load(in);
+    }
+    Assert.assertEquals(3, huProperties.size());
+    Assert.assertEquals("\u00daj.", huProperties.getProperty("example_3"));
+    Assert.assertEquals("special_ $ ! / = '' \"\" - < > # & @ { } ",
+        huProperties.getProperty("example_2"));
+    Assert.assertFalse(new File(workingDirectory,
+        MESSAGES2_FOLDER_NAME + "/messages_hu.properties").exists());
+  }
+
+  @Test
+  public void testEscapedKeysAndValues() throws IOException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "escaped");
+    workingDirectory.mkdirs();
+    FileUtils.writeStringToFile(new File(workingDirectory, "escaped.properties"),
+        "a\\=b=v\nmy\\ key=x\ncolon\\:key=y\n\\#hash=z\nlead=\\ sp\n", "UTF-8");
+    FileUtils.writeStringToFile(new File(workingDirectory, "escaped_hu.properties"),
+        "a\\=b=hu v\nlead=\\  hu\n", "UTF-8");
+    Properties expectedDefault = loadProperties(new File(workingDirectory, "escaped.properties"));
+    Properties expectedHu = loadProperties(new File(workingDirectory, "escaped_hu.properties"));
+    Assert.assertEquals(" sp", expectedDefault.getProperty("lead"));
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", new String[] { "hu" });
+
+    for (boolean merge : new boolean[] { false, true }) {
+      File importDirectory = new File(FOLDER_TARGET_TEST, "escaped_" + merge);
+      importDirectory.mkdirs();
+      i18nConverter.importFromXls(FILE_NAME_XLS, importDirectory.getCanonicalPath(),
+          new ImportOptions().merge(merge));
+      Assert.assertEquals(expectedDefault,
+          loadProperties(new File(importDirectory, "escaped.properties")));
+      Properties importedHu = loadProperties(new File(importDirectory, "escaped_hu.properties"));
+      for (String key : expectedHu.stringPropertyNames()) {
+        Assert.assertEquals(expectedHu.getProperty(key), importedHu.getProperty(key));
+      }
+    }
+  }
+
+  @Test
+  public void testExcludeDirectories() throws IOException {
+    String workingDirectory = new File("./src/test/resources/messages/").getCanonicalPath();
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory, ".*\\.properties$",
+        new String[] { "hu", "de" }, new ExportOptions().excludeDirectories("messages*"));
+
+    File importDirectory = new File(FOLDER_TARGET_TEST, "exclude");
+    importDirectory.mkdirs();
+    i18nConverter.importFromXls(FILE_NAME_XLS, importDirectory.getCanonicalPath());
+
+    Collection<File> importedFiles = FileUtils.listFiles(importDirectory, null, true);
+    Assert.assertEquals(MESSAGES_FOLDER_FILE_AND_DIRECTORY_NAMES.size() - 1,
+        importedFiles.size());
+    for (File importedFile : importedFiles) {
+      Assert.assertEquals(importDirectory.getCanonicalFile(),
+          importedFile.getParentFile().getCanonicalFile());
+    }
+  }
+
+  @Test
+  public void testIncrementalExport() throws IOException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "incremental");
+    FileUtils.copyDirectory(new File("./src/test/resources/messages/"), workingDirectory);
+    String[] languages = new String[] { "hu", "de" };
+    String incrementalXls = new File(FOLDER_TARGET_TEST, FILE_NAME_XLS).getPath();
+    ExportOptions incrementalOptions = new ExportOptions().incremental(true);
+
+    i18nConverter.exportToXls(incrementalXls, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages, incrementalOptions);
+    Assert.assertTrue("The fingerprints file not found.",
+        new File(incrementalXls + ".fingerprints").exists());
+
+    FileUtils.write(new File(workingDirectory, "messages2/messages2_hu.properties"),
+        "\nincremental=inkrementális\n", "UTF-8", true);
+
+    i18nConverter.exportToXls(incrementalXls, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages, incrementalOptions);
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages);
+
+    Assert.assertTrue("The incremental export differs from the full one.",
+        FileUtils.contentEquals(new File(FILE_NAME_XLS), new File(incrementalXls)));
+
+    // an edit with the same size and last modification time right after the export
+    File racyFile = new File(workingDirectory, "messages2/messages2_hu.properties");
+    long lastModified = racyFile.lastModified();
+    FileUtils.writeStringToFile(racyFile, FileUtils.readFileToString(racyFile, "UTF-8")
+        .replace("inkrementális", "INKREMENTÁLIS"), "UTF-8");
+    Assert.assertTrue(racyFile.setLastModified(lastModified));
+
+    i18nConverter.exportToXls(incrementalXls, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages, incrementalOptions);
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages);
+    Assert.assertTrue("The incremental export missed the racy edit.",
+        FileUtils.contentEquals(new File(FILE_NAME_XLS), new File(incrementalXls)));
+  }
+
+  @Test
+  public void testAsyncConversions()
+      throws IOException, InterruptedException, ExecutionException {
+    String workingDirectory = new File("./src/test/resources/messages/").getCanonicalPath();
+    String[] languages = new String[] { "hu", "de" };
+    File importDirectory = new File(FOLDER_TARGET_TEST, "async");
+    importDirectory.mkdirs();
+    File cancelledFile = new File(FOLDER_TARGET_TEST, "cancelled.csv");
+    File cancelledImportDirectory = new File(FOLDER_TARGET_TEST, "cancelled");
+    cancelledImportDirectory.mkdirs();
+    CountDownLatch exportStarted = new CountDownLatch(1);
+    CountDownLatch importStarted = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    CompletableFuture<ConversionMetrics> cancelledExport;
+    CompletableFuture<ImportResult> cancelledImport;
+    try {
+      ConversionMetrics exportMetrics = i18nConverter.exportToXlsAsync(FILE_NAME_XLS,
+          workingDirectory, ".*\\.properties$", languages, new ExportOptions(), executorService)
+          .get();
+      Assert.assertEquals(MESSAGES2_FOLDER_FILE_NAMES.size(), exportMetrics.filesProcessed);
+      Assert.assertTrue(exportMetrics.rowsProcessed > 0);
+
+      ImportResult importResult = i18nConverter.importFromXlsAsync(FILE_NAME_XLS,
+          importDirectory.getPath(), new ImportOptions(), executorService).get();
+      Assert.assertEquals(importResult.filesWritten, importResult.metrics.filesProcessed);
+      Assert.assertEquals(exportMetrics.rowsProcessed, importResult.metrics.rowsProcessed);
+
+      // the conversions are cancelled while they process their first file
+      cancelledExport = i18nConverter.exportToXlsAsync(cancelledFile.getPath(), workingDirectory,
+          ".*\\.properties$", languages,
+          new ExportOptions().listener(blockingListener(exportStarted, cancelled)),
+          executorService);
+      cancelledImport = i18nConverter.importFromXlsAsync(FILE_NAME_XLS,
+          cancelledImportDirectory.getPath(),
+          new ImportOptions().listener(blockingListener(importStarted, cancelled)),
+          executorService);
+      Assert.assertTrue(exportStarted.await(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+      Assert.assertTrue(cancelledExport.cancel(true));
+      Assert.assertTrue(cancelledImport.cancel(true));
+      // the running export is cancelled when it stops, the waiting import at once
+      Assert.assertFalse(cancelledExport.isDone());
+      Assert.assertTrue(cancelledImport.isCancelled());
+      cancelled.countDown();
+      try {
+        cancelledExport.get(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Assert.fail("The cancelled export completed.");
+      } catch (CancellationException | TimeoutException e) {
+        Assert.assertTrue(e instanceof CancellationException);
+      }
+      Assert.assertFalse(cancelledFile.exists());
+    } finally {
+      executorService.shutdown();
+      Assert.assertTrue(executorService.awaitTermination(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    Assert.assertTrue(cancelledExport.isCancelled());
+    Assert.assertFalse(cancelledFile.exists());
+    // the import was cancelled before it started
+    Assert.assertEquals(1, importStarted.getCount());
+    Assert.assertTrue(FileUtils.listFiles(cancelledImportDirectory, null, true).isEmpty());
+    for (File file : FileUtils.listFiles(new File(FOLDER_TARGET_TEST), null, true)) {
+      Assert.assertFalse(file.getName().endsWith(".tmp"));
+      Assert.assertFalse(file.getName().endsWith(".tmp.csv"));
+    }
+  }
+
+  @Test
+  public void testCancelledImport() throws IOException, InterruptedException {
+    String workingDirectory = new File("./src/test/resources/messages/").getCanonicalPath();
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory, ".*\\.properties$",
+        new String[] { "hu", "de" });
+    File importDirectory = new File(FOLDER_TARGET_TEST, "cancelled");
+    importDirectory.mkdirs();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      CompletableFuture<ImportResult> future = i18nConverter.importFromXlsAsync(FILE_NAME_XLS,
+          importDirectory.getPath(),
+          new ImportOptions().listener(blockingListener(started, cancelled)), executorService);
+      Assert.assertTrue(started.await(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+      Assert.assertTrue(future.cancel(true));
+      cancelled.countDown();
+    } finally {
+      executorService.shutdown();
+      Assert.assertTrue(executorService.awaitTermination(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    // the language files of the first properties file were completed before the cancellation
+    List<String> importedFileNames = new ArrayList<String>();
+    for (File file : FileUtils.listFiles(importDirectory, null, true)) {
+      importedFileNames.add(file.getName());
+    }
+    Collections.sort(importedFileNames);
+    Assert.assertEquals(Arrays.asList("messages.properties", "messages_de.properties",
+        "messages_hu.properties"), importedFileNames);
+  }
+
+  @Test
+  public void testConcurrentConversions()
+      throws IOException, InterruptedException, ExecutionException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "concurrent");
+    FileUtils.copyDirectory(new File("./src/test/resources/messages/"), workingDirectory);
+    // the session caches only the files that were not modified recently
+    long lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+    for (File file : FileUtils.listFiles(workingDirectory, null, true)) {
+      Assert.assertTrue(file.setLastModified(lastModified));
+    }
+    String workingDirectoryPath = workingDirectory.getCanonicalPath();
+    String[] languages = new String[] { "hu", "de" };
+    String[] extensions = new String[] { "csv", "tsv", "xlf", "xls", "xlsx" };
+
+    Map<String, String> expectedExports = new HashMap<String, String>();
+    Map<String, Map<String, String>> expectedImports = new HashMap<>();
+    for (String extension : extensions) {
+      File exportedFile = new File(FOLDER_TARGET_TEST, "expected." + extension);
+      i18nConverter.exportToXls(exportedFile.getPath(), workingDirectoryPath, ".*\\.properties$",
+          languages);
+      File importDirectory = new File(FOLDER_TARGET_TEST, "expected_" + extension);
+      importDirectory.mkdirs();
+      i18nConverter.importFromXls(exportedFile.getPath(), importDirectory.getPath());
+      expectedExports.put(extension, FileUtils.readFileToString(exportedFile, "UTF-8"));
+      expectedImports.put(extension, readFiles(importDirectory));
+    }
+
+    File sharedExportedFile = new File(FOLDER_TARGET_TEST, "shared.csv");
+    File sharedImportDirectory = new File(FOLDER_TARGET_TEST, "shared");
+    sharedImportDirectory.mkdirs();
+    ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENT_THREADS);
+    try (I18nConverterSession session = new I18nConverterSessionImpl()) {
+      List<Future<Map<String, String>>> importedFiles = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_RUNS; i++) {
+        String extension = extensions[i % extensions.length];
+        I18nConverter converter = (i % 2) == 0 ? i18nConverter : session;
+        File exportedFile = new File(FOLDER_TARGET_TEST, "run" + i + "." + extension);
+        File importDirectory = new File(FOLDER_TARGET_TEST, "run" + i);
+        importDirectory.mkdirs();
+        ExportOptions exportOptions = new ExportOptions().parallelism((i % 2) + 1);
+        importedFiles.add(executorService.submit(() -> {
+          converter.exportToXls(exportedFile.getPath(), workingDirectoryPath,
+              ".*\\.properties$", languages, exportOptions);
+          converter.exportToXls(sharedExportedFile.getPath(), workingDirectoryPath,
+              ".*\\.properties$", languages, exportOptions);
+          converter.importFromXls(sharedExportedFile.getPath(), sharedImportDirectory.getPath());
+          if (!extension.startsWith("xls")) {
+            // only the text formats are free of timestamps
+            Assert.assertEquals(expectedExports.get(extension),
+                FileUtils.readFileToString(exportedFile, "UTF-8"));
+          }
+          converter.importFromXls(exportedFile.getPath(), importDirectory.getPath());
+          return readFiles(importDirectory);
+        }));
+      }
+      for (int i = 0; i < CONCURRENT_RUNS; i++) {
+        Assert.assertEquals(expectedImports.get(extensions[i % extensions.length]),
+            importedFiles.get(i).get());
+      }
+      Assert.assertTrue(session.getCacheStatistics().hitCount > 0);
+    } finally {
+      executorService.shutdownNow();
+    }
+    Assert.assertEquals(expectedExports.get("csv"),
+        FileUtils.readFileToString(sharedExportedFile, "UTF-8"));
+    Assert.assertEquals(expectedImports.get("csv"), readFiles(sharedImportDirectory));
+  }
+
+  @Test
+  public void testConversionListener() throws IOException {
+    File messagesDirectory = new File("./src/test/resources/messages/");
+    List<ConversionMetrics> exportMetrics = new ArrayList<ConversionMetrics>();
+    i18nConverter.exportToXls(FILE_NAME_XLS, messagesDirectory.getCanonicalPath(),
+        ".*\\.properties$", new String[] { "hu", "de" },
+        new ExportOptions().listener(new ConversionListener() {
+          @Override
+          public void finished(final ConversionMetrics metrics) {
+            exportMetrics.add(metrics);
+          }
+        }));
+    Assert.assertEquals(1, exportMetrics.size());
+    Assert.assertEquals(FileUtils.listFiles(messagesDirectory, null, true).size(),
+        exportMetrics.get(0).filesProcessed);
+    Assert.assertTrue(exportMetrics.get(0).rowsProcessed > 0);
+    Assert.assertTrue(exportMetrics.get(0).phaseNanos.containsKey(ConversionPhase.SERIALIZE));
+
+    File workingDirectory = new File(FOLDER_TARGET_TEST);
+    workingDirectory.mkdirs();
+    List<String> writtenFiles = new ArrayList<String>();
+    i18nConverter.importFromXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        new ImportOptions().listener(new ConversionListener() {
+          @Override
+          public void fileProcessed(final String path, final long bytes) {
+            writtenFiles.add(path);
+          }
+        }));
+    Assert.assertEquals(MESSAGES_FOLDER_FILE_AND_DIRECTORY_NAMES.size() - 1
+        + MESSAGES2_FOLDER_FILE_NAMES.size(), writtenFiles.size());
+  }
+
   @Test
   public void testLanguageFiles() throws IOException {
-    exportFunctionTest();
-    importFunctiontest();
+    exportFunctionTest(FILE_NAME_XLS);
+    importFunctiontest(FILE_NAME_XLS);
+  }
+
+  @Test
+  public void testLanguageFilesXlsx() throws IOException {
+    exportFunctionTest(FILE_NAME_XLSX);
+    importFunctiontest(FILE_NAME_XLSX);
+  }
+
+  @Test
+  public void testParallelExport() throws IOException {
+    String workingDirectory = new File("./src/test/resources/messages/").getCanonicalPath();
+    String[] languages = new String[] { "hu", "de" };
+
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory, ".*\\.properties$", languages);
+    i18nConverter.exportToXls(FILE_NAME_XLS_PARALLEL, workingDirectory, ".*\\.properties$",
+        languages, new ExportOptions().parallelism(4));
+
+    Assert.assertTrue("The parallel export differs from the sequential one.",
+        FileUtils.contentEquals(new File(FILE_NAME_XLS), new File(FILE_NAME_XLS_PARALLEL)));
+  }
+
+  @Test
+  public void testParallelImport() throws IOException {
+    exportFunctionTest(FILE_NAME_XLS);
+
+    File sequentialDirectory = new File(FOLDER_TARGET_TEST, "sequential");
+    sequentialDirectory.mkdirs();
+    i18nConverter.importFromXls(FILE_NAME_XLS, sequentialDirectory.getCanonicalPath());
+
+    File parallelDirectory = new File(FOLDER_TARGET_TEST, "parallel");
+    parallelDirectory.mkdirs();
+    i18nConverter.importFromXls(FILE_NAME_XLS, parallelDirectory.getCanonicalPath(),
+        new ImportOptions().parallelism(4));
+
+    Collection<File> sequentialFiles = FileUtils.listFiles(sequentialDirectory, null, true);
+    Assert.assertEquals(MESSAGES_FOLDER_FILE_AND_DIRECTORY_NAMES.size() - 1
+        + MESSAGES2_FOLDER_FILE_NAMES.size(), sequentialFiles.size());
+    for (File sequentialFile : sequentialFiles) {
+      File parallelFile = new File(parallelDirectory,
+          sequentialDirectory.toPath().relativize(sequentialFile.toPath()).toString());
+      Assert.assertTrue("The parallel import differs from the sequential one.",
+          FileUtils.contentEquals(sequentialFile, parallelFile));
+    }
+
+    // a longer, a shorter and a different file of the same length
+    File longerFile = new File(parallelDirectory, "messages_hu.properties");
+    FileUtils.write(longerFile, "changed=true\n", "UTF-8", true);
+    File shorterFile = new File(parallelDirectory, "messages_de.properties");
+    FileUtils.writeByteArrayToFile(shorterFile, Arrays.copyOf(
+        FileUtils.readFileToByteArray(shorterFile), (int) (shorterFile.length() / 2)));
+    File differentFile =
+        new File(parallelDirectory, MESSAGES2_FOLDER_NAME + "/messages.properties");
+    FileUtils.writeStringToFile(differentFile,
+        FileUtils.readFileToString(differentFile, "UTF-8").replace('=', ':'), "UTF-8");
+
+    ImportResult importResult = i18nConverter.importFromXls(FILE_NAME_XLS,
+        parallelDirectory.getCanonicalPath(),
+        new ImportOptions().parallelism(4).skipUnchanged(true));
+    Assert.assertEquals(3, importResult.filesWritten);
+    Assert.assertEquals(sequentialFiles.size() - 3, importResult.filesSkipped);
+    for (File sequentialFile : sequentialFiles) {
+      File parallelFile = new File(parallelDirectory,
+          sequentialDirectory.toPath().relativize(sequentialFile.toPath()).toString());
+      Assert.assertTrue("The changed file is not replaced: " + parallelFile,
+          FileUtils.contentEquals(sequentialFile, parallelFile));
+    }
+    Assert.assertEquals(sequentialFiles.size(),
+        FileUtils.listFiles(parallelDirectory, null, true).size());
+  }
+
+  @Test
+  public void testReplacedFilesKeepPermissions() throws IOException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "permissions");
+    FileUtils.copyDirectory(new File("./src/test/resources/messages/"), workingDirectory);
+    Path defaultFile = new File(workingDirectory, "messages.properties").toPath();
+    Path huFile = new File(workingDirectory, "messages_hu.properties").toPath();
+    Path newFile = new File(FOLDER_TARGET_TEST, "new.xls").toPath();
+    Files.createFile(newFile);
+    try {
+      Files.setPosixFilePermissions(defaultFile, PosixFilePermissions.fromString("rw-r-----"));
+    } catch (UnsupportedOperationException e) {
+      Assume.assumeNoException(e);
+    }
+    Set<PosixFilePermission> huPermissions = Files.getPosixFilePermissions(huFile);
+
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", new String[] { "hu", "de" });
+    Assert.assertEquals(Files.getPosixFilePermissions(newFile),
+        Files.getPosixFilePermissions(new File(FILE_NAME_XLS).toPath()));
+
+    i18nConverter.importFromXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath());
+    Assert.assertEquals("rw-r-----",
+        PosixFilePermissions.toString(Files.getPosixFilePermissions(defaultFile)));
+    Assert.assertEquals(huPermissions, Files.getPosixFilePermissions(huFile));
+  }
+
+  @Test
+  public void testSessionCachesBundles() throws IOException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "session");
+    FileUtils.copyDirectory(new File("./src/test/resources/messages/"), workingDirectory);
+    // the recently modified files are not cached
+    long lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+    for (File file : FileUtils.listFiles(workingDirectory, null, true)) {
+      Assert.assertTrue(file.setLastModified(lastModified));
+    }
+    String[] languages = new String[] { "hu", "de" };
+    File expectedFile = new File(FOLDER_TARGET_TEST, "expected.csv");
+    File exportedFile = new File(FOLDER_TARGET_TEST, "session.csv");
+    int bundleCount = 3;
+    long cachedSize;
+
+    I18nConverterSession session = new I18nConverterSessionImpl();
+    try {
+      for (int i = 0; i < 2; i++) {
+        session.exportToXls(exportedFile.getPath(), workingDirectory.getCanonicalPath(),
+            ".*\\.properties$", languages);
+      }
+      BundleCacheStatistics statistics = session.getCacheStatistics();
+      Assert.assertEquals(bundleCount, statistics.bundleCount);
+      Assert.assertEquals(bundleCount, statistics.missCount);
+      Assert.assertEquals(bundleCount, statistics.hitCount);
+      Assert.assertTrue(statistics.estimatedSize > 0);
+
+      File huFile = new File(workingDirectory, "messages_hu.properties");
+      FileUtils.write(huFile, "example_1=Changed.\n", "UTF-8", true);
+      Assert.assertTrue(huFile.setLastModified(lastModified));
+      session.exportToXls(exportedFile.getPath(), workingDirectory.getCanonicalPath(),
+          ".*\\.properties$", languages);
+      i18nConverter.exportToXls(expectedFile.getPath(), workingDirectory.getCanonicalPath(),
+          ".*\\.properties$", languages);
+      Assert.assertEquals(FileUtils.readFileToString(expectedFile, "UTF-8"),
+          FileUtils.readFileToString(exportedFile, "UTF-8"));
+      statistics = session.getCacheStatistics();
+      Assert.assertEquals(bundleCount + 1, statistics.missCount);
+      Assert.assertEquals((bundleCount * 2) - 1, statistics.hitCount);
+      cachedSize = statistics.estimatedSize;
+
+      session.invalidateCache();
+      Assert.assertEquals(0, session.getCacheStatistics().bundleCount);
+    } finally {
+      session.close();
+    }
+    try {
+      session.exportToXls(exportedFile.getPath(), workingDirectory.getCanonicalPath(),
+          ".*\\.properties$", languages);
+      Assert.fail("Expect IllegalStateException.");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("The session is closed.", e.getMessage());
+    }
+
+    try (I18nConverterSession evictingSession = new I18nConverterSessionImpl(
+        new SessionOptions().maxCacheSize(cachedSize - 1))) {
+      evictingSession.exportToXls(exportedFile.getPath(), workingDirectory.getCanonicalPath(),
+          ".*\\.properties$", languages);
+      BundleCacheStatistics statistics = evictingSession.getCacheStatistics();
+      Assert.assertTrue(statistics.evictionCount > 0);
+      Assert.assertTrue(statistics.estimatedSize < cachedSize);
+    }
+  }
+
+  @Test
+  public void testShardedExport() throws IOException {
+    String workingDirectory = new File("./src/test/resources/messages/").getCanonicalPath();
+    String[] languages = new String[] { "hu", "de" };
+
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory, ".*\\.properties$", languages);
+    File expectedDirectory = new File(FOLDER_TARGET_TEST, "unsharded");
+    expectedDirectory.mkdirs();
+    i18nConverter.importFromXls(FILE_NAME_XLS, expectedDirectory.getCanonicalPath());
+    Collection<File> expectedFiles = FileUtils.listFiles(expectedDirectory, null, true);
+
+    for (String shardedFileName : new String[] { FILE_NAME_XLS_PARALLEL, FILE_NAME_XLSX }) {
+      i18nConverter.exportToXls(shardedFileName, workingDirectory, ".*\\.properties$",
+          languages, new ExportOptions().maxRowsPerSheet(SHARD_MAX_ROWS).shardByDirectory(true));
+      try (Workbook workbook = WorkbookFactory.create(new File(shardedFileName))) {
+        Assert.assertTrue(workbook.getSheet(MESSAGES2_FOLDER_NAME) != null);
+        Assert.assertTrue(workbook.getNumberOfSheets() > 2);
+      } catch (InvalidFormatException e) {
+        throw new IOException(e);
+      }
+
+      File shardedDirectory = new File(FOLDER_TARGET_TEST, "sharded");
+      shardedDirectory.mkdirs();
+      i18nConverter.importFromXls(shardedFileName, shardedDirectory.getCanonicalPath(),
+          new ImportOptions().parallelism(2));
+      Assert.assertEquals(expectedFiles.size(),
+          FileUtils.listFiles(shardedDirectory, null, true).size());
+      for (File expectedFile : expectedFiles) {
+        File shardedFile = new File(shardedDirectory,
+            expectedDirectory.toPath().relativize(expectedFile.toPath()).toString());
+        Assert.assertTrue("The sharded workbook differs from the unsharded one.",
+            FileUtils.contentEquals(expectedFile, shardedFile));
+      }
+      FileUtils.deleteDirectory(shardedDirectory);
+    }
+
+    // no empty sheet for the working directory if it does not contain properties files
+    File subdirectoriesOnly = new File(FOLDER_TARGET_TEST, "subdirectoriesOnly");
+    FileUtils.copyDirectory(new File(workingDirectory, MESSAGES2_FOLDER_NAME),
+        new File(subdirectoriesOnly, MESSAGES2_FOLDER_NAME));
+    i18nConverter.exportToXls(FILE_NAME_XLSX, subdirectoriesOnly.getCanonicalPath(),
+        ".*\\.properties$", languages, new ExportOptions().shardByDirectory(true));
+    try (Workbook workbook = WorkbookFactory.create(new File(FILE_NAME_XLSX))) {
+      Assert.assertEquals(1, workbook.getNumberOfSheets());
+      Assert.assertEquals(MESSAGES2_FOLDER_NAME, workbook.getSheetName(0));
+    } catch (InvalidFormatException e) {
+      throw new IOException(e);
+    }
+    FileUtils.deleteDirectory(subdirectoriesOnly);
+  }
+
+  @Test
+  public void testSharedStringsTableXlsx() throws IOException {
+    i18nConverter.exportToXls(FILE_NAME_XLSX,
+        new File("./src/test/resources/messages/").getCanonicalPath(), ".*\\.properties$",
+        new String[] { "hu", "de" }, new ExportOptions().sharedStringsTable(true));
+    importFunctiontest(FILE_NAME_XLSX);
+  }
+
+  @Test
+  public void testSkipUnchangedImport() throws IOException {
+    exportFunctionTest(FILE_NAME_XLS);
+    File workingDirectoryFile = new File(FOLDER_TARGET_TEST);
+    workingDirectoryFile.mkdirs();
+    String workingDirectory = workingDirectoryFile.getCanonicalPath();
+    ImportOptions importOptions = new ImportOptions().skipUnchanged(true);
+    int fileCount = MESSAGES_FOLDER_FILE_AND_DIRECTORY_NAMES.size() - 1
+        + MESSAGES2_FOLDER_FILE_NAMES.size();
+
+    ImportResult firstResult =
+        i18nConverter.importFromXls(FILE_NAME_XLS, workingDirectory, importOptions);
+    Assert.assertEquals(fileCount, firstResult.filesWritten);
+    Assert.assertEquals(0, firstResult.filesSkipped);
+
+    File changedFile = new File(FOLDER_TARGET_TEST, "messages_hu.properties");
+    FileUtils.write(changedFile, "changed=true\n", "UTF-8", true);
+
+    ImportResult secondResult =
+        i18nConverter.importFromXls(FILE_NAME_XLS, workingDirectory, importOptions);
+    Assert.assertEquals(1, secondResult.filesWritten);
+    Assert.assertEquals(fileCount - 1, secondResult.filesSkipped);
+    importFunctiontest(FILE_NAME_XLS);
+  }
+
+  @Test
+  public void testStreamConversions() throws IOException {
+    String workingDirectory = new File("./src/test/resources/messages/").getCanonicalPath();
+    String[] languages = new String[] { "hu", "de" };
+    new File(FOLDER_TARGET_TEST).mkdirs();
+
+    for (String extension : new String[] { "xls", "xlsx", "csv", "xlf" }) {
+      String fileName = FOLDER_TARGET_TEST + "example." + extension;
+      i18nConverter.exportToXls(fileName, workingDirectory, ".*\\.properties$", languages);
+      File expectedDirectory = new File(FOLDER_TARGET_TEST, "expected_" + extension);
+      expectedDirectory.mkdirs();
+      i18nConverter.importFromXls(fileName, expectedDirectory.getCanonicalPath());
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      if ("xlsx".equals(extension)) {
+        i18nConverter.exportToXls(Channels.newChannel(out), fileName, workingDirectory,
+            ".*\\.properties$", languages, new ExportOptions());
+      } else {
+        i18nConverter.exportToXls(out, fileName, workingDirectory, ".*\\.properties$",
+            languages, new ExportOptions());
+      }
+      if ("csv".equals(extension) || "xlf".equals(extension)) {
+        Assert.assertArrayEquals(FileUtils.readFileToByteArray(new File(fileName)),
+            out.toByteArray());
+      }
+
+      File importDirectory = new File(FOLDER_TARGET_TEST, extension);
+      importDirectory.mkdirs();
+      ImportResult importResult = i18nConverter.importFromXls(
+          new ByteArrayInputStream(out.toByteArray()), fileName,
+          importDirectory.getCanonicalPath(), new ImportOptions());
+      Assert.assertEquals(readFiles(expectedDirectory).size(), importResult.filesWritten);
+      Assert.assertEquals("The " + extension + " stream import differs from the file import.",
+          readFiles(expectedDirectory), readFiles(importDirectory));
+    }
+
+    try {
+      i18nConverter.exportToXls(new ByteArrayOutputStream(), FILE_NAME_XLS, workingDirectory,
+          ".*\\.properties$", languages, new ExportOptions().incremental(true));
+      Assert.fail("The incremental export into a stream is accepted.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
+  }
+
+  @Test
+  public void testTextFormats() throws IOException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "formats");
+    FileUtils.copyDirectory(new File("./src/test/resources/messages/"), workingDirectory);
+    FileUtils.writeStringToFile(new File(workingDirectory, "special.properties"),
+        "multiLine=first, \"quoted\"\\n\\tsecond\\r\\nthird\nempty=\n", "UTF-8");
+    FileUtils.writeStringToFile(new File(workingDirectory, "special_hu.properties"),
+        "multiLine=els\\u0151 & <m\\u00e1sodik>\n", "UTF-8");
+    String[] languages = new String[] { "hu", "de" };
+
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages);
+    File expectedDirectory = new File(FOLDER_TARGET_TEST, "expected");
+    expectedDirectory.mkdirs();
+    i18nConverter.importFromXls(FILE_NAME_XLS, expectedDirectory.getCanonicalPath());
+    Collection<File> expectedFiles = FileUtils.listFiles(expectedDirectory, null, true);
+
+    for (String extension : new String[] { "csv", "tsv", "xlf" }) {
+      String fileName = FOLDER_TARGET_TEST + "example." + extension;
+      i18nConverter.exportToXls(fileName, workingDirectory.getCanonicalPath(),
+          ".*\\.properties$", languages);
+
+      File importDirectory = new File(FOLDER_TARGET_TEST, extension);
+      importDirectory.mkdirs();
+      i18nConverter.importFromXls(fileName, importDirectory.getCanonicalPath());
+      Assert.assertEquals(expectedFiles.size(),
+          FileUtils.listFiles(importDirectory, null, true).size());
+      for (File expectedFile : expectedFiles) {
+        File importedFile = new File(importDirectory,
+            expectedDirectory.toPath().relativize(expectedFile.toPath()).toString());
+        Assert.assertTrue("The " + extension + " import differs from the workbook import.",
+            FileUtils.contentEquals(expectedFile, importedFile));
+      }
+    }
   }
 
   @Test
@@ -242,4 +1020,72 @@ public class I18nConverterTest {
     checkExportFunctionValidatesProblem();
     checkImportFunctionValidatesProblem();
   }
+
+  @Test
+  public void testWatchExport() throws IOException, InterruptedException {
+    File workingDirectory = new File(FOLDER_TARGET_TEST, "watch");
+    FileUtils.copyDirectory(new File("./src/test/resources/messages/"), workingDirectory);
+    String[] languages = new String[] { "hu", "de" };
+    BlockingQueue<ConversionMetrics> exportMetrics = new LinkedBlockingQueue<ConversionMetrics>();
+    ExportOptions exportOptions = new ExportOptions().listener(new ConversionListener() {
+      @Override
+      public void finished(final ConversionMetrics metrics) {
+        exportMetrics.add(metrics);
+      }
+    });
+    BlockingQueue<RuntimeException> errors = new LinkedBlockingQueue<RuntimeException>();
+
+    try {
+      new ExportWatcher(FILE_NAME_XLS_PARALLEL, workingDirectory.getCanonicalPath(),
+          ".*\\.properties$", languages, new ExportOptions().incremental(true),
+          WATCH_DEBOUNCE_MILLIS, errors::add).close();
+      Assert.fail("Expect IllegalArgumentException.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
+
+    try (ExportWatcher exportWatcher = new ExportWatcher(FILE_NAME_XLS_PARALLEL,
+        workingDirectory.getCanonicalPath(), ".*\\.properties$", languages, exportOptions,
+        WATCH_DEBOUNCE_MILLIS, errors::add)) {
+      Thread watchThread = new Thread(exportWatcher::watch);
+      watchThread.start();
+      Assert.assertNotNull(exportMetrics.poll(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+      FileUtils.write(new File(workingDirectory, "messages2/messages2_hu.properties"),
+          "\nwatch=figyelés\n", "UTF-8", true);
+      ConversionMetrics updateMetrics = exportMetrics.poll(WATCH_TIMEOUT_SECONDS,
+          TimeUnit.SECONDS);
+      Assert.assertNotNull("The workbook was not updated.", updateMetrics);
+      Assert.assertEquals("Only the changed bundle must be read.",
+          FileUtils.listFiles(new File(workingDirectory, MESSAGES2_FOLDER_NAME),
+              new WildcardFileFilter("messages2_*"), null).size(),
+          updateMetrics.filesProcessed);
+
+      // a failed update keeps the previous workbook
+      byte[] workbook = FileUtils.readFileToByteArray(new File(FILE_NAME_XLS_PARALLEL));
+      File longValueFile = new File(workingDirectory, "messages2/messages2_de.properties");
+      String longValueContent = FileUtils.readFileToString(longValueFile, "UTF-8");
+      FileUtils.write(longValueFile, "\nlong=" + new String(new char[Short.MAX_VALUE + 1])
+          .replace('\0', 'x') + "\n", "UTF-8", true);
+      Assert.assertNotNull("The update did not fail.",
+          errors.poll(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+      Assert.assertArrayEquals(workbook,
+          FileUtils.readFileToByteArray(new File(FILE_NAME_XLS_PARALLEL)));
+      Assert.assertEquals(Arrays.asList(FILE_NAME_XLS_PARALLEL), Arrays.asList(new File(".")
+          .list(new WildcardFileFilter(FILE_NAME_XLS_PARALLEL + "*"))));
+
+      FileUtils.writeStringToFile(longValueFile, longValueContent, "UTF-8");
+      Assert.assertNotNull("The workbook was not updated after the failure.",
+          exportMetrics.poll(WATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+      exportWatcher.close();
+      watchThread.join();
+    }
+    Assert.assertTrue(errors.isEmpty());
+
+    i18nConverter.exportToXls(FILE_NAME_XLS, workingDirectory.getCanonicalPath(),
+        ".*\\.properties$", languages);
+    Assert.assertTrue("The watched workbook differs from the full export.",
+        FileUtils.contentEquals(new File(FILE_NAME_XLS), new File(FILE_NAME_XLS_PARALLEL)));
+  }
 }
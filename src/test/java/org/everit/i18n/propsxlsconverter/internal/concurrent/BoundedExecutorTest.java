@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedExecutorTest {
+
+  private static final long TASK_MILLIS = 200;
+
+  @Test
+  public void testCloseWaitsForRunningTasks() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean finished = new AtomicBoolean();
+    try (BoundedExecutor executor = new BoundedExecutor(2)) {
+      executor.execute(() -> {
+        started.countDown();
+        // the task ignores the interrupt like a blocking file operation
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TASK_MILLIS);
+        while (System.nanoTime() < end) {
+          Thread.yield();
+        }
+        finished.set(true);
+      });
+      started.await();
+    }
+    Assert.assertTrue("The executor is closed before its task finished.", finished.get());
+  }
+
+}
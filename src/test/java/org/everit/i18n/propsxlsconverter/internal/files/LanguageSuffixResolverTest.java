@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.files;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LanguageSuffixResolverTest {
+
+  private static final String[] LANGUAGES = new String[] { "de", "de_CH", "hu", "sr_RS_Latn" };
+
+  @Test
+  public void testCalculateFileAccessWithRelativeWorkingDirectory() {
+    BundleGrouper bundleGrouper = new BundleGrouper(LANGUAGES, "target/../target/i18n");
+    File languageFile = new File("target/i18n/de_app/messages_de_CH.properties");
+    Assert.assertEquals("de_app" + File.separator + "messages.properties",
+        bundleGrouper.calculateFileAccess(languageFile));
+    Assert.assertEquals("de_app" + File.separator + "messages.properties",
+        bundleGrouper.calculateFileAccess(languageFile.getAbsoluteFile()));
+  }
+
+  @Test
+  public void testGetDefaultLangFileName() {
+    LanguageSuffixResolver resolver = new LanguageSuffixResolver(LANGUAGES);
+    Assert.assertEquals("messages.properties",
+        resolver.getDefaultLangFileName("messages_de_CH.properties"));
+    Assert.assertEquals("my_de.properties",
+        resolver.getDefaultLangFileName("my_de_hu.properties"));
+    String defaultLangFileName = "my_design.properties";
+    Assert.assertSame(defaultLangFileName,
+        resolver.getDefaultLangFileName(defaultLangFileName));
+  }
+
+  @Test
+  public void testResolveLanguage() {
+    LanguageSuffixResolver resolver = new LanguageSuffixResolver(LANGUAGES);
+    Assert.assertEquals(0, resolver.resolveLanguage("messages_de.properties"));
+    Assert.assertEquals(1, resolver.resolveLanguage("messages_de_CH.properties"));
+    Assert.assertEquals(2, resolver.resolveLanguage("de_hu.properties"));
+    Assert.assertEquals(3, resolver.resolveLanguage("messages_sr_RS_Latn.properties"));
+    Assert.assertEquals(LanguageSuffixResolver.DEFAULT_LANGUAGE,
+        resolver.resolveLanguage("messages_de_AT.properties"));
+    Assert.assertEquals(LanguageSuffixResolver.DEFAULT_LANGUAGE,
+        resolver.resolveLanguage("my_design.properties"));
+    Assert.assertEquals(LanguageSuffixResolver.DEFAULT_LANGUAGE,
+        resolver.resolveLanguage("_de.properties"));
+  }
+
+}
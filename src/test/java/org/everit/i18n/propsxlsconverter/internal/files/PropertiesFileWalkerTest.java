@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PropertiesFileWalkerTest {
+
+  private static final String FILE_REGULAR_EXPRESSION = ".*\\.properties$";
+
+  private static final int PARALLELISM = 4;
+
+  private Path rootDirectory;
+
+  @After
+  public void after() {
+    FileUtils.deleteQuietly(rootDirectory.toFile());
+  }
+
+  @Before
+  public void before() throws IOException {
+    rootDirectory = new File("target/walker").getAbsoluteFile().toPath();
+    FileUtils.deleteQuietly(rootDirectory.toFile());
+    Files.createDirectories(rootDirectory);
+  }
+
+  private List<String> walk(final int parallelism) {
+    List<String> paths = new ArrayList<String>();
+    for (File file : new PropertiesFileWalker(rootDirectory.toFile(), FILE_REGULAR_EXPRESSION,
+        Collections.<String> emptyList(), parallelism).walk()) {
+      paths.add(rootDirectory.relativize(file.toPath()).toString().replace(File.separatorChar,
+          '/'));
+    }
+    return paths;
+  }
+
+  @Test
+  public void testSymbolicLinksInBothModes() throws IOException {
+    Path messagesDirectory = Files.createDirectories(rootDirectory.resolve("messages"));
+    Files.createFile(messagesDirectory.resolve("messages.properties"));
+    try {
+      Files.createSymbolicLink(rootDirectory.resolve("dangling.properties"),
+          rootDirectory.resolve("missing.properties"));
+      Files.createSymbolicLink(rootDirectory.resolve("dangling"), rootDirectory.resolve("missing"));
+      Files.createSymbolicLink(rootDirectory.resolve("alias"), messagesDirectory);
+      Files.createSymbolicLink(messagesDirectory.resolve("loop"), rootDirectory);
+    } catch (UnsupportedOperationException | IOException e) {
+      Assume.assumeNoException(e);
+    }
+
+    List<String> expectedPaths = new ArrayList<String>();
+    expectedPaths.add("alias/messages.properties");
+    expectedPaths.add("messages/messages.properties");
+    Assert.assertEquals(expectedPaths, walk(1));
+    Assert.assertEquals(expectedPaths, walk(PARALLELISM));
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.format;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.everit.i18n.propsxlsconverter.internal.workbook.WorkbookRowHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class XliffReaderTest {
+
+  private static final String FILE_END = "</body></file></xliff>";
+
+  private static final String FILE_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+      + "<xliff version=\"1.2\" xmlns=\"urn:oasis:names:tc:xliff:document:1.2\">"
+      + "<file original=\"messages.properties\" source-language=\"en\" target-language=\"hu\""
+      + " datatype=\"javapropertyresourcebundle\">";
+
+  private static void assertReadFails(final String document, final String expectedMessage) {
+    try {
+      read(document);
+      Assert.fail("The document is accepted: " + document);
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains(expectedMessage));
+    }
+  }
+
+  private static List<WorkbookRowDTO> read(final String document) {
+    List<WorkbookRowDTO> rows = new ArrayList<>();
+    new XliffReader(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)),
+        "test.xlf").readRows(new WorkbookRowHandler() {
+
+          @Override
+          public void handleHeader(final String[] languages) {
+            Assert.assertArrayEquals(new String[] { "hu" }, languages);
+          }
+
+          @Override
+          public void handleRow(final WorkbookRowDTO row) {
+            rows.add(row);
+          }
+        }, 1);
+    return rows;
+  }
+
+  @Test
+  public void testInlineElements() {
+    List<WorkbookRowDTO> rows = read(FILE_START + "<body>"
+        + "<trans-unit id=\"greeting\">"
+        + "<source>Hello <g id=\"1\">dear</g> <ph id=\"2\">{0}</ph>!</source>"
+        + "<target>Szia <mrk mtype=\"term\"><g id=\"1\">kedves</g></mrk> <ph id=\"2\">{0}</ph>!"
+        + "</target>"
+        + "</trans-unit>" + FILE_END);
+
+    Assert.assertEquals(1, rows.size());
+    Assert.assertEquals("Hello dear {0}!", rows.get(0).defaultLangValue);
+    Assert.assertEquals("Szia kedves {0}!", rows.get(0).langValues.get("hu"));
+
+    assertReadFails(FILE_START + "<body><trans-unit id=\"greeting\">"
+        + "<source>Hello <x id=\"1\"/></source></trans-unit>" + FILE_END,
+        "The trans-unit [greeting] of the bundle [messages.properties] contains the placeholder"
+            + " element [x]");
+  }
+
+  @Test
+  public void testMissingAttributes() {
+    assertReadFails(FILE_START.replace("original=\"messages.properties\"", "") + "<body>"
+        + FILE_END, "A file element has no original attribute in the file [test.xlf].");
+    assertReadFails(FILE_START + "<body><trans-unit><source>Hello</source></trans-unit>"
+        + FILE_END, "A trans-unit of the bundle [messages.properties] has no id attribute");
+  }
+
+  @Test
+  public void testSkipUnknownElements() {
+    List<WorkbookRowDTO> rows = read(FILE_START
+        + "<header><tool tool-id=\"editor\" tool-name=\"Editor\"/>"
+        + "<note>Exported by an editor.</note></header>"
+        + "<body>"
+        + "<group id=\"greetings\"><note>The greetings.</note>"
+        + "<trans-unit id=\"hello\">"
+        + "<source>Hello</source>"
+        + "<target state=\"translated\">Szia</target>"
+        + "<note from=\"translator\">Informal.</note>"
+        + "<alt-trans><source>Hello</source><target>Üdvözlöm</target></alt-trans>"
+        + "</trans-unit>"
+        + "</group>"
+        + "<trans-unit id=\"bye\"><!-- comment --><source>Bye<!-- comment --></source>"
+        + "<target><![CDATA[Viszlát]]></target></trans-unit>"
+        + FILE_END);
+
+    Assert.assertEquals(2, rows.size());
+    Assert.assertEquals("hello", rows.get(0).propKey);
+    Assert.assertEquals("Hello", rows.get(0).defaultLangValue);
+    Assert.assertEquals("Szia", rows.get(0).langValues.get("hu"));
+    Assert.assertEquals("bye", rows.get(1).propKey);
+    Assert.assertEquals("Bye", rows.get(1).defaultLangValue);
+    Assert.assertEquals("Viszlát", rows.get(1).langValues.get("hu"));
+  }
+
+}
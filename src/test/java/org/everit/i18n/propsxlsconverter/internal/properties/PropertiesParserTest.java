@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PropertiesParserTest {
+
+  private static final String[] INPUTS = new String[] {
+      "key=value",
+      "key = value\nkey2:value2\r\nkey3 value3\rkey4\tvalue4\fkey5",
+      "  # comment\n! comment \\\nkey=value\n\n   \nlast",
+      "k\\=e\\:y\\ 1=v\\=a\\:lu\\e\\\\",
+      "key = = value  \nkey2 :=value\nkey3  value with  spaces  ",
+      "multi = first \\\n     second \\\r\n\tthird\\\r   fourth",
+      "ke\\\n  y=v\nkey2 \\\n  = v2\n\\\n\nkey3=a\\\n\nkey4",
+      "tabs=\\t\\n\\r\\f\\b\\\"\\'\nunicode=\\u00e1rv\\u00CDz\\u0020\n\\u0041key=x",
+      "dup=1\ndup=2\nárvíztűrő=tükörfúrógép",
+      "escaped\\ árvíztűrő=tükör\\ fúrógép \\u20ac € \\uD83D\\uDE00 \uD83D\uDE00",
+      "trailing=backslash\\",
+      "",
+  };
+
+  private static Map<String, String> parse(final String input) throws IOException {
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    new PropertiesParser().parse(new StringReader(input), result::put);
+    return result;
+  }
+
+  @Test
+  public void testMalformedUnicodeEscape() throws IOException {
+    try {
+      parse("key=\\u00g1");
+      Assert.fail("Expect IllegalArgumentException.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
+
+    try {
+      parse("key=\\u00\nkey2=value");
+      Assert.fail("Expect IllegalArgumentException.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
+
+    try {
+      byte[] bytes = "key=\\u00g1".getBytes(StandardCharsets.UTF_8);
+      new PropertiesParser().parse(bytes, bytes.length, (key, value) -> {
+      });
+      Assert.fail("Expect IllegalArgumentException.");
+    } catch (IllegalArgumentException e) {
+      Assert.assertNotNull(e);
+    }
+  }
+
+  @Test
+  public void testSameResultAsJavaUtilProperties() throws IOException {
+    PropertiesParser parser = new PropertiesParser();
+    for (String input : INPUTS) {
+      Properties expected = new Properties();
+      expected.load(new StringReader(input));
+
+      Map<String, String> actual = new LinkedHashMap<String, String>();
+      parser.parse(new StringReader(input), actual::put);
+
+      Assert.assertEquals("Different result for input [" + input + "].", expected, actual);
+
+      byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+      Map<String, String> actualFromBytes = new LinkedHashMap<String, String>();
+      parser.parse(bytes, bytes.length, actualFromBytes::put);
+
+      Assert.assertEquals("Different result for bytes of input [" + input + "].", expected,
+          actualFromBytes);
+    }
+  }
+
+}
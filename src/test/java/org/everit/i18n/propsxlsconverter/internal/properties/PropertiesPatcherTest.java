@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.properties;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PropertiesPatcherTest {
+
+  private static final String CONTENT = "# comment\n"
+      + "\n"
+      + "  first : value\\\\\n"
+      + "multi = one \\\n"
+      + "    two\r\n"
+      + "! another comment\n"
+      + "last=\\u00e1";
+
+  private static Properties load(final byte[] content) throws IOException {
+    Properties properties = new Properties();
+    properties.load(new StringReader(new String(content, StandardCharsets.UTF_8)));
+    return properties;
+  }
+
+  private static byte[] patch(final String content, final boolean appendEmptyValues,
+      final String... keyValues) {
+    Properties values = new Properties();
+    String[] keys = new String[keyValues.length / 2];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = keyValues[i * 2];
+      values.setProperty(keys[i], keyValues[(i * 2) + 1]);
+    }
+    byte[] bytes = content == null ? null : content.getBytes(StandardCharsets.UTF_8);
+    return new PropertiesPatcher(values, Arrays.asList(keys), appendEmptyValues).patch(bytes);
+  }
+
+  @Test
+  public void testAppend() throws IOException {
+    byte[] appended = patch(CONTENT, false, "new key", " vá", "empty", "");
+    Assert.assertEquals(CONTENT + "\nnew\\ key=\\ v\\u00E1\n",
+        new String(appended, StandardCharsets.UTF_8));
+    Assert.assertEquals(" vá", load(appended).getProperty("new key"));
+
+    Assert.assertEquals("empty=\n",
+        new String(patch(null, true, "empty", ""), StandardCharsets.UTF_8));
+    Assert.assertNull(patch(null, false, "empty", ""));
+  }
+
+  @Test
+  public void testEmptyValuesKeepExistingProperties() throws IOException {
+    Assert.assertEquals(CONTENT, new String(patch(CONTENT, false, "first", "", "last", ""),
+        StandardCharsets.UTF_8));
+
+    byte[] patched = patch(CONTENT, true, "first", "", "multi", "changed", "new", "");
+    Assert.assertEquals(
+        CONTENT.replace("multi = one \\\n    two", "multi=changed") + "\nnew=\n",
+        new String(patched, StandardCharsets.UTF_8));
+    Properties properties = load(patched);
+    Assert.assertEquals("value\\", properties.getProperty("first"));
+    Assert.assertEquals("", properties.getProperty("new"));
+  }
+
+  @Test
+  public void testReplaceOnlyChangedLines() throws IOException {
+    byte[] unchanged = CONTENT.getBytes(StandardCharsets.UTF_8);
+    Assert.assertSame(unchanged, new PropertiesPatcher(load(unchanged),
+        Arrays.asList("first", "multi", "last"), true).patch(unchanged));
+
+    byte[] patched = patch(CONTENT, false, "multi", "changed", "last", "x\ny");
+    Assert.assertEquals("# comment\n"
+        + "\n"
+        + "  first : value\\\\\n"
+        + "multi=changed\r\n"
+        + "! another comment\n"
+        + "last=x\\ny", new String(patched, StandardCharsets.UTF_8));
+
+    Properties properties = load(patched);
+    Assert.assertEquals("value\\", properties.getProperty("first"));
+    Assert.assertEquals("x\ny", properties.getProperty("last"));
+  }
+
+}
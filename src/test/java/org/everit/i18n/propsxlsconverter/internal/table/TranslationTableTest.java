@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.i18n.propsxlsconverter.internal.table;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.everit.i18n.propsxlsconverter.internal.dto.WorkbookRowDTO;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TranslationTableTest {
+
+  private static final int KEY_COUNT = 10000;
+
+  @Test
+  public void testColumns() {
+    TranslationTable table = new TranslationTable("messages.properties",
+        new String[] { "hu", "de" });
+    table.put("key", table.getColumn("de"), "Wert");
+    table.put("key", TranslationTable.DEFAULT_LANG_COLUMN, "value");
+    table.put("other", table.getColumn("hu"), "másik");
+
+    Assert.assertEquals(2, table.getRowCount());
+    Assert.assertEquals(-1, table.getColumn("fr"));
+    Assert.assertEquals(-1, table.findRow("missing"));
+
+    WorkbookRowDTO row = table.toWorkbookRow(table.findRow("key"));
+    Assert.assertEquals("messages.properties", row.propertiesFile);
+    Assert.assertEquals("key", row.propKey);
+    Assert.assertEquals("value", row.defaultLangValue);
+    Assert.assertEquals("Wert", row.langValues.get("de"));
+    Assert.assertNull(row.langValues.get("hu"));
+
+    WorkbookRowDTO otherRow = table.toWorkbookRow(table.findRow("other"));
+    Assert.assertNull(otherRow.defaultLangValue);
+    Assert.assertEquals("másik", otherRow.langValues.get("hu"));
+  }
+
+  @Test
+  public void testRowsInOrderOfFirstOccurrence() {
+    TranslationTable table = new TranslationTable("messages.properties", new String[] { "hu" });
+    Map<String, String> expected = new LinkedHashMap<String, String>();
+    for (int i = KEY_COUNT - 1; i >= 0; i--) {
+      String key = "key." + (i * 31);
+      table.put(key, TranslationTable.DEFAULT_LANG_COLUMN, "value" + i);
+      expected.put(key, "value" + i);
+    }
+    for (int i = 0; i < KEY_COUNT; i += 2) {
+      String key = "key." + (i * 31);
+      table.put(key, table.getColumn("hu"), "érték" + i);
+    }
+
+    Assert.assertEquals(expected.size(), table.getRowCount());
+    int row = 0;
+    for (Map.Entry<String, String> entry : expected.entrySet()) {
+      Assert.assertEquals(entry.getKey(), table.getKey(row));
+      Assert.assertEquals(row, table.findRow(entry.getKey()));
+      Assert.assertEquals(entry.getValue(),
+          table.getValue(row, TranslationTable.DEFAULT_LANG_COLUMN));
+      row++;
+    }
+    Assert.assertEquals("érték0", table.getValue(table.findRow("key.0"), table.getColumn("hu")));
+    Assert.assertNull(table.getValue(table.findRow("key.31"), table.getColumn("hu")));
+  }
+
+}